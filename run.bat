@@ -1,6 +1,7 @@
 @echo off
 REM Production startup script for Windows with JVM arguments
 REM Usage: run.bat
+REM For a -Pvector build add --add-modules jdk.incubator.vector (SIMD pixel normalizer)
 
 java --enable-native-access=ALL-UNNAMED -jar target\gradproject-0.0.1-SNAPSHOT.jar
 
@@ -2,6 +2,7 @@
 
 # Production startup script with JVM arguments
 # Usage: ./run.sh
+# For a -Pvector build add --add-modules jdk.incubator.vector (SIMD pixel normalizer)
 
 java --enable-native-access=ALL-UNNAMED \
      -jar target/gradproject-0.0.1-SNAPSHOT.jar
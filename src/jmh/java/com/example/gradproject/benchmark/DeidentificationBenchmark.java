@@ -0,0 +1,126 @@
+package com.example.gradproject.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.gradproject.service.impl.DeidentifyingInputStream;
+
+/**
+ * De-identification rewrite rate, reported as MiB per second (one op is one
+ * MiB). The object is a 64 MiB DICOM file with patient attributes, a
+ * private blob and pixel data, read through an 8 KiB-chunk source the way
+ * an S3 response stream delivers it. Compare with copyOnly, the cost of
+ * moving the same bytes with no parsing. Run with -prof gc to confirm the
+ * allocation per op does not grow with the object.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeidentificationBenchmark {
+
+    private static final int MIB = 1024 * 1024;
+    private static final int OBJECT_MIB = 64;
+
+    private byte[] object;
+    private byte[] sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        object = syntheticDicom();
+        sink = new byte[64 * 1024];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECT_MIB)
+    public long deidentify() throws IOException {
+        try (InputStream in = DeidentifyingInputStream.open(new ChunkedInputStream(object)).orElseThrow()) {
+            return drain(in);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECT_MIB)
+    public long copyOnly() throws IOException {
+        try (InputStream in = new ChunkedInputStream(object)) {
+            return drain(in);
+        }
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = in.read(sink)) > 0) {
+            total += n;
+        }
+        return total;
+    }
+
+    private static byte[] syntheticDicom() {
+        ByteBuffer out = ByteBuffer.allocate(OBJECT_MIB * MIB).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(new byte[128]).put(ascii("DICM"));
+        explicit(out, 0x0002, 0x0010, "UI", ascii("1.2.840.10008.1.2.1\0"));
+        explicit(out, 0x0008, 0x0060, "CS", ascii("MR"));
+        explicit(out, 0x0008, 0x0080, "LO", ascii("GENERAL HOSPITAL"));
+        explicit(out, 0x0010, 0x0010, "PN", ascii("DOE^JANE"));
+        explicit(out, 0x0010, 0x0020, "LO", ascii("MRN0012345"));
+        explicit(out, 0x0010, 0x0030, "DA", ascii("19800101"));
+        explicit(out, 0x0029, 0x0010, "LO", ascii("VENDOR"));
+        explicit(out, 0x0029, 0x1010, "OB", new byte[4 * MIB]);
+        explicit(out, 0x0028, 0x0010, "US", new byte[] { 0, 2 });
+        explicit(out, 0x0028, 0x0011, "US", new byte[] { 0, 2 });
+        int pixels = out.remaining() - 12;
+        out.putShort((short) 0x7FE0).putShort((short) 0x0010).put(ascii("OW")).putShort((short) 0).putInt(pixels);
+        return Arrays.copyOf(out.array(), out.capacity());
+    }
+
+    private static void explicit(ByteBuffer out, int group, int element, String vr, byte[] value) {
+        out.putShort((short) group).putShort((short) element).put(ascii(vr));
+        if (vr.equals("OB") || vr.equals("OW")) {
+            out.putShort((short) 0).putInt(value.length);
+        } else {
+            out.putShort((short) value.length);
+        }
+        out.put(value);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns at most 8 KiB per read, like a network stream.
+     */
+    private static final class ChunkedInputStream extends ByteArrayInputStream {
+
+        ChunkedInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 8192));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.gradproject.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.gradproject.config.JwtUtil;
+
+/**
+ * JwtUtil costs on the request path. validateToken(token, user) is what
+ * JwtAuthenticationFilter calls after extractUsername, so one
+ * authenticated request pays extractUsername + validateTokenForUser.
+ * extractRoles stands in for extractAllClaims (private): one signature
+ * check and claims parse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        BenchmarkSupport.setField(jwtUtil, "secret", "benchmark-secret-benchmark-secret-0123456789");
+        BenchmarkSupport.setField(jwtUtil, "expiration", 3_600_000L);
+        BenchmarkSupport.setField(jwtUtil, "refreshExpiration", 604_800_000L);
+        user = User.withUsername("jane.doe@example.com").password("unused").roles("PATIENT").build();
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public List<String> extractAllClaims() {
+        return jwtUtil.extractRoles(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateTokenForUser() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.gradproject.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.gradproject.service.impl.PerceptualHashIndex;
+
+/**
+ * Near-duplicate query latency against index size.
+ * A tenth of the indexed hashes are noisy copies (1-6 flipped bits) of
+ * earlier ones, so queries have real matches. The linear scan is the
+ * baseline the multi-index lookup replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class NearDuplicateIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({ "10000", "100000", "1000000", "5000000" })
+    private int size;
+
+    @Param({ "6", "10" })
+    private int maxDistance;
+
+    private PerceptualHashIndex index;
+    private long[] hashes;
+    private long[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new PerceptualHashIndex();
+        hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = i > 0 && i % 10 == 0 ? flip(hashes[random.nextInt(i)], 1 + random.nextInt(6), random)
+                    : random.nextLong();
+            index.add(i, i % 1000, hashes[i]);
+        }
+
+        queries = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = flip(hashes[random.nextInt(size)], random.nextInt(4), random);
+        }
+    }
+
+    @Benchmark
+    public List<PerceptualHashIndex.Match> multiIndexQuery() {
+        return index.query(nextQuery(), -1, maxDistance);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        long query = nextQuery();
+        int found = 0;
+        for (long hash : hashes) {
+            if (Long.bitCount(hash ^ query) <= maxDistance) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private long nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    private static long flip(long hash, int bits, SplittableRandom random) {
+        long result = hash;
+        for (int i = 0; i < bits; i++) {
+            result ^= 1L << random.nextInt(64);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.gradproject.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.gradproject.service.impl.PixelNormalizer;
+import com.example.gradproject.service.impl.ScalarPixelNormalizer;
+import com.example.gradproject.service.impl.TensorPool;
+import com.example.gradproject.service.impl.VectorizedScanPreprocessor;
+
+/**
+ * Scan preprocessing throughput, reported as pixels per second.
+ * Compare the naive path (full decode, fresh rasters and float[] per scan,
+ * boxed-free but divide-heavy scalar loop) with the pooled/vectorized one.
+ * Run with -prof gc (the profile default) to see allocation rate per op.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class PreprocessingBenchmark {
+
+    private static final int INPUT_SIZE = 224;
+    private static final int SOURCE_SIZE = 1024;
+    private static final int TENSOR_PIXELS = INPUT_SIZE * INPUT_SIZE;
+    private static final int SOURCE_PIXELS = SOURCE_SIZE * SOURCE_SIZE;
+    private static final float MEAN = 0.5f;
+    private static final float STD = 0.25f;
+
+    private byte[] encodedScan;
+    private byte[] pixels;
+    private float[] values;
+
+    private PixelNormalizer scalar;
+    private PixelNormalizer vector;
+    private TensorPool tensorPool;
+    private VectorizedScanPreprocessor preprocessor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        encodedScan = syntheticScan();
+
+        pixels = new byte[TENSOR_PIXELS];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) (i * 31);
+        }
+        values = new float[TENSOR_PIXELS];
+
+        scalar = new ScalarPixelNormalizer();
+        vector = PixelNormalizer.best();
+
+        tensorPool = new TensorPool();
+        BenchmarkSupport.setField(tensorPool, "inputSize", INPUT_SIZE);
+        // Enough for one tensor per thread when run with -t
+        BenchmarkSupport.setField(tensorPool, "maxSize", 64);
+
+        preprocessor = new VectorizedScanPreprocessor(tensorPool);
+        BenchmarkSupport.setField(preprocessor, "inputSize", INPUT_SIZE);
+        BenchmarkSupport.setField(preprocessor, "mean", MEAN);
+        BenchmarkSupport.setField(preprocessor, "std", STD);
+        preprocessor.start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TENSOR_PIXELS)
+    public float[] normalizeNaive() {
+        float[] out = new float[TENSOR_PIXELS];
+        for (int i = 0; i < TENSOR_PIXELS; i++) {
+            out[i] = ((pixels[i] & 0xFF) / 255f - MEAN) / STD;
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TENSOR_PIXELS)
+    public float[] normalizeScalar() {
+        scalar.normalize(pixels, values, TENSOR_PIXELS, MEAN, STD);
+        return values;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TENSOR_PIXELS)
+    public float[] normalizeVector() {
+        vector.normalize(pixels, values, TENSOR_PIXELS, MEAN, STD);
+        return values;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SOURCE_PIXELS)
+    public float[] preprocessNaive() throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(encodedScan));
+        BufferedImage gray = new BufferedImage(INPUT_SIZE, INPUT_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, INPUT_SIZE, INPUT_SIZE, null);
+        } finally {
+            g.dispose();
+        }
+        byte[] raster = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        float[] tensor = new float[raster.length];
+        for (int i = 0; i < raster.length; i++) {
+            tensor[i] = ((raster[i] & 0xFF) / 255f - MEAN) / STD;
+        }
+        return tensor;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SOURCE_PIXELS)
+    public void preprocessPooled() throws IOException {
+        FloatBuffer tensor = preprocessor.preprocess(new ByteArrayInputStream(encodedScan));
+        tensorPool.release(tensor);
+    }
+
+    private static byte[] syntheticScan() throws IOException {
+        BufferedImage image = new BufferedImage(SOURCE_SIZE, SOURCE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] raster = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < SOURCE_SIZE; y++) {
+            for (int x = 0; x < SOURCE_SIZE; x++) {
+                raster[y * SOURCE_SIZE + x] = (byte) ((x ^ y) + (x * y >> 7));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.gradproject.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.gradproject.service.impl.ScanHeaderParser;
+
+/**
+ * Header extraction cost per file, against in-memory objects that stand in
+ * for S3. The DICOM file declares 100 MiB of pixel data behind a 2 MiB
+ * private blob and a nested sequence; the NIfTI file is gzip-compressed.
+ * The bytesRead/files and requests/files aux counters give bytes fetched
+ * and ranged GETs per file (compare with the fileSize param printed at
+ * setup, which a full download would cost).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanHeaderBenchmark {
+
+    private static final int PIXEL_BYTES = 512 * 512 * 2 * 200;
+    private static final int PRIVATE_BLOB = 2 * 1024 * 1024;
+
+    @Param({ "dicom", "nifti-gz" })
+    private String format;
+
+    @Param({ "4096", "8192", "65536" })
+    private int initialRange;
+
+    private byte[] content;
+    private long fileSize;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long files;
+        public long bytesRead;
+        public long requests;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (format.equals("dicom")) {
+            content = syntheticDicom();
+            fileSize = content.length + (long) PIXEL_BYTES;
+        } else {
+            content = syntheticNiftiGz();
+            fileSize = content.length;
+        }
+
+        ScanHeaderParser.ScanHeader header = ScanHeaderParser.parse(this::fetch, fileSize, initialRange,
+                4 * 1024 * 1024).orElseThrow(() -> new IllegalStateException("Synthetic " + format + " not parsed"));
+        if (header.width() != 512 || header.height() != 512 || header.depth() != 200) {
+            throw new IllegalStateException("Unexpected header: " + header);
+        }
+        System.out.printf("%n%s: %d of %d bytes read in %d requests%n", format, header.bytesRead(), fileSize,
+                header.requests());
+    }
+
+    @Benchmark
+    public ScanHeaderParser.ScanHeader parse(Counters counters) throws IOException {
+        ScanHeaderParser.ScanHeader header = ScanHeaderParser.parse(this::fetch, fileSize, initialRange,
+                4 * 1024 * 1024).orElseThrow();
+        counters.files++;
+        counters.bytesRead += header.bytesRead();
+        counters.requests += header.requests();
+        return header;
+    }
+
+    // Bytes past the stored header are pixel data, served as zeros
+    private byte[] fetch(long offset, int length) {
+        int available = (int) Math.min(length, fileSize - offset);
+        byte[] range = new byte[available];
+        if (offset < content.length) {
+            System.arraycopy(content, (int) offset, range, 0, (int) Math.min(available, content.length - offset));
+        }
+        return range;
+    }
+
+    private static byte[] syntheticDicom() {
+        ByteBuffer out = ByteBuffer.allocate(PRIVATE_BLOB + 64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(new byte[128]).put("DICM".getBytes(StandardCharsets.US_ASCII));
+        explicit(out, 0x0002, 0x0010, "UI", "1.2.840.10008.1.2.1\0".getBytes(StandardCharsets.US_ASCII));
+
+        explicit(out, 0x0008, 0x0020, "DA", ascii("20240131"));
+        explicit(out, 0x0008, 0x0060, "CS", ascii("MR"));
+        // Referenced series sequence, undefined length, one item of undefined length
+        out.putShort((short) 0x0008).putShort((short) 0x1115).put(ascii("SQ")).putShort((short) 0).putInt(-1);
+        out.putShort((short) 0xFFFE).putShort((short) 0xE000).putInt(-1);
+        explicit(out, 0x0020, 0x000E, "UI", ascii("1.2.3.4.5.6"));
+        out.putShort((short) 0xFFFE).putShort((short) 0xE00D).putInt(0);
+        out.putShort((short) 0xFFFE).putShort((short) 0xE0DD).putInt(0);
+        explicit(out, 0x0008, 0x1030, "LO", ascii("BRAIN W/O CONTRAST"));
+        explicit(out, 0x0009, 0x0010, "LO", ascii("VENDOR"));
+        explicit(out, 0x0009, 0x1001, "OB", new byte[PRIVATE_BLOB]);
+        explicit(out, 0x0018, 0x0015, "CS", ascii("HEAD"));
+        explicit(out, 0x0028, 0x0008, "IS", ascii("200 "));
+        explicit(out, 0x0028, 0x0010, "US", le16(512));
+        explicit(out, 0x0028, 0x0011, "US", le16(512));
+        explicit(out, 0x0028, 0x0100, "US", le16(16));
+        out.putShort((short) 0x7FE0).putShort((short) 0x0010).put(ascii("OW")).putShort((short) 0)
+                .putInt(PIXEL_BYTES);
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private static byte[] syntheticNiftiGz() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(352).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, 348);
+        short[] dims = { 3, 512, 512, 200, 1, 1, 1, 1 };
+        for (int i = 0; i < dims.length; i++) {
+            header.putShort(40 + 2 * i, dims[i]);
+        }
+        header.putShort(70, (short) 4).putShort(72, (short) 16);
+        header.put(148, ascii("T1 volume"));
+        header.put(344, (byte) 'n').put(345, (byte) '+').put(346, (byte) '1');
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(header.array());
+            // A slice of noisy voxels so the compressed stream is realistic in size
+            byte[] slice = new byte[512 * 512 * 2];
+            new Random(42).nextBytes(slice);
+            gzip.write(slice);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void explicit(ByteBuffer out, int group, int element, String vr, byte[] value) {
+        out.putShort((short) group).putShort((short) element).put(ascii(vr));
+        boolean longLength = vr.equals("OB") || vr.equals("OW") || vr.equals("SQ") || vr.equals("UN");
+        if (longLength) {
+            out.putShort((short) 0).putInt(value.length);
+        } else {
+            out.putShort((short) value.length);
+        }
+        out.put(value);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] le16(int value) {
+        return new byte[] { (byte) value, (byte) (value >> 8) };
+    }
+}
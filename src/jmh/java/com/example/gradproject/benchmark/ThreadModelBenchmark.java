@@ -0,0 +1,120 @@
+package com.example.gradproject.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request throughput (requests per second) of the two execution modes under
+ * I/O-bound load. Each simulated request makes three 5 ms blocking calls
+ * (database, Redis, S3). {@code concurrency} clients keep that many
+ * requests in flight.
+ * <ul>
+ * <li>platform: Tomcat's default pool of 200 threads</li>
+ * <li>virtual: one virtual thread per request
+ * (spring.threads.virtual.enabled)</li>
+ * </ul>
+ * {@code blocking=monitor} blocks inside a synchronized block, as SMTP did
+ * before the hand-off. That pins the carrier, so virtual threads degrade
+ * to one request per core at a time. {@code blocking=lock} uses a
+ * ReentrantLock, as Connector/J 9 and Hikari do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModelBenchmark {
+
+    private static final int REQUESTS = 2000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int CALLS_PER_REQUEST = 3;
+    private static final long CALL_MILLIS = 5;
+
+    @Param({ "platform", "virtual" })
+    private String threads;
+
+    @Param({ "200", "1000" })
+    private int concurrency;
+
+    @Param({ "lock", "monitor" })
+    private String blocking;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int serve() throws Exception {
+        Semaphore clients = new Semaphore(concurrency);
+        List<Future<?>> responses = new ArrayList<>(REQUESTS);
+        boolean monitor = blocking.equals("monitor");
+        for (int i = 0; i < REQUESTS; i++) {
+            clients.acquire();
+            responses.add(executor.submit(() -> {
+                try {
+                    handle(monitor);
+                } finally {
+                    clients.release();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> response : responses) {
+            response.get();
+        }
+        return responses.size();
+    }
+
+    private static void handle(boolean monitor) throws InterruptedException {
+        // Per-request locks: no contention, only the blocking primitive differs
+        Object connection = new Object();
+        ReentrantLock lock = new ReentrantLock();
+        for (int call = 0; call < CALLS_PER_REQUEST; call++) {
+            if (monitor) {
+                synchronized (connection) {
+                    Thread.sleep(CALL_MILLIS);
+                }
+            } else {
+                lock.lock();
+                try {
+                    Thread.sleep(CALL_MILLIS);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.gradproject.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.gradproject.service.impl.TokenBlacklistService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Blacklist check against the number of revoked, unexpired tokens. The
+ * token is cut from an Authorization header on every call, as the JWT
+ * filter does, so its hash code is never cached; the miss case is what
+ * nearly every request pays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TokenBlacklistBenchmark {
+
+    private static final int HEADERS = 1024;
+
+    @Param({ "100", "10000", "1000000" })
+    private int size;
+
+    private TokenBlacklistService blacklist;
+    private String[] revokedHeaders;
+    private String[] validHeaders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        blacklist = new TokenBlacklistService(new SimpleMeterRegistry());
+        SplittableRandom random = new SplittableRandom(42);
+        long expiry = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        revokedHeaders = new String[HEADERS];
+        for (int i = 0; i < size; i++) {
+            String token = token(random);
+            blacklist.blacklistToken(token, expiry);
+            if (i < HEADERS) {
+                revokedHeaders[i] = "Bearer " + token;
+            }
+        }
+        validHeaders = new String[HEADERS];
+        for (int i = 0; i < HEADERS; i++) {
+            validHeaders[i] = "Bearer " + token(random);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        blacklist.shutdown();
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return blacklist.isTokenBlacklisted(validHeaders[nextIndex()].substring(7));
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return blacklist.isTokenBlacklisted(revokedHeaders[nextIndex() % Math.min(size, HEADERS)].substring(7));
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (HEADERS - 1);
+        return next;
+    }
+
+    // Same shape and length as the access tokens JwtUtil issues (HS256, three claims)
+    private static String token(SplittableRandom random) {
+        StringBuilder token = new StringBuilder("eyJhbGciOiJIUzI1NiJ9.");
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < 150; i++) {
+            token.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        token.append('.');
+        for (int i = 0; i < 43; i++) {
+            token.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return token.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.gradproject.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyModelTest {
+
+    @Test
+    void emptySpecsMeanNoDelay() {
+        assertThat(LatencyModel.parse(null)).isSameAs(LatencyModel.NONE);
+        assertThat(LatencyModel.parse(" ")).isSameAs(LatencyModel.NONE);
+        assertThat(LatencyModel.parse("0")).isSameAs(LatencyModel.NONE);
+        assertThat(LatencyModel.NONE.isNone()).isTrue();
+        assertThat(LatencyModel.NONE).hasToString("none");
+    }
+
+    @Test
+    void parsesBaseJitterAndTail() {
+        LatencyModel model = LatencyModel.parse("20ms+10ms,1%:500ms");
+
+        assertThat(model.base()).isEqualTo(Duration.ofMillis(20));
+        assertThat(model.jitter()).isEqualTo(Duration.ofMillis(10));
+        assertThat(model.tailProbability()).isEqualTo(0.01);
+        assertThat(model.tail()).isEqualTo(Duration.ofMillis(500));
+        assertThat(model).hasToString("20ms+10ms, 1.0%:500ms");
+    }
+
+    @Test
+    void parsesBaseOnly() {
+        LatencyModel model = LatencyModel.parse("1ms");
+
+        assertThat(model).isEqualTo(new LatencyModel(Duration.ofMillis(1), Duration.ZERO, 0, Duration.ZERO));
+        assertThat(model.isNone()).isFalse();
+    }
+
+    @Test
+    void durationsNeedAUnit() {
+        assertThat(LatencyModel.duration("250us")).isEqualTo(Duration.ofNanos(250_000));
+        assertThat(LatencyModel.duration(" 15ms ")).isEqualTo(Duration.ofMillis(15));
+        assertThat(LatencyModel.duration("30s")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(LatencyModel.duration("2m")).isEqualTo(Duration.ofMinutes(2));
+        assertThatThrownBy(() -> LatencyModel.duration("15")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void malformedTailIsRejected() {
+        assertThatThrownBy(() -> LatencyModel.parse("20ms,500ms")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyModel.parse("20ms,1:500ms")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pauseWaitsAtLeastTheBase() {
+        LatencyModel model = LatencyModel.parse("5ms+1ms");
+
+        long start = System.nanoTime();
+        model.pause();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(5).toNanos());
+    }
+
+    @Test
+    void zeroTailIsNoDelay() {
+        assertThat(LatencyModel.parse("0ms,5%:0ms").isNone()).isTrue();
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.gradproject.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Path-style S3 stand-in holding objects in memory: the calls the
+ * application makes (Put/Get/Head/DeleteObject with ranges and
+ * If-None-Match, multipart uploads) and uploads to presigned PUT URLs.
+ * Signatures are not checked. aws-chunked bodies, which the SDK sends over
+ * plain HTTP, are decoded.
+ */
+final class InMemoryS3Server implements AutoCloseable {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private final HttpServer server;
+    private final LatencyModel latency;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    private record StoredObject(byte[] data, String contentType, String etag, ZonedDateTime lastModified) {
+    }
+
+    private record Upload(String key, String contentType, NavigableMap<Integer, byte[]> parts) {
+    }
+
+    InMemoryS3Server(LatencyModel latency) throws IOException {
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    int objectCount() {
+        return objects.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            latency.pause();
+            String path = exchange.getRequestURI().getRawPath();
+            String[] bucketAndKey = path.substring(1).split("/", 2);
+            if (bucketAndKey.length < 2 || bucketAndKey[1].isEmpty()) {
+                error(exchange, 400, "InvalidRequest", "Bucket-level operations are not supported");
+                return;
+            }
+            String key = URLDecoder.decode(bucketAndKey[1], StandardCharsets.UTF_8);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    if (query.containsKey("uploadId")) {
+                        uploadPart(exchange, query);
+                    } else {
+                        putObject(exchange, key);
+                    }
+                }
+                case "POST" -> {
+                    if (query.containsKey("uploads")) {
+                        createUpload(exchange, bucketAndKey[0], key);
+                    } else if (query.containsKey("uploadId")) {
+                        completeUpload(exchange, bucketAndKey[0], key, query.get("uploadId"));
+                    } else {
+                        error(exchange, 400, "InvalidRequest", "Unsupported POST");
+                    }
+                }
+                case "GET" -> getObject(exchange, key, false);
+                case "HEAD" -> getObject(exchange, key, true);
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) {
+                        uploads.remove(query.get("uploadId"));
+                    } else {
+                        objects.remove(key);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> error(exchange, 405, "MethodNotAllowed", exchange.getRequestMethod());
+            }
+        }
+    }
+
+    private void putObject(HttpExchange exchange, String key) throws IOException {
+        byte[] data = body(exchange);
+        String etag = etag(data);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        objects.put(key, new StoredObject(data, contentType == null ? "binary/octet-stream" : contentType, etag,
+                ZonedDateTime.now(ZoneOffset.UTC)));
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void createUpload(HttpExchange exchange, String bucket, String key) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new Upload(key, exchange.getRequestHeaders().getFirst("Content-Type"),
+                new ConcurrentSkipListMap<>()));
+        xml(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key>"
+                + "<UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> query) throws IOException {
+        Upload upload = uploads.get(query.get("uploadId"));
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", "Unknown upload id");
+            return;
+        }
+        byte[] data = body(exchange);
+        upload.parts().put(Integer.parseInt(query.get("partNumber")), data);
+        exchange.getResponseHeaders().set("ETag", etag(data));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void completeUpload(HttpExchange exchange, String bucket, String key, String uploadId)
+            throws IOException {
+        body(exchange);
+        Upload upload = uploads.remove(uploadId);
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", "Unknown upload id");
+            return;
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (byte[] part : upload.parts().values()) {
+            data.write(part);
+        }
+        byte[] bytes = data.toByteArray();
+        // Multipart ETags are not an MD5 of the content, so the SDK does not check them
+        String etag = "\"" + etag(bytes).replace("\"", "") + "-" + upload.parts().size() + "\"";
+        objects.put(key, new StoredObject(bytes,
+                upload.contentType() == null ? "binary/octet-stream" : upload.contentType(), etag,
+                ZonedDateTime.now(ZoneOffset.UTC)));
+        xml(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key>"
+                + "<ETag>" + escape(etag) + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void getObject(HttpExchange exchange, String key, boolean head) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            if (head) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                error(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+            }
+            return;
+        }
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", object.etag());
+        headers.set("Content-Type", object.contentType());
+        headers.set("Last-Modified", HTTP_DATE.format(object.lastModified()));
+        headers.set("Accept-Ranges", "bytes");
+        if (object.etag().equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        int from = 0;
+        int to = object.data().length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && range.startsWith("bytes=") && object.data().length > 0) {
+            String[] bounds = range.substring(6).split("-", 2);
+            if (bounds[0].isEmpty()) {
+                from = Math.max(0, object.data().length - Integer.parseInt(bounds[1]));
+            } else {
+                from = Integer.parseInt(bounds[0]);
+                if (bounds.length > 1 && !bounds[1].isEmpty()) {
+                    to = Math.min(to, Integer.parseInt(bounds[1]));
+                }
+            }
+            if (from > to) {
+                error(exchange, 416, "InvalidRange", "The requested range is not satisfiable");
+                return;
+            }
+            status = 206;
+            headers.set("Content-Range", "bytes " + from + "-" + to + "/" + object.data().length);
+        }
+
+        int length = to - from + 1;
+        if (head) {
+            headers.set("Content-Length", Integer.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object.data(), from, length);
+        }
+    }
+
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        String encoding = headers.getFirst("Content-Encoding");
+        String sha256 = headers.getFirst("x-amz-content-sha256");
+        boolean chunked = (encoding != null && encoding.contains("aws-chunked"))
+                || (sha256 != null && sha256.startsWith("STREAMING-"));
+        try (InputStream in = exchange.getRequestBody()) {
+            return chunked ? decodeAwsChunked(in) : in.readAllBytes();
+        }
+    }
+
+    // <hex size>;chunk-signature=...\r\n<data>\r\n ... 0;chunk-signature=...\r\n[trailers]\r\n
+    private static byte[] decodeAwsChunked(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (true) {
+            String header = line(data);
+            int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+            if (size == 0) {
+                return out.toByteArray();
+            }
+            byte[] chunk = new byte[size];
+            data.readFully(chunk);
+            out.write(chunk);
+            line(data);
+        }
+    }
+
+    private static String line(DataInputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            query.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                    keyValue.length > 1 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+        }
+        return query;
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        xml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + escape(message) + "</Message></Error>");
+    }
+
+    private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.gradproject.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Server;
+
+/**
+ * Insert throughput of bulk upload registration (one Image and one UserImage
+ * row per key), replaying the statements Hibernate sends for each id
+ * strategy against H2 over TCP, behind a LatencyProxy for the database
+ * round trip:
+ * <ul>
+ * <li>identity: the original schema (V1); every persist is an immediate
+ * INSERT returning the generated key, so each row is a round trip</li>
+ * <li>sequence: the current schema; ids come 50 at a time from the
+ * table-emulated sequences (select for update + update on a separate
+ * connection, like Hibernate's isolated work) and the INSERTs go out with
+ * executeBatch, one transaction per batch</li>
+ * </ul>
+ * Run: mvn -Ploadtest -DskipTests package exec:exec
+ * -Dloadtest.main=com.example.gradproject.loadtest.InsertThroughputProbe
+ * -Dloadtest.args="rows=2000 db.latency=1ms"
+ * <p>
+ * Other keys: batch (default 50, hibernate.jdbc.batch_size) and runs
+ * (default 3, the best run is reported).
+ */
+public final class InsertThroughputProbe {
+
+    // allocationSize of the @SequenceGenerators
+    private static final int ALLOCATION_SIZE = 50;
+
+    private InsertThroughputProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            values.put(keyValue[0], keyValue[1]);
+        }
+        int rows = Integer.parseInt(values.getOrDefault("rows", "2000"));
+        int batch = Integer.parseInt(values.getOrDefault("batch", "50"));
+        int runs = Integer.parseInt(values.getOrDefault("runs", "3"));
+        LatencyModel latency = LatencyModel.parse(values.getOrDefault("db.latency", "1ms"));
+
+        Server h2 = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        try (LatencyProxy proxy = new LatencyProxy(h2.getPort(), latency)) {
+            System.out.printf("Registering %d uploads, batch %d, database latency %s%n", rows, batch, latency);
+            double identity = 0;
+            double sequence = 0;
+            for (int run = 1; run <= runs; run++) {
+                String database = "sequence" + run;
+                identity = Math.max(identity, measure(h2.getPort(), proxy.port(), "identity" + run, "1", rows,
+                        connection -> insertIdentity(connection, rows)));
+                sequence = Math.max(sequence, measure(h2.getPort(), proxy.port(), database, null, rows,
+                        connection -> insertSequence(connection, proxy.port(), database, rows, batch)));
+            }
+            System.out.printf("identity, row by row:     %8.0f uploads/s%n", identity);
+            System.out.printf("sequence + JDBC batches:  %8.0f uploads/s (%.1fx)%n", sequence, sequence / identity);
+        } finally {
+            h2.stop();
+        }
+    }
+
+    private static double measure(int serverPort, int proxyPort, String database, String target, int rows,
+            Inserts inserts) throws Exception {
+        // Schema set-up goes straight to the server, not through the proxy
+        String direct = url(serverPort, database);
+        Flyway flyway = Flyway.configure().dataSource(direct, "sa", "")
+                .target(target == null ? "latest" : target).load();
+        flyway.migrate();
+        try (Connection connection = DriverManager.getConnection(direct, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into `user` (id, email, first_name, last_name, password, role) "
+                    + "values (1, 'probe@loadtest.example.com', 'Probe', 'User', 'x', 'PATIENT')");
+        }
+
+        try (Connection connection = DriverManager.getConnection(url(proxyPort, database), "sa", "")) {
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            inserts.run(connection);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            try (Statement statement = connection.createStatement();
+                    ResultSet count = statement.executeQuery("select count(*) from user_images")) {
+                count.next();
+                if (count.getInt(1) != rows) {
+                    throw new IllegalStateException("Expected " + rows + " rows, found " + count.getInt(1));
+                }
+            }
+            return rows / seconds;
+        }
+    }
+
+    private static void insertIdentity(Connection connection, int rows) throws SQLException {
+        try (PreparedStatement image = connection.prepareStatement(
+                "insert into image (uploaded_at, url, user_id) values (?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+                PreparedStatement userImage = connection.prepareStatement(
+                        "insert into user_images (content_type, file_size, original_filename, s3_key, "
+                                + "upload_date, user_id) values (?, ?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int i = 0; i < rows; i++) {
+                String key = "images/probe-" + i + ".png";
+                image.setTimestamp(1, now);
+                image.setString(2, key);
+                image.setInt(3, 1);
+                image.executeUpdate();
+                readKey(image);
+
+                setUserImage(userImage, key, now);
+                userImage.executeUpdate();
+                readKey(userImage);
+            }
+            connection.commit();
+        }
+    }
+
+    private static void insertSequence(Connection connection, int port, String database, int rows, int batch)
+            throws SQLException {
+        try (Connection isolated = DriverManager.getConnection(url(port, database), "sa", "");
+                PreparedStatement image = connection.prepareStatement(
+                        "insert into image (derivatives_ready, phash, uploaded_at, url, user_id, id) "
+                                + "values (?, ?, ?, ?, ?, ?)");
+                PreparedStatement userImage = connection.prepareStatement(
+                        "insert into user_images (content_type, file_size, original_filename, s3_key, "
+                                + "upload_date, user_id, content_sha256, ref_count, id) "
+                                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            isolated.setAutoCommit(false);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            long imageId = 0;
+            long imageLimit = 0;
+            long userImageId = 0;
+            long userImageLimit = 0;
+            for (int i = 0; i < rows; i++) {
+                if (imageId == imageLimit) {
+                    imageId = nextBlock(isolated, "image_seq");
+                    imageLimit = imageId + ALLOCATION_SIZE;
+                }
+                if (userImageId == userImageLimit) {
+                    userImageId = nextBlock(isolated, "user_image_seq");
+                    userImageLimit = userImageId + ALLOCATION_SIZE;
+                }
+                String key = "images/probe-" + i + ".png";
+                image.setNull(1, Types.BOOLEAN);
+                image.setNull(2, Types.BIGINT);
+                image.setTimestamp(3, now);
+                image.setString(4, key);
+                image.setInt(5, 1);
+                image.setLong(6, imageId++);
+                image.addBatch();
+
+                setUserImage(userImage, key, now);
+                userImage.setNull(7, Types.VARCHAR);
+                userImage.setInt(8, 1);
+                userImage.setLong(9, userImageId++);
+                userImage.addBatch();
+
+                if ((i + 1) % batch == 0 || i == rows - 1) {
+                    // order_inserts groups each table's rows into one batch
+                    image.executeBatch();
+                    userImage.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+    // Hibernate's TableStructure: read and bump the value in its own transaction
+    private static long nextBlock(Connection isolated, String table) throws SQLException {
+        long value;
+        try (Statement statement = isolated.createStatement();
+                ResultSet current = statement.executeQuery("select next_val from " + table + " for update")) {
+            current.next();
+            value = current.getLong(1);
+        }
+        try (PreparedStatement update = isolated.prepareStatement(
+                "update " + table + " set next_val = ? where next_val = ?")) {
+            update.setLong(1, value + ALLOCATION_SIZE);
+            update.setLong(2, value);
+            update.executeUpdate();
+        }
+        isolated.commit();
+        return value;
+    }
+
+    private static void setUserImage(PreparedStatement userImage, String key, Timestamp now) throws SQLException {
+        userImage.setString(1, "image/png");
+        userImage.setLong(2, 1024);
+        userImage.setString(3, key.substring(key.indexOf('/') + 1));
+        userImage.setString(4, key);
+        userImage.setTimestamp(5, now);
+        userImage.setInt(6, 1);
+    }
+
+    private static void readKey(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+        }
+    }
+
+    private static String url(int port, String database) {
+        return "jdbc:h2:tcp://localhost:" + port + "/mem:" + database + ";" + LoadTestMain.H2_MYSQL_MODE;
+    }
+
+    @FunctionalInterface
+    private interface Inserts {
+        void run(Connection connection) throws SQLException;
+    }
+}
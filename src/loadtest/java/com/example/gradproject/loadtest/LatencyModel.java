@@ -0,0 +1,88 @@
+package com.example.gradproject.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delay injected by a stand-in before it handles a request:
+ * base + uniform(0, jitter), plus tail with the given probability.
+ * Spec: {@code base[+jitter][,percent%:tail]}, e.g. {@code 20ms+10ms,1%:500ms}.
+ */
+record LatencyModel(Duration base, Duration jitter, double tailProbability, Duration tail) {
+
+    static final LatencyModel NONE = new LatencyModel(Duration.ZERO, Duration.ZERO, 0, Duration.ZERO);
+
+    static LatencyModel parse(String spec) {
+        if (spec == null || spec.isBlank() || spec.equals("0")) {
+            return NONE;
+        }
+        String[] parts = spec.split(",", 2);
+        String[] delay = parts[0].split("\\+", 2);
+        Duration base = duration(delay[0]);
+        Duration jitter = delay.length > 1 ? duration(delay[1]) : Duration.ZERO;
+        if (parts.length == 1) {
+            return new LatencyModel(base, jitter, 0, Duration.ZERO);
+        }
+        String[] tail = parts[1].split(":", 2);
+        if (tail.length != 2 || !tail[0].endsWith("%")) {
+            throw new IllegalArgumentException("Tail must look like 1%:500ms: " + parts[1]);
+        }
+        double probability = Double.parseDouble(tail[0].substring(0, tail[0].length() - 1)) / 100;
+        return new LatencyModel(base, jitter, probability, duration(tail[1]));
+    }
+
+    static Duration duration(String value) {
+        String v = value.trim();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("us")) {
+            return Duration.ofNanos(Long.parseLong(v.substring(0, v.length() - 2)) * 1000);
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        throw new IllegalArgumentException("Duration needs a unit (us, ms, s, m): " + value);
+    }
+
+    boolean isNone() {
+        return base.isZero() && jitter.isZero() && (tailProbability == 0 || tail.isZero());
+    }
+
+    void pause() {
+        if (isNone()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long nanos = base.toNanos();
+        if (!jitter.isZero()) {
+            nanos += random.nextLong(jitter.toNanos() + 1);
+        }
+        if (tailProbability > 0 && random.nextDouble() < tailProbability) {
+            nanos += tail.toNanos();
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (isNone()) {
+            return "none";
+        }
+        String text = base.toMillis() + "ms";
+        if (!jitter.isZero()) {
+            text += "+" + jitter.toMillis() + "ms";
+        }
+        if (tailProbability > 0) {
+            text += ", " + (tailProbability * 100) + "%:" + tail.toMillis() + "ms";
+        }
+        return text;
+    }
+}
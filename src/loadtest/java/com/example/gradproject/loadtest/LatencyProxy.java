@@ -0,0 +1,82 @@
+package com.example.gradproject.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * TCP forwarder that delays each chunk the client sends, for stand-ins that
+ * cannot inject latency themselves (Redis, SMTP). With no latency the
+ * target is used directly and this is not started.
+ */
+final class LatencyProxy implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final int targetPort;
+    private final LatencyModel latency;
+
+    LatencyProxy(int targetPort, LatencyModel latency) throws IOException {
+        this.serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        this.targetPort = targetPort;
+        this.latency = latency;
+        Thread.ofVirtual().name("latency-proxy-" + targetPort).start(this::accept);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket target = new Socket();
+                target.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), targetPort));
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                Thread.ofVirtual().start(() -> pump(client, target, true));
+                Thread.ofVirtual().start(() -> pump(target, client, false));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Latency proxy accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void pump(Socket from, Socket to, boolean delayed) {
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (delayed) {
+                    latency.pause();
+                }
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Either side closed the connection
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.gradproject.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Per-endpoint latency histograms (HdrHistogram, 3 significant digits) and
+ * error counts. Failed requests are counted as errors and kept out of the
+ * latency percentiles. Throughput is over the measured window unless an
+ * endpoint was given its own.
+ */
+final class LatencyReport {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, Double> windows = new ConcurrentHashMap<>();
+
+    private static final class Endpoint {
+        final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    void record(String endpoint, long nanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        if (success) {
+            stats.latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos),
+                    stats.latencies.getHighestTrackableValue()));
+        } else {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Seconds to divide this endpoint's request count by, for endpoints
+     * recorded outside the measured window.
+     */
+    void window(String endpoint, double seconds) {
+        windows.put(endpoint, seconds);
+    }
+
+    record Row(String endpoint, long requests, long errors, double throughput, double p50Ms, double p99Ms,
+            double p999Ms, double maxMs) {
+    }
+
+    List<Row> rows(double seconds) {
+        List<Row> rows = new ArrayList<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Histogram h = entry.getValue().latencies;
+                    long errors = entry.getValue().errors.sum();
+                    rows.add(new Row(entry.getKey(), h.getTotalCount() + errors, errors,
+                            (h.getTotalCount() + errors) / windows.getOrDefault(entry.getKey(), seconds),
+                            millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                            millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue())));
+                });
+        return rows;
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%n%-22s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        for (Row row : rows(seconds)) {
+            out.printf("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", row.endpoint(), row.requests(),
+                    row.errors(), row.throughput(), row.p50Ms(), row.p99Ms(), row.p999Ms(), row.maxMs());
+        }
+    }
+
+    void writeJson(Path file, double seconds, Map<String, Object> settings) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("settings", settings);
+        result.put("measuredSeconds", seconds);
+        result.put("endpoints", rows(seconds));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), result);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
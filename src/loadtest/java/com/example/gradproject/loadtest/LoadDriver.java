@@ -0,0 +1,243 @@
+package com.example.gradproject.loadtest;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import javax.imageio.ImageIO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed-model virtual users, started evenly over the ramp. Each signs up
+ * once, then repeats sessions until the run ends:
+ * login, uploadsPerSession x (presign, PUT to S3, upload-complete,
+ * my-photos), refresh, logout. A failed step ends the session. Only
+ * session requests started after the ramp are recorded, so the ramp
+ * doubles as JIT and pool warm-up. Signups all happen during the ramp and
+ * are recorded regardless, with their rate taken over the time between
+ * the first signup and the last (cold-start latencies included).
+ * <p>
+ * Closed model: a slow response delays that user's next request, so
+ * latencies under saturation are understated (coordinated omission); read
+ * the throughput column alongside them.
+ */
+final class LoadDriver {
+
+    private final URI baseUrl;
+    private final LoadTestConfig config;
+    private final LatencyReport report;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final byte[] photo;
+
+    private final LongAccumulator firstSignup = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator lastSignup = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    private volatile long measureFrom;
+    private volatile long deadline;
+
+    LoadDriver(URI baseUrl, LoadTestConfig config, LatencyReport report) throws IOException {
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.report = report;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.photo = syntheticPhoto();
+    }
+
+    /**
+     * Runs ramp + duration and returns the measured window in seconds.
+     */
+    double run() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + config.ramp().toNanos();
+        deadline = measureFrom + config.duration().toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                long startAt = start + config.ramp().toNanos() * i / config.users();
+                long wait = startAt - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(Duration.ofNanos(wait));
+                }
+                int user = i;
+                users.submit(() -> new VirtualUser(user).run());
+            }
+        }
+        if (lastSignup.get() > firstSignup.get()) {
+            report.window("signup", (lastSignup.get() - firstSignup.get()) / 1e9);
+        }
+        return config.duration().toNanos() / 1e9;
+    }
+
+    private final class VirtualUser {
+
+        private final String email;
+        private final String password = "load-test-password";
+        private String accessToken;
+        private String refreshCookie;
+
+        VirtualUser(int index) {
+            this.email = "user-" + runId + "-" + index + "@loadtest.example.com";
+        }
+
+        void run() {
+            long start = System.nanoTime();
+            firstSignup.accumulate(start);
+            try {
+                call("signup", post("/auth/signup", Map.of(
+                        "firstName", "Load", "lastName", "Test", "email", email,
+                        "password", password, "confirmPassword", password)), 201, true);
+            } catch (StepFailed e) {
+                return;
+            } finally {
+                lastSignup.accumulate(System.nanoTime());
+            }
+            while (System.nanoTime() < deadline) {
+                try {
+                    session();
+                } catch (StepFailed e) {
+                    accessToken = null;
+                    refreshCookie = null;
+                }
+            }
+        }
+
+        private void session() {
+            HttpResponse<String> login = call("login", post("/auth/login",
+                    Map.of("email", email, "password", password)), 200);
+            accessToken = json(login).path("token").asText();
+            refreshCookie = login.headers().allValues("set-cookie").stream()
+                    .filter(cookie -> cookie.startsWith("refreshToken="))
+                    .map(cookie -> cookie.substring(0, cookie.indexOf(';') > 0 ? cookie.indexOf(';') : cookie.length()))
+                    .findFirst().orElse(null);
+
+            for (int i = 0; i < config.uploadsPerSession() && System.nanoTime() < deadline; i++) {
+                JsonNode presigned = json(call("presign", authorized(post("/api/files/presigned-url",
+                        Map.of("fileName", "scan-" + i + ".png", "contentType", "image/png"))), 200));
+                String key = presigned.path("key").asText();
+
+                call("s3-put", HttpRequest.newBuilder(URI.create(presigned.path("presignedUrl").asText()))
+                        .header("Content-Type", "image/png")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(photo)), 200);
+
+                call("upload-complete", authorized(post("/api/files/upload-complete",
+                        Map.of("key", key, "fileName", "scan-" + i + ".png"))), 202);
+
+                call("my-photos", authorized(HttpRequest.newBuilder(baseUrl.resolve("/api/files/my-photos")).GET()),
+                        200);
+                think();
+            }
+
+            HttpRequest.Builder refresh = post("/auth/refresh-token", Map.of());
+            if (refreshCookie != null) {
+                refresh.header("Cookie", refreshCookie);
+            }
+            accessToken = json(call("refresh", refresh, 200)).path("accessToken").asText();
+
+            HttpRequest.Builder logout = authorized(post("/auth/logout", Map.of()));
+            if (refreshCookie != null) {
+                logout.header("Cookie", refreshCookie);
+            }
+            call("logout", logout, 200);
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+            return request.header("Authorization", "Bearer " + accessToken);
+        }
+
+        private void think() {
+            if (!config.think().isZero()) {
+                try {
+                    Thread.sleep(config.think());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private HttpRequest.Builder post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(baseUrl.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> call(String endpoint, HttpRequest.Builder request, int expectedStatus) {
+        return call(endpoint, request, expectedStatus, false);
+    }
+
+    /**
+     * @param always record the call even outside the measured window
+     */
+    private HttpResponse<String> call(String endpoint, HttpRequest.Builder request, int expectedStatus,
+            boolean always) {
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = client.send(request.timeout(Duration.ofSeconds(60)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // Counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean success = response != null && response.statusCode() == expectedStatus;
+        if (always || (start >= measureFrom && start < deadline)) {
+            report.record(endpoint, System.nanoTime() - start, success);
+        }
+        if (!success) {
+            throw new StepFailed();
+        }
+        return response;
+    }
+
+    private JsonNode json(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new StepFailed();
+        }
+    }
+
+    // 512x512 noisy grayscale PNG, about the size of a scan preview
+    private static byte[] syntheticPhoto() throws IOException {
+        BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_BYTE_GRAY);
+        Random random = new Random(42);
+        for (int y = 0; y < 512; y++) {
+            for (int x = 0; x < 512; x++) {
+                int value = (x + y) / 4 + random.nextInt(32);
+                image.getRaster().setSample(x, y, 0, Math.min(255, value));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static final class StepFailed extends RuntimeException {
+        StepFailed() {
+            super(null, null, false, false);
+        }
+    }
+}
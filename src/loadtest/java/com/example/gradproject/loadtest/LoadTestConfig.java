@@ -0,0 +1,71 @@
+package com.example.gradproject.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Harness settings from {@code key=value} arguments. Keys starting with
+ * {@code app.} are passed to the application with the prefix removed, e.g.
+ * {@code app.spring.threads.virtual.enabled=true}.
+ */
+record LoadTestConfig(
+        int users,
+        Duration ramp,
+        Duration duration,
+        int uploadsPerSession,
+        Duration think,
+        int replicas,
+        String target,
+        LatencyModel s3Latency,
+        LatencyModel redisLatency,
+        LatencyModel smtpLatency,
+        Path result,
+        Map<String, String> appProperties) {
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            if (keyValue[0].startsWith("app.")) {
+                appProperties.put(keyValue[0].substring(4), keyValue[1]);
+            } else {
+                values.put(keyValue[0], keyValue[1]);
+            }
+        }
+        return new LoadTestConfig(
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                LatencyModel.duration(values.getOrDefault("ramp", "30s")),
+                LatencyModel.duration(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("uploads-per-session", "5")),
+                LatencyModel.duration(values.getOrDefault("think", "0ms")),
+                Integer.parseInt(values.getOrDefault("replicas", "0")),
+                values.get("target"),
+                LatencyModel.parse(values.get("s3.latency")),
+                LatencyModel.parse(values.get("redis.latency")),
+                LatencyModel.parse(values.get("smtp.latency")),
+                Path.of(values.getOrDefault("result", "target/loadtest-result.json")),
+                appProperties);
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", users);
+        settings.put("ramp", ramp.toString());
+        settings.put("duration", duration.toString());
+        settings.put("uploadsPerSession", uploadsPerSession);
+        settings.put("think", think.toString());
+        settings.put("replicas", replicas);
+        settings.put("target", target == null ? "in-process" : target);
+        settings.put("s3Latency", s3Latency.toString());
+        settings.put("redisLatency", redisLatency.toString());
+        settings.put("smtpLatency", smtpLatency.toString());
+        settings.put("appProperties", appProperties);
+        return settings;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.gradproject.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.gradproject.GradProjectBackend;
+import com.github.fppt.jedismock.RedisServer;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+
+/**
+ * End-to-end load test. Boots the application in-process against local
+ * stand-ins, drives it with LoadDriver and prints per-endpoint throughput
+ * and p50/p99/p99.9; the same numbers go to target/loadtest-result.json.
+ * <ul>
+ * <li>MySQL: H2 in MySQL mode, in memory</li>
+ * <li>Redis: jedis-mock on a local port</li>
+ * <li>S3: InMemoryS3Server (aws.s3.endpoint)</li>
+ * <li>SMTP: GreenMail without authentication</li>
+ * </ul>
+ * Run: mvn -Ploadtest -DskipTests package exec:exec
+ * -Dloadtest.args="users=200 ramp=30s duration=2m s3.latency=20ms+10ms,1%:500ms"
+ * <p>
+ * Other keys: uploads-per-session, think, redis.latency, smtp.latency,
+ * replicas (read-replica pools on the stand-in database), result, target
+ * (base URL of a running instance; nothing is booted), and app.* for
+ * application properties.
+ */
+public final class LoadTestMain {
+
+    static final String H2_MYSQL_MODE =
+            "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        LatencyReport report = new LatencyReport();
+
+        if (config.target() != null) {
+            drive(URI.create(config.target()), config, report);
+            return;
+        }
+
+        // Devtools would restart the application in a second class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        RedisServer redis = RedisServer.newRedisServer().start();
+        GreenMail smtp = new GreenMail(ServerSetup.SMTP.dynamicPort())
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        smtp.start();
+        try (InMemoryS3Server s3 = new InMemoryS3Server(config.s3Latency());
+                LatencyProxy redisProxy = proxy(redis.getBindPort(), config.redisLatency());
+                LatencyProxy smtpProxy = proxy(smtp.getSmtp().getPort(), config.smtpLatency());
+                ConfigurableApplicationContext app = new SpringApplicationBuilder(GradProjectBackend.class)
+                        .run(applicationArguments(config, s3,
+                                redisProxy == null ? redis.getBindPort() : redisProxy.port(),
+                                smtpProxy == null ? smtp.getSmtp().getPort() : smtpProxy.port()))) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            drive(URI.create("http://localhost:" + port), config, report);
+            System.out.printf("S3 stand-in holds %d objects%n", s3.objectCount());
+        } finally {
+            smtp.stop();
+            redis.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void drive(URI baseUrl, LoadTestConfig config, LatencyReport report) throws Exception {
+        System.out.printf("Driving %s: %s%n", baseUrl, config.describe());
+        double seconds = new LoadDriver(baseUrl, config, report).run();
+        report.print(System.out, seconds);
+        report.writeJson(config.result(), seconds, config.describe());
+        System.out.printf("%nResult written to %s%n", config.result().toAbsolutePath());
+    }
+
+    private static LatencyProxy proxy(int targetPort, LatencyModel latency) throws IOException {
+        return latency.isNone() ? null : new LatencyProxy(targetPort, latency);
+    }
+
+    private static String[] applicationArguments(LoadTestConfig config, InMemoryS3Server s3,
+            int redisPort, int smtpPort) {
+        String databaseUrl = "jdbc:h2:mem:loadtest;" + H2_MYSQL_MODE;
+        Map<String, Object> properties = standInProperties(databaseUrl, s3.endpoint(), redisPort, smtpPort);
+        properties.put("server.port", 0);
+        if (config.replicas() > 0) {
+            // Separate pools on the same database: routing is exercised, replication lag is not
+            properties.put("DATABASE_REPLICA_URLS",
+                    String.join(" ", Collections.nCopies(config.replicas(), databaseUrl)));
+            properties.put("DATABASE_REPLICA_LAG_QUERY", "");
+        }
+        properties.putAll(config.appProperties());
+        return arguments(properties);
+    }
+
+    /**
+     * Application properties that point it at the stand-ins, with dummy
+     * credentials for everything else.
+     */
+    static Map<String, Object> standInProperties(String databaseUrl, String s3Endpoint, int redisPort,
+            int smtpPort) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("management.server.port", 0);
+        properties.put("spring.main.keep-alive", false);
+        properties.put("logging.level.root", "WARN");
+
+        properties.put("DATABASE_URL", databaseUrl);
+        properties.put("DATABASE_USERNAME", "sa");
+        properties.put("DATABASE_PASSWORD", "");
+
+        properties.put("REDIS_HOST", "localhost");
+        properties.put("REDIS_PORT", redisPort);
+
+        properties.put("AWS_ACCESS_KEY", "loadtest");
+        properties.put("AWS_SECRET_KEY", "loadtest");
+        properties.put("AWS_S3_BUCKET_NAME", "loadtest");
+        properties.put("aws.s3.endpoint", s3Endpoint);
+
+        properties.put("MAIL_HOST", "localhost");
+        properties.put("MAIL_PORT", smtpPort);
+        properties.put("GMAIL_USERNAME", "loadtest");
+        properties.put("GMAIL_APP_PASSWORD", "loadtest");
+        properties.put("spring.mail.properties.mail.smtp.auth", false);
+        properties.put("spring.mail.properties.mail.smtp.starttls.enable", false);
+        properties.put("spring.mail.properties.mail.smtp.starttls.required", false);
+
+        properties.put("FRONTEND_URL", "http://localhost:3000");
+        properties.put("FROM_EMAIL", "noreply@loadtest.example.com");
+        properties.put("JWT_SECRET", "load-test-secret-load-test-secret-0123456789");
+        properties.put("JWT_EXPIRATION", 900_000);
+        properties.put("JWT_REFRESH_EXPIRATION", 2_592_000_000L);
+        return properties;
+    }
+
+    // As command-line arguments, which take precedence over application.properties
+    static String[] arguments(Map<String, Object> properties) {
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+}
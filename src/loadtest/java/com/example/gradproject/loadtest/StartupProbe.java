@@ -0,0 +1,194 @@
+package com.example.gradproject.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Server;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+
+/**
+ * Time to first request of a packaged build. Starts the LoadTestMain
+ * stand-ins, with H2 served over TCP, then launches an extracted
+ * application jar (java -Djarmode=tools -jar app.jar extract) in a fresh JVM
+ * {@code runs} times. Each run reports the time from process start to the
+ * first response to a login request, and the startup time the application
+ * logs itself. Migrations are applied before the first launch, which only
+ * warms the file cache and is not counted.
+ * <p>
+ * Run: mvn -Ploadtest -DskipTests package exec:exec
+ * -Dloadtest.main=com.example.gradproject.loadtest.StartupProbe
+ * -Dloadtest.args="jar=target/faststart/gradproject-0.0.1-SNAPSHOT.jar
+ * jvm=-XX:SharedArchiveFile=application.jsa,-Dspring.aot.enabled=true"
+ * <p>
+ * Other keys: runs (default 5), jvm (comma-separated, relative paths are
+ * resolved against the jar's directory) and app.* for application
+ * properties.
+ */
+public final class StartupProbe {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+    private static final Duration TIMEOUT = Duration.ofMinutes(3);
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, Object> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            if (keyValue[0].startsWith("app.")) {
+                appProperties.put(keyValue[0].substring(4), keyValue[1]);
+            } else {
+                values.put(keyValue[0], keyValue[1]);
+            }
+        }
+        Path jar = Path.of(values.getOrDefault("jar", "target/faststart/gradproject-0.0.1-SNAPSHOT.jar"))
+                .toAbsolutePath();
+        int runs = Integer.parseInt(values.getOrDefault("runs", "5"));
+        List<String> jvmArguments = values.containsKey("jvm")
+                ? Arrays.asList(values.get("jvm").split(","))
+                : List.of();
+
+        Server h2 = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        RedisServer redis = RedisServer.newRedisServer().start();
+        GreenMail smtp = new GreenMail(ServerSetup.SMTP.dynamicPort())
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        smtp.start();
+        try (InMemoryS3Server s3 = new InMemoryS3Server(LatencyModel.NONE)) {
+            String databaseUrl = "jdbc:h2:tcp://localhost:" + h2.getPort() + "/mem:startup;"
+                    + LoadTestMain.H2_MYSQL_MODE;
+            // As the deploy step would; fast-start builds do not migrate on boot
+            Flyway.configure().dataSource(databaseUrl, "sa", "").load().migrate();
+            Map<String, Object> properties = LoadTestMain.standInProperties(databaseUrl, s3.endpoint(),
+                    redis.getBindPort(), smtp.getSmtp().getPort());
+            // The "Started ... in" line
+            properties.put("logging.level.com.example.gradproject.GradProjectBackend", "INFO");
+            properties.putAll(appProperties);
+
+            System.out.printf("Launching %s %s%n", jar, String.join(" ", jvmArguments));
+            List<Run> measured = new ArrayList<>();
+            for (int i = 0; i <= runs; i++) {
+                Run run = launch(jar, jvmArguments, properties);
+                System.out.printf("%s %d: first response %d ms (HTTP %d), started in %s s%n",
+                        i == 0 ? "warm-up" : "run", i, run.firstResponseMillis(), run.status(),
+                        run.startedSeconds() == null ? "?" : run.startedSeconds());
+                if (i > 0) {
+                    measured.add(run);
+                }
+            }
+            long[] millis = measured.stream().mapToLong(Run::firstResponseMillis).sorted().toArray();
+            System.out.printf("%nTime to first request over %d runs: median %d ms, min %d ms, max %d ms%n",
+                    millis.length, millis[millis.length / 2], millis[0], millis[millis.length - 1]);
+        } finally {
+            smtp.stop();
+            redis.stop();
+            h2.stop();
+        }
+    }
+
+    private static Run launch(Path jar, List<String> jvmArguments, Map<String, Object> properties)
+            throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Map<String, Object> runProperties = new LinkedHashMap<>(properties);
+        runProperties.put("server.port", port);
+
+        // The H2 driver goes after the jar, so a CDS archive dumped from the jar alone still applies
+        String h2Driver = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.add("-cp");
+        command.add(jar.getFileName() + File.pathSeparator + h2Driver);
+        command.add(mainClass(jar));
+        command.addAll(Arrays.asList(LoadTestMain.arguments(runProperties)));
+
+        Path log = Files.createTempFile("startup-probe", ".log");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"probe@loadtest.example.com\",\"password\":\"not-a-user\"}"))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(jar.getParent().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        long millis;
+        int status;
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue()
+                            + ", see " + log);
+                }
+                if (System.nanoTime() - start > TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("No response within " + TIMEOUT + ", see " + log);
+                }
+                try {
+                    status = client.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    break;
+                } catch (IOException notListening) {
+                    Thread.sleep(10);
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+            process.destroyForcibly();
+        }
+        // Tomcat may answer before the application logs its startup time
+        return new Run(millis, status, startedSeconds(log));
+    }
+
+    private static String mainClass(Path jar) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            String mainClass = file.getManifest().getMainAttributes().getValue("Main-Class");
+            if (mainClass == null || mainClass.startsWith("org.springframework.boot.loader")) {
+                throw new IllegalArgumentException(jar + " is not an extracted application jar");
+            }
+            return mainClass;
+        }
+    }
+
+    private static String startedSeconds(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private record Run(long firstResponseMillis, int status, String startedSeconds) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gradproject.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.example.gradproject.enums.AnalysisStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisJobResponse {
+    private Long jobId;
+    private String key;
+    private AnalysisStatus status;
+    private String modelVersion;
+    private Map<String, Object> result;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    // Only on submission: the user's visually similar scans, which may already be analyzed
+    private List<Map<String, Object>> nearDuplicates;
+}
@@ -0,0 +1,12 @@
+package com.example.gradproject.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyzeRequest {
+    private String key; // S3 object key of an uploaded scan
+}
@@ -0,0 +1,14 @@
+package com.example.gradproject.DTO;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadCompleteRequest {
+    private List<String> keys; // S3 object keys
+}
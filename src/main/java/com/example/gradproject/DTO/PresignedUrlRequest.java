@@ -11,5 +11,6 @@ public class PresignedUrlRequest {
     private String fileName;
     private String contentType;
     private String folder; // Optional, defaults to "images/"
+    private String sha256; // Optional hex SHA-256 of the file, enables deduplication
 }
 
@@ -11,5 +11,6 @@ public class PresignedUrlResponse {
     private String presignedUrl;
     private String key; // S3 object key
     private String message;
+    private boolean deduplicated; // true when no upload is needed, key is an existing object
 }
 
@@ -0,0 +1,20 @@
+package com.example.gradproject.DTO;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A progress notification for one user, as relayed between nodes and sent
+ * to the user's event streams. {@code type} becomes the SSE event name.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressEvent {
+    private Integer userId;
+    private String type;
+    private Map<String, Object> data;
+}
@@ -9,5 +9,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UploadCompleteRequest {
     private String key; // S3 object key
+    private String fileName; // Optional, original client-side file name
 }
 
@@ -0,0 +1,50 @@
+package com.example.gradproject.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.gradproject.entity.AnalysisJob;
+import com.example.gradproject.enums.AnalysisStatus;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
+
+    Optional<AnalysisJob> findByIdAndUser_Id(Long id, Integer userId);
+
+    List<AnalysisJob> findByUser_IdOrderByCreatedAtDesc(Integer userId, Pageable pageable);
+
+    @Query("SELECT j.id FROM AnalysisJob j WHERE j.status = :status ORDER BY j.id")
+    List<Long> findIdsByStatus(@Param("status") AnalysisStatus status, Pageable pageable);
+
+    /**
+     * Puts jobs that have been RUNNING since before the cutoff (e.g. their
+     * node died) back in the queue.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalysisJob j SET j.status = com.example.gradproject.enums.AnalysisStatus.QUEUED, "
+            + "j.startedAt = null WHERE j.status = com.example.gradproject.enums.AnalysisStatus.RUNNING "
+            + "AND j.startedAt < :cutoff")
+    int requeueStale(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Atomically moves a job from QUEUED to RUNNING so only one worker (on any
+     * node) processes it.
+     *
+     * @return 1 if this caller claimed the job, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalysisJob j SET j.status = com.example.gradproject.enums.AnalysisStatus.RUNNING, "
+            + "j.startedAt = :now WHERE j.id = :id AND j.status = com.example.gradproject.enums.AnalysisStatus.QUEUED")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
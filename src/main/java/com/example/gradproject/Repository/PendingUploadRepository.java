@@ -0,0 +1,86 @@
+package com.example.gradproject.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.gradproject.entity.PendingUpload;
+
+@Repository
+public interface PendingUploadRepository extends JpaRepository<PendingUpload, Long> {
+
+    boolean existsByS3KeyAndUser_Id(String s3Key, Integer userId);
+
+    /**
+     * Marks a key issued to this user as uploaded.
+     *
+     * @return 1, or 0 if the key was not issued to the user or is already
+     *         confirmed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingUpload p SET p.status = com.example.gradproject.enums.PendingUploadStatus.CONFIRMED, "
+            + "p.originalFilename = COALESCE(:fileName, p.originalFilename), p.confirmedAt = :now "
+            + "WHERE p.s3Key = :key AND p.user.id = :userId "
+            + "AND p.status = com.example.gradproject.enums.PendingUploadStatus.ISSUED")
+    int confirm(@Param("key") String s3Key, @Param("userId") Integer userId,
+            @Param("fileName") String originalFilename, @Param("now") LocalDateTime now);
+
+    @Query("SELECT p.s3Key FROM PendingUpload p "
+            + "WHERE p.status = com.example.gradproject.enums.PendingUploadStatus.CONFIRMED "
+            + "AND p.confirmedAt < :cutoff ORDER BY p.id")
+    List<String> findConfirmedKeysBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Atomically moves the CONFIRMED rows among the keys to INGESTING under
+     * the given token, so each row goes to only one worker (on any node).
+     * Load the claimed rows with {@link #findClaimed}.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingUpload p SET p.status = com.example.gradproject.enums.PendingUploadStatus.INGESTING, "
+            + "p.claimToken = :token, p.claimedAt = :now WHERE p.s3Key IN :keys "
+            + "AND p.status = com.example.gradproject.enums.PendingUploadStatus.CONFIRMED")
+    int claim(@Param("keys") Collection<String> s3Keys, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims the user's not yet registered keys among the given ones,
+     * whether or not they were confirmed, for synchronous registration.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingUpload p SET p.status = com.example.gradproject.enums.PendingUploadStatus.INGESTING, "
+            + "p.claimToken = :token, p.claimedAt = :now WHERE p.s3Key IN :keys AND p.user.id = :userId "
+            + "AND p.status <> com.example.gradproject.enums.PendingUploadStatus.INGESTING")
+    int claimKeys(@Param("keys") Collection<String> s3Keys, @Param("userId") Integer userId,
+            @Param("token") String token, @Param("now") LocalDateTime now);
+
+    @Query("SELECT p FROM PendingUpload p JOIN FETCH p.user WHERE p.claimToken = :token")
+    List<PendingUpload> findClaimed(@Param("token") String token);
+
+    /**
+     * Puts rows that have been INGESTING since before the cutoff (e.g. their
+     * node died) back to CONFIRMED.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingUpload p SET p.status = com.example.gradproject.enums.PendingUploadStatus.CONFIRMED, "
+            + "p.claimToken = null, p.claimedAt = null "
+            + "WHERE p.status = com.example.gradproject.enums.PendingUploadStatus.INGESTING AND p.claimedAt < :cutoff")
+    int requeueStale(@Param("cutoff") LocalDateTime cutoff);
+
+    // Keys that were issued but never reported as uploaded
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PendingUpload p WHERE p.status = com.example.gradproject.enums.PendingUploadStatus.ISSUED "
+            + "AND p.createdAt < :cutoff")
+    int deleteUnconfirmedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,39 @@
 package com.example.gradproject.Repository;
 
-import com.example.gradproject.entity.Image;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.gradproject.entity.Image;
+
 @Repository
 public interface PhotoRepository extends JpaRepository<Image, Long> {
 
+    boolean existsByUrlAndUser_Id(String url, Integer userId);
+
+    Optional<Image> findFirstByUrlAndUser_Id(String url, Integer userId);
+
+    long countByUrl(String url);
+
+    // Image is second-level cached: update rows through these entities rather than
+    // with bulk HQL, which would clear the whole region on every node
+    List<Image> findByUrl(String url);
+
+    // Export listing in id order: rows of [id, key, original file name or null].
+    // Objects that are not de-identified (yet) are left out.
+    @Query("SELECT i.id, i.url, ui.originalFilename FROM Image i LEFT JOIN UserImage ui ON ui.s3Key = i.url "
+            + "WHERE i.user.id = :userId AND (ui.id IS NULL "
+            + "OR ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.DONE) ORDER BY i.id")
+    List<Object[]> findExportEntries(@Param("userId") Integer userId);
+
+    // Keyset pagination for loading the near-duplicate index: rows of [id, userId, phash]
+    @Query("SELECT i.id, i.user.id, i.perceptualHash FROM Image i "
+            + "WHERE i.perceptualHash IS NOT NULL AND i.id > :afterId ORDER BY i.id")
+    List<Object[]> findPerceptualHashesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.example.gradproject.Repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.gradproject.entity.ScanMetadata;
+
+@Repository
+public interface ScanMetadataRepository extends JpaRepository<ScanMetadata, Long> {
+
+    Optional<ScanMetadata> findByUserImage_S3KeyAndUserImage_User_Id(String s3Key, Integer userId);
+}
@@ -0,0 +1,129 @@
+package com.example.gradproject.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.gradproject.entity.UserImage;
+import com.example.gradproject.enums.DeidentificationStatus;
+
+@Repository
+public interface UserImageRepository extends JpaRepository<UserImage, Long> {
+
+    Optional<UserImage> findByS3Key(String s3Key);
+
+    boolean existsByS3KeyAndUser_Id(String s3Key, Integer userId);
+
+    @Query("SELECT ui.s3Key FROM UserImage ui WHERE ui.s3Key IN :keys")
+    List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+
+    @Query("SELECT ui.contentHash FROM UserImage ui WHERE ui.s3Key = :key")
+    Optional<String> findContentHashByS3Key(@Param("key") String s3Key);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET ui.contentHash = :hash WHERE ui.s3Key = :key AND ui.contentHash IS NULL")
+    int setContentHash(@Param("key") String s3Key, @Param("hash") String contentHash);
+
+    // Set at ingest; the hashes differ when the object was rewritten in place
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET ui.uploadHash = :uploadHash, ui.contentHash = :contentHash "
+            + "WHERE ui.s3Key = :key")
+    int setHashes(@Param("key") String s3Key, @Param("uploadHash") String uploadHash,
+            @Param("contentHash") String contentHash);
+
+    Optional<UserImage> findFirstByUser_IdAndUploadHash(Integer userId, String uploadHash);
+
+    // Row-level update, so concurrent link/delete of the same object serialize on the row lock.
+    // Scoped to the owner: another user's Image row for the key must not move this count.
+    @Modifying
+    @Query("UPDATE UserImage ui SET ui.refCount = COALESCE(ui.refCount, 1) + :delta "
+            + "WHERE ui.user.id = :userId AND ui.s3Key = :key")
+    int adjustRefCount(@Param("userId") Integer userId, @Param("key") String s3Key, @Param("delta") int delta);
+
+    @Modifying
+    @Query("DELETE FROM UserImage ui WHERE ui.user.id = :userId AND ui.s3Key = :key AND ui.refCount <= 0")
+    int deleteUnreferenced(@Param("userId") Integer userId, @Param("key") String s3Key);
+
+    // Rows still holding references to the object, whoever owns them
+    @Query("SELECT COUNT(ui) FROM UserImage ui WHERE ui.s3Key = :key AND COALESCE(ui.refCount, 1) > 0")
+    long countReferencing(@Param("key") String s3Key);
+
+    boolean existsByS3KeyAndDeidentifyStatusNot(String s3Key, DeidentificationStatus status);
+
+    // The user's objects that must not be served yet (or ever, when de-identification failed)
+    @Query("SELECT ui.s3Key FROM UserImage ui WHERE ui.user.id = :userId "
+            + "AND ui.deidentifyStatus <> com.example.gradproject.enums.DeidentificationStatus.DONE")
+    List<String> findUnservableKeys(@Param("userId") Integer userId);
+
+    /**
+     * Atomically moves the object's row from PENDING to PROCESSING under
+     * the given token, so only one worker (on any node) rewrites it.
+     *
+     * @return 1, or 0 if the row is not PENDING
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET "
+            + "ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.PROCESSING, "
+            + "ui.deidentifyClaimToken = :token, ui.deidentifyClaimedAt = :now WHERE ui.s3Key = :key "
+            + "AND ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.PENDING")
+    int claimDeidentification(@Param("key") String s3Key, @Param("token") String token,
+            @Param("now") LocalDateTime now);
+
+    // Sets the hashes and makes the object servable; 0 if the claim was lost to the stale sweep
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET ui.uploadHash = :uploadHash, ui.contentHash = :contentHash, "
+            + "ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.DONE, "
+            + "ui.deidentifyClaimToken = null WHERE ui.s3Key = :key AND ui.deidentifyClaimToken = :token")
+    int completeDeidentification(@Param("key") String s3Key, @Param("token") String token,
+            @Param("uploadHash") String uploadHash, @Param("contentHash") String contentHash);
+
+    // Gives up on the object once this failed attempt reaches maxAttempts; 0 if it may be retried
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET ui.deidentifyAttempts = ui.deidentifyAttempts + 1, "
+            + "ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.FAILED, "
+            + "ui.deidentifyClaimToken = null WHERE ui.s3Key = :key AND ui.deidentifyClaimToken = :token "
+            + "AND ui.deidentifyAttempts + 1 >= :maxAttempts")
+    int failDeidentification(@Param("key") String s3Key, @Param("token") String token,
+            @Param("maxAttempts") int maxAttempts);
+
+    // Gives a failed claim back; claimedAt is kept so the poller waits an interval before the retry
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET ui.deidentifyAttempts = ui.deidentifyAttempts + 1, "
+            + "ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.PENDING, "
+            + "ui.deidentifyClaimToken = null WHERE ui.s3Key = :key AND ui.deidentifyClaimToken = :token")
+    int retryDeidentification(@Param("key") String s3Key, @Param("token") String token);
+
+    /**
+     * Puts rows that have been PROCESSING since before the cutoff (e.g. their
+     * node died) back to PENDING.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImage ui SET "
+            + "ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.PENDING, "
+            + "ui.deidentifyClaimToken = null "
+            + "WHERE ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.PROCESSING "
+            + "AND ui.deidentifyClaimedAt < :cutoff")
+    int requeueStaleDeidentification(@Param("cutoff") LocalDateTime cutoff);
+
+    // Rows of [key, content type]; rows never claimed or last tried before the cutoff
+    @Query("SELECT ui.s3Key, ui.contentType FROM UserImage ui "
+            + "WHERE ui.deidentifyStatus = com.example.gradproject.enums.DeidentificationStatus.PENDING "
+            + "AND (ui.deidentifyClaimedAt IS NULL OR ui.deidentifyClaimedAt < :cutoff) ORDER BY ui.id")
+    List<Object[]> findPendingDeidentification(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+}
@@ -5,8 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
-public interface UserRepo extends JpaRepository<User, Integer> {
-    Optional<User> findByEmail(String email);
-
+// findByEmail is implemented in UserRepoCustomImpl (natural-id cache)
+public interface UserRepo extends JpaRepository<User, Integer>, UserRepoCustom {
     Optional<User> findByResetToken(String resetToken);
 }
@@ -0,0 +1,10 @@
+package com.example.gradproject.Repository;
+
+import java.util.Optional;
+
+import com.example.gradproject.entity.User;
+
+public interface UserRepoCustom {
+
+    Optional<User> findByEmail(String email);
+}
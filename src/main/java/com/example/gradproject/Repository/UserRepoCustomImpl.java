@@ -0,0 +1,33 @@
+package com.example.gradproject.Repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.gradproject.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Looks users up by their email natural id, so a repeat lookup is served
+ * from the second-level cache (email to id, then id to User) with no
+ * database round trip. The cache key is the exact string; on a miss
+ * Hibernate runs a single query on the email column, which keeps the
+ * column collation's matching (MySQL's default is case-insensitive) for
+ * emails typed at login. An unknown email costs that one query.
+ */
+public class UserRepoCustomImpl implements UserRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.gradproject.cache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cross-node invalidation for the Hibernate second-level cache. Each node
+ * keeps its regions in local memory; when a node writes an entry (or
+ * clears a region after a bulk update) it publishes the key on a Redis
+ * channel, and the other nodes drop their copy.
+ * <p>
+ * A key is published when the write starts and again after the
+ * transaction commits, so a node that re-reads the row in between cannot
+ * keep the old value. Pub/sub is fire-and-forget; the region TTL
+ * (hibernate-cache.ttl-minutes) bounds staleness if a message is lost.
+ * Counted as hibernate.cache.invalidations{direction}.
+ */
+@Component
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    public static final String CHANNEL = "hibernate-cache-invalidation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String node = UUID.randomUUID().toString();
+    private final Map<String, DomainDataStorageAccess> regions = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter received;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.sent = counter(meterRegistry, "sent");
+        this.received = counter(meterRegistry, "received");
+    }
+
+    /**
+     * Called by the region factory for each region it builds on this node.
+     */
+    void register(String region, DomainDataStorageAccess localStorage) {
+        regions.put(region, localStorage);
+    }
+
+    /**
+     * @param key the cache key, or null for the whole region
+     */
+    void invalidate(String region, Object key) {
+        Invalidation invalidation = Invalidation.of(node, region, key);
+        publish(invalidation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(invalidation);
+                }
+            });
+        }
+    }
+
+    private void publish(Invalidation invalidation) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(invalidation));
+            sent.increment();
+        } catch (Exception e) {
+            logger.warn("Could not publish cache invalidation for region {}: {}", invalidation.region(),
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Invalidation invalidation = objectMapper.readValue(message.getBody(), Invalidation.class);
+            if (node.equals(invalidation.node())) {
+                return;
+            }
+            DomainDataStorageAccess storage = regions.get(invalidation.region());
+            if (storage == null) {
+                return;
+            }
+            Object key = invalidation.key();
+            if (key == null) {
+                storage.evictData();
+            } else {
+                storage.evictData(key);
+            }
+            received.increment();
+        } catch (Exception e) {
+            logger.warn("Dropping unreadable cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("hibernate.cache.invalidations")
+                .description("Second-level cache invalidations exchanged with other nodes")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Keys travel as text with their type, since the cache compares them
+     * with equals (an Integer id never matches a Long one). Keys of other
+     * types invalidate the whole region.
+     */
+    record Invalidation(String node, String region, String keyType, String keyValue) {
+
+        static Invalidation of(String node, String region, Object key) {
+            if (key instanceof Integer || key instanceof Long || key instanceof String) {
+                return new Invalidation(node, region, key.getClass().getSimpleName(), key.toString());
+            }
+            return new Invalidation(node, region, null, null);
+        }
+
+        Object key() {
+            if (keyType == null) {
+                return null;
+            }
+            return switch (keyType) {
+                case "Integer" -> Integer.valueOf(keyValue);
+                case "Long" -> Long.valueOf(keyValue);
+                case "String" -> keyValue;
+                default -> throw new IllegalArgumentException("Unknown key type " + keyType);
+            };
+        }
+    }
+}
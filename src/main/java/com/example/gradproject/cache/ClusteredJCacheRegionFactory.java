@@ -0,0 +1,52 @@
+package com.example.gradproject.cache;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.Cache;
+
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+/**
+ * JCache (Caffeine) region factory whose regions are bounded in size and
+ * age and invalidated across nodes through the CacheInvalidationBus.
+ * Entries are stored by reference, as Hibernate expects of a heap cache.
+ * Keys are the bare ids and natural ids (simple keys factory), so each
+ * cached entity needs its own region.
+ */
+public class ClusteredJCacheRegionFactory extends JCacheRegionFactory {
+
+    private final CacheInvalidationBus bus;
+    private final long maxEntries;
+    private final Duration ttl;
+
+    public ClusteredJCacheRegionFactory(CacheInvalidationBus bus, long maxEntries, Duration ttl) {
+        super(SimpleCacheKeysFactory.INSTANCE);
+        this.bus = bus;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStoreByValue(false);
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+            DomainDataRegionBuildingContext buildingContext) {
+        DomainDataStorageAccess local = super.createDomainDataStorageAccess(regionConfig, buildingContext);
+        bus.register(regionConfig.getRegionName(), local);
+        return new InvalidatingStorageAccess(regionConfig.getRegionName(), local, bus);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.gradproject.cache;
+
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Local region storage that reports writes to the CacheInvalidationBus.
+ * With READ_WRITE access every update or delete first puts a SoftLock
+ * under the key; entries put by loads are not reported. Removals and
+ * region clears (bulk HQL updates) are reported too.
+ */
+class InvalidatingStorageAccess implements DomainDataStorageAccess {
+
+    private final String region;
+    private final DomainDataStorageAccess delegate;
+    private final CacheInvalidationBus bus;
+
+    InvalidatingStorageAccess(String region, DomainDataStorageAccess delegate, CacheInvalidationBus bus) {
+        this.region = region;
+        this.delegate = delegate;
+        this.bus = bus;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return delegate.getFromCache(key, session);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        delegate.putIntoCache(key, value, session);
+        if (value instanceof SoftLock) {
+            bus.invalidate(region, key);
+        }
+    }
+
+    @Override
+    public void putFromLoad(Object key, Object value, SharedSessionContractImplementor session) {
+        delegate.putFromLoad(key, value, session);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        delegate.removeFromCache(key, session);
+        bus.invalidate(region, key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        delegate.clearCache(session);
+        bus.invalidate(region, null);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return delegate.contains(key);
+    }
+
+    @Override
+    public void evictData() {
+        delegate.evictData();
+        bus.invalidate(region, null);
+    }
+
+    @Override
+    public void evictData(Object key) {
+        delegate.evictData(key);
+        bus.invalidate(region, key);
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gradproject.config;
+
+import java.util.concurrent.ExecutorService;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+
+/**
+ * Carries the caller's trace context (and other registered thread locals)
+ * onto our own worker pools, so work done for a request shows up in its
+ * trace.
+ */
+public final class ContextPropagation {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private ContextPropagation() {
+    }
+
+    public static ContextSnapshot capture() {
+        return SNAPSHOTS.captureAll();
+    }
+
+    public static Runnable wrap(Runnable task) {
+        return SNAPSHOTS.captureAll().wrap(task);
+    }
+
+    public static ExecutorService wrap(ExecutorService executor) {
+        return ContextExecutorService.wrap(executor, SNAPSHOTS::captureAll);
+    }
+}
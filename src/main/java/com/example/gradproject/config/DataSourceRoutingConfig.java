@@ -0,0 +1,72 @@
+package com.example.gradproject.config;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import com.example.gradproject.datasource.ReadReplicas;
+import com.example.gradproject.datasource.RoutingJpaTransactionManager;
+
+/**
+ * Puts read/write routing (ReadReplicas) in front of Boot's primary
+ * DataSource. It wraps first, so the JDBC observation proxy added by
+ * datasource-micrometer covers replica connections too. Replaces Boot's
+ * transaction manager with one that tells the router which transactions
+ * are read-only.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public static BeanPostProcessor readReplicaRouting(ObjectProvider<ReadReplicas> readReplicas) {
+        return new RoutingPostProcessor(readReplicas);
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new RoutingJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // Pools hand out non-auto-commit connections when replicas are configured (ReadReplicas.route)
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling(ReadReplicas readReplicas) {
+        return properties -> {
+            if (readReplicas.isEnabled()) {
+                properties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, "true");
+            }
+        };
+    }
+
+    private static final class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReadReplicas> readReplicas;
+
+        RoutingPostProcessor(ObjectProvider<ReadReplicas> readReplicas) {
+            this.readReplicas = readReplicas;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                return readReplicas.getObject().route(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.gradproject.config;
+
+import java.time.Duration;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.example.gradproject.cache.CacheInvalidationBus;
+import com.example.gradproject.cache.ClusteredJCacheRegionFactory;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Hibernate second-level cache for User (by id and by email), User.images
+ * and Image: per-node Caffeine regions, invalidated across nodes over
+ * Redis. Hit/miss counts per region are exported as
+ * hibernate.second.level.cache.requests and hibernate.cache.natural.id.requests.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Value("${hibernate-cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${hibernate-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheInvalidationBus invalidationBus) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY,
+                    new ClusteredJCacheRegionFactory(invalidationBus, maxEntries, Duration.ofMinutes(ttlMinutes)));
+            properties.put(ConfigSettings.PROVIDER, CaffeineCachingProvider.class.getName());
+            // Regions are created on demand with the bounds above
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+        };
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+            CacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.gradproject.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.example.gradproject.DTO.LoginRequest;
+import com.example.gradproject.DTO.LoginResponse;
+import com.example.gradproject.DTO.PresignedUrlResponse;
+import com.example.gradproject.Repository.UserRepo;
+import com.example.gradproject.enums.Role;
+import com.example.gradproject.service.S3Service;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+/**
+ * Runs the request hot paths synthetically before the instance takes
+ * traffic: JWT mint/parse/verify, Jackson on the auth and upload DTOs,
+ * presigning, BCrypt and a Hibernate finder. Otherwise the first few
+ * thousand requests after a deploy run interpreted or C1-compiled code.
+ * <p>
+ * Boot publishes ReadinessState.ACCEPTING_TRAFFIC only after the
+ * ApplicationRunners return, so /actuator/health/readiness stays
+ * OUT_OF_SERVICE meanwhile. The paths are run round-robin until each has
+ * its iteration count or warmup.max-duration-ms has passed; a path that
+ * throws is dropped. Warm-up calls show up in the normal meters
+ * (auth.password.hash). Presigning goes to the S3Presigner directly:
+ * S3Service caches GET URLs in Redis and logs every call, and warm-up
+ * should neither fill the cache with made-up keys nor time Redis.
+ */
+@Component
+public class JitWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(JitWarmup.class);
+
+    private static final String EMAIL = "warmup@warmup.invalid";
+
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final S3Service s3Service;
+    private final S3Presigner s3Presigner;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepo userRepo;
+
+    @Value("${aws.s3.bucketName}")
+    private String bucketName;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:5000}")
+    private int iterations;
+
+    // BCrypt is slow by design; a few calls compile its inner loop
+    @Value("${warmup.password-hash-iterations:20}")
+    private int passwordHashIterations;
+
+    // Each one is a database round trip
+    @Value("${warmup.query-iterations:200}")
+    private int queryIterations;
+
+    @Value("${warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    // Keeps results reachable so the JIT cannot drop the calls
+    private int sink;
+
+    public JitWarmup(JwtUtil jwtUtil, ObjectMapper objectMapper, S3Service s3Service, S3Presigner s3Presigner,
+            PasswordEncoder passwordEncoder, UserRepo userRepo) {
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.s3Service = s3Service;
+        this.s3Presigner = s3Presigner;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepo = userRepo;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        UserDetails user = org.springframework.security.core.userdetails.User.withUsername(EMAIL)
+                .password("unused")
+                .roles(Role.PATIENT.name())
+                .build();
+        String hash = passwordEncoder.encode("warm-up password");
+        String loginJson = "{\"email\":\"" + EMAIL + "\",\"password\":\"warm-up password\"}";
+
+        List<HotPath> paths = new ArrayList<>();
+        paths.add(new HotPath("jwt", iterations, () -> {
+            String token = jwtUtil.generateToken(user);
+            String refreshToken = jwtUtil.generateRefreshToken(user, "warmup-device");
+            boolean valid = jwtUtil.validateToken(token, user) && jwtUtil.validateToken(refreshToken);
+            return jwtUtil.extractRoles(token).size() + jwtUtil.extractDeviceId(refreshToken).length()
+                    + (valid ? 1 : 0);
+        }));
+        paths.add(new HotPath("json", iterations, () -> {
+            LoginRequest request = objectMapper.readValue(loginJson, LoginRequest.class);
+            LoginResponse response = new LoginResponse("Login successful", true, "token", "refresh-token",
+                    new LoginResponse.UserInfo(1, "Warm", "Up", request.getEmail(), Role.PATIENT));
+            return objectMapper.writeValueAsBytes(response).length
+                    + objectMapper.writeValueAsBytes(new PresignedUrlResponse("url", "key", "ok", false)).length;
+        }));
+        paths.add(new HotPath("presign", iterations, () -> {
+            String key = s3Service.generateS3Key("warmup.png", "images/");
+            return presignPut(key).length() + presignGet(key).length();
+        }));
+        paths.add(new HotPath("bcrypt", passwordHashIterations,
+                () -> passwordEncoder.matches("warm-up password", hash) ? 1 : 0));
+        paths.add(new HotPath("query", queryIterations, () -> userRepo.findByEmail(EMAIL).isPresent() ? 1 : 0));
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        List<HotPath> pending = new ArrayList<>(paths);
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            for (Iterator<HotPath> it = pending.iterator(); it.hasNext();) {
+                HotPath path = it.next();
+                if (!path.step()) {
+                    it.remove();
+                }
+            }
+        }
+
+        for (HotPath path : paths) {
+            logger.info("Warm-up {}: {} calls, first {} us, last {} us per call{}", path.name, path.calls,
+                    path.firstNanos / 1000, path.recentNanos() / 1000,
+                    path.failure == null ? "" : " (stopped: " + path.failure + ")");
+        }
+        logger.info("Warm-up finished in {} ms{}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                pending.isEmpty() ? "" : " (time limit reached)");
+    }
+
+    // Same requests as S3ServiceImpl builds, without its cache and logging
+    private String presignPut(String key) {
+        return s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(15))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType("image/png")
+                        .build())
+                .build()).url().toString();
+    }
+
+    private String presignGet(String key) {
+        return s3Presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(60))
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .build())
+                .build()).url().toString();
+    }
+
+    private final class HotPath {
+
+        // Calls averaged for the "last" figure
+        private static final int RECENT = 50;
+
+        private final String name;
+        private final int limit;
+        private final Callable<Integer> call;
+        private final long[] recent = new long[RECENT];
+        private int calls;
+        private long firstNanos;
+        private String failure;
+
+        HotPath(String name, int limit, Callable<Integer> call) {
+            this.name = name;
+            this.limit = limit;
+            this.call = call;
+        }
+
+        /**
+         * @return false once this path is done
+         */
+        boolean step() {
+            if (calls >= limit) {
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                sink += call.call();
+            } catch (Exception e) {
+                failure = e.getMessage();
+                return false;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (calls == 0) {
+                firstNanos = elapsed;
+            }
+            recent[calls % RECENT] = elapsed;
+            calls++;
+            return true;
+        }
+
+        long recentNanos() {
+            int n = Math.min(calls, RECENT);
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                total += recent[i];
+            }
+            return n == 0 ? 0 : total / n;
+        }
+    }
+}
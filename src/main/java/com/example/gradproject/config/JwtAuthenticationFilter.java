@@ -1,9 +1,13 @@
 package com.example.gradproject.config;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,8 +16,13 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.gradproject.jfr.JwtVerificationEvent;
 import com.example.gradproject.service.impl.TokenBlacklistService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,12 +36,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    // One timer per outcome, registered on first use
+    private final Map<String, Timer> verificationTimers = new ConcurrentHashMap<>();
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
-            TokenBlacklistService tokenBlacklistService) {
+            TokenBlacklistService tokenBlacklistService, MeterRegistry meterRegistry,
+            ObjectProvider<Tracer> tracerProvider) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
         this.tokenBlacklistService = tokenBlacklistService;
+        this.meterRegistry = meterRegistry;
+        this.tracerProvider = tracerProvider;
     }
 
     @Override
@@ -41,7 +58,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -49,17 +65,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
+        long start = System.nanoTime();
+        Tracer tracer = tracerProvider.getIfAvailable();
+        Span span = startSpan(tracer);
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+
+        // In scope, so the blacklist and user lookups are traced as its children
+        String outcome;
+        try (Tracer.SpanInScope scope = span == null ? null : tracer.withSpan(span)) {
+            outcome = verify(jwt, request);
+        }
+        recordVerification(start, span, event, outcome);
 
-        // Check if token is blacklisted
-        if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
+        if ("blacklisted".equals(outcome)) {
             logger.warn("Blocked blacklisted token for request: {}", request.getRequestURI());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Token has been invalidated");
             return;
         }
 
+        filterChain.doFilter(request, response);
+    }
+
+    private String verify(String jwt, HttpServletRequest request) {
+        // Check if token is blacklisted
+        if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
+            return "blacklisted";
+        }
+
+        String outcome = "rejected";
         try {
-            username = jwtUtil.extractUsername(jwt);
+            String username = jwtUtil.extractUsername(jwt);
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
@@ -71,13 +108,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = "authenticated";
                 }
+            } else if (username != null) {
+                outcome = "skipped";
             }
         } catch (Exception e) {
             logger.error("JWT Validation failed: {}", e.getMessage());
             // Token is invalid, continue without authentication
         }
+        return outcome;
+    }
 
-        filterChain.doFilter(request, response);
+    // Includes the user lookup, which is part of every authenticated request
+    private Span startSpan(Tracer tracer) {
+        if (tracer == null || !TracingConfig.isSampled(tracer.currentSpan())) {
+            return null;
+        }
+        return tracer.nextSpan().name("JwtAuthenticationFilter.verify").start();
+    }
+
+    private void recordVerification(long start, Span span, JwtVerificationEvent event, String outcome) {
+        if (span != null) {
+            span.tag("outcome", outcome).end();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.commit();
+        }
+        verificationTimers.computeIfAbsent(outcome, key -> Timer.builder("auth.jwt.verification")
+                .description("Bearer token verification time")
+                .tag("outcome", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
 }
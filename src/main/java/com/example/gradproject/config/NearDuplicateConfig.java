@@ -0,0 +1,23 @@
+package com.example.gradproject.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.example.gradproject.service.impl.NearDuplicateServiceImpl;
+
+@Configuration
+public class NearDuplicateConfig {
+
+    @Bean
+    public RedisMessageListenerContainer nearDuplicateListenerContainer(RedisConnectionFactory connectionFactory,
+            NearDuplicateServiceImpl nearDuplicateService) {
+        // Perceptual hash changes made on other nodes, applied to this node's index
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(nearDuplicateService, new ChannelTopic(NearDuplicateServiceImpl.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gradproject.config;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Appends spans to a local file, one OTLP-JSON ExportTraceServiceRequest
+ * per line, so traces can be inspected or replayed into a collector
+ * without running one. The OTLP JSON exporter writes to a
+ * java.util.logging logger; this points that logger at the file instead of
+ * the application log.
+ */
+public class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    // Held strongly: JUL only keeps weak references to loggers
+    private final Logger logger;
+    private final FileHandler handler;
+    private final SpanExporter delegate;
+
+    public OtlpJsonFileSpanExporter(String path) throws IOException {
+        logger = Logger.getLogger(OtlpJsonLoggingSpanExporter.class.getName());
+        handler = new FileHandler(path, true);
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + System.lineSeparator();
+            }
+        });
+        logger.addHandler(handler);
+        logger.setUseParentHandlers(false);
+        delegate = OtlpJsonLoggingSpanExporter.create();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        return delegate.export(spans);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        handler.flush();
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        CompletableResultCode result = delegate.shutdown();
+        logger.removeHandler(handler);
+        handler.close();
+        return result;
+    }
+}
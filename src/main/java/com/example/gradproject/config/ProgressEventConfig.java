@@ -0,0 +1,53 @@
+package com.example.gradproject.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.example.gradproject.service.impl.RedisProgressEventService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+@Configuration
+public class ProgressEventConfig {
+
+    private final ThreadPoolTaskExecutor listenerExecutor = new ThreadPoolTaskExecutor();
+
+    @Bean
+    public RedisMessageListenerContainer progressEventListenerContainer(RedisConnectionFactory connectionFactory,
+            RedisProgressEventService progressEventService, MeterRegistry meterRegistry,
+            @Value("${progress.sse.listener-threads:4}") int listenerThreads,
+            @Value("${progress.sse.listener-queue-capacity:1000}") int listenerQueueCapacity) {
+        // Delivery blocks in SseEmitter.send on slow clients, so it gets a fixed pool rather than a
+        // thread per message. Messages are dispatched from the Redis client's event loop, which must
+        // never block, so events beyond the queue are dropped; progress events are best-effort
+        Counter dropped = Counter.builder("progress.events.dropped")
+                .description("Relayed progress events dropped because delivery fell behind")
+                .register(meterRegistry);
+        listenerExecutor.setCorePoolSize(listenerThreads);
+        listenerExecutor.setMaxPoolSize(listenerThreads);
+        listenerExecutor.setQueueCapacity(listenerQueueCapacity);
+        listenerExecutor.setRejectedExecutionHandler((task, executor) -> dropped.increment());
+        listenerExecutor.setThreadNamePrefix("progress-events-");
+        listenerExecutor.initialize();
+
+        // One shared subscription per node; events are fanned out to local streams in memory
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(listenerExecutor);
+        container.addMessageListener(progressEventService,
+                new ChannelTopic(RedisProgressEventService.CHANNEL));
+        return container;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listenerExecutor.shutdown();
+    }
+}
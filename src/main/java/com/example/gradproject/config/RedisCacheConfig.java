@@ -8,10 +8,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
+import com.example.gradproject.jfr.JfrRedisCacheWriter;
+
 @Configuration
 public class RedisCacheConfig {
 
@@ -31,10 +34,16 @@ public class RedisCacheConfig {
         RedisCacheConfiguration presignedUrlConfig = defaultConfig
                 .entryTtl(Duration.ofMinutes(59));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // CacheLookup events for JFR recordings
+        RedisCacheWriter cacheWriter = new JfrRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory));
+
+        return RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(Map.of(
                         "presignedUrls", presignedUrlConfig))
+                // Hit/miss counts for the cache.gets meter
+                .enableStatistics()
                 .build();
     }
 }
@@ -1,13 +1,22 @@
 package com.example.gradproject.config;
 
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
@@ -22,24 +31,55 @@ public class S3Config {
     @Value("${aws.region}")
     private String region;
 
+    // S3-compatible endpoint (load-test stand-in, MinIO); empty = AWS
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${aws.s3.connection-acquisition-timeout-ms:10000}")
+    private long connectionAcquisitionTimeoutMs;
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    public S3Config(MeterRegistry meterRegistry, ObjectProvider<Tracer> tracerProvider) {
+        this.meterRegistry = meterRegistry;
+        this.tracerProvider = tracerProvider;
+    }
+
     @Bean
     public S3Client s3Client() {
         AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(accessKey, secretKey);
 
-        return S3Client.builder()
+        S3ClientBuilder builder = S3Client.builder()
                 .region(Region.of(region))
                 .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
-                .build();
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs)))
+                .overrideConfiguration(config -> config
+                        .addExecutionInterceptor(new S3MetricsInterceptor(meterRegistry))
+                        .addExecutionInterceptor(new S3TracingInterceptor(tracerProvider)));
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        return builder.build();
     }
 
     // new changes here
     @Bean
     public S3Presigner s3Presigner() {
         AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(accessKey, secretKey);
-        return S3Presigner.builder()
+        S3Presigner.Builder builder = S3Presigner.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
-                .build();
+                .credentialsProvider(StaticCredentialsProvider.create(awsCredentials));
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        return builder.build();
     }
 
 }
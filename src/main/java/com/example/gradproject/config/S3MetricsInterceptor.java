@@ -0,0 +1,64 @@
+package com.example.gradproject.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Times every S3 call per operation (GetObject, UploadPart, ...), including
+ * SDK retries, as s3.client.requests{operation, outcome}. For streaming
+ * responses the time ends when the response headers arrive, not when the
+ * body has been read.
+ */
+public class S3MetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START = new ExecutionAttribute<>("MetricsStartNanos");
+
+    private final MeterRegistry meterRegistry;
+
+    // One timer per operation and outcome, registered on first use
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public S3MetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        record(attributes, context.httpResponse().isSuccessful() ? "success" : "error");
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(attributes, "error");
+    }
+
+    private void record(ExecutionAttributes attributes, String outcome) {
+        Long start = attributes.getAttribute(START);
+        if (start == null) {
+            return;
+        }
+        String name = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        String operation = name != null ? name : "unknown";
+        timers.computeIfAbsent(operation + '/' + outcome, key -> Timer.builder("s3.client.requests")
+                .description("S3 call latency per operation")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gradproject.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * One client span per S3 call, child of the span current on the calling
+ * thread. Only created when that span is sampled, so unsampled requests
+ * pay one thread-local lookup per call.
+ */
+public class S3TracingInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Span> SPAN = new ExecutionAttribute<>("TracingSpan");
+
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    public S3TracingInterceptor(ObjectProvider<Tracer> tracerProvider) {
+        this.tracerProvider = tracerProvider;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        Tracer tracer = tracerProvider.getIfAvailable();
+        if (tracer == null || !TracingConfig.isSampled(tracer.currentSpan())) {
+            return;
+        }
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        Span span = tracer.nextSpan()
+                .name("S3." + operation)
+                .tag("aws.operation", String.valueOf(operation))
+                .remoteServiceName("s3")
+                .start();
+        attributes.putAttribute(SPAN, span);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        Span span = attributes.getAttribute(SPAN);
+        if (span != null) {
+            span.tag("http.status_code", String.valueOf(context.httpResponse().statusCode())).end();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        Span span = attributes.getAttribute(SPAN);
+        if (span != null) {
+            span.error(context.exception()).end();
+        }
+    }
+}
@@ -23,6 +23,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -31,15 +33,18 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, UserDetailsService userDetailsService) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -76,9 +81,17 @@ public class SecurityConfig {
                                 "swagger-ui.html",
                                 "swagger-ui/**",
                                 "/v3/api-docs.yaml",
-                                "/swagger-resources/**" // safe to include
+                                "/swagger-resources/**", // safe to include
+                                // Served on the management port only (management.server.port)
+                                "/actuator/health",
+                                "/actuator/health/liveness",
+                                "/actuator/health/readiness",
+                                "/actuator/prometheus"
                         ).permitAll()
 
+                        // Flight Recorder recordings (JfrEndpoint), management port only
+                        .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN")
+
                         // Secure API endpoints (JWT required)
                         .requestMatchers("/api/**").authenticated()
 
@@ -122,7 +135,9 @@ public class SecurityConfig {
         configuration.setExposedHeaders(Arrays.asList(
                 "Authorization",
                 "Content-Type",
-                "X-Total-Count"));
+                "X-Total-Count",
+                "Content-Disposition",
+                "X-Export-Total-Entries"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
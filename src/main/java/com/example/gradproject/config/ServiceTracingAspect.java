@@ -0,0 +1,46 @@
+package com.example.gradproject.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * A span per public service method call (ClassName.method) for beans in
+ * service.impl. Calls within one bean are not proxied and so do not get
+ * their own span. Nothing is created unless the caller's span is sampled.
+ */
+@Aspect
+@Component
+public class ServiceTracingAspect {
+
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    public ServiceTracingAspect(ObjectProvider<Tracer> tracerProvider) {
+        this.tracerProvider = tracerProvider;
+    }
+
+    @Around("execution(public * com.example.gradproject.service.impl..*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tracer tracer = tracerProvider.getIfAvailable();
+        if (tracer == null || !TracingConfig.isSampled(tracer.currentSpan())) {
+            return joinPoint.proceed();
+        }
+
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        Span span = tracer.nextSpan().name(name).start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
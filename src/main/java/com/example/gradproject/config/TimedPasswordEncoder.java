@@ -0,0 +1,68 @@
+package com.example.gradproject.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.gradproject.jfr.PasswordHashEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long each hash takes as auth.password.hash{operation}.
+ * BCrypt cost is deliberate CPU time on the login/signup path, so a change
+ * in strength or hardware shows up here first. Each hash is also a
+ * PasswordHashEvent in JFR recordings.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(meterRegistry, "encode");
+        this.matchesTimer = timer(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String encoded = encodeTimer.record(() -> delegate.encode(rawPassword));
+        commit(event, "encode", false);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matches = Boolean.TRUE.equals(
+                matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+        commit(event, "matches", matches);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static void commit(PasswordHashEvent event, String operation, boolean matched) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.matched = matched;
+            event.commit();
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Password hashing time")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
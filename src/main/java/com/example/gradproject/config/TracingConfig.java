@@ -0,0 +1,68 @@
+package com.example.gradproject.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.contextpropagation.ObservationAwareSpanThreadLocalAccessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Tracing wiring beyond what Boot configures (HTTP server, security filter
+ * chain, JDBC via datasource-micrometer):
+ * Redis command spans, the file exporter, and context propagation into
+ * executors. Sampling is management.tracing.sampling.probability; our own
+ * spans (service methods, S3, Redis) are skipped for unsampled traces.
+ */
+@Configuration
+public class TracingConfig {
+
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    public TracingConfig(ObjectProvider<Tracer> tracerProvider) {
+        this.tracerProvider = tracerProvider;
+    }
+
+    @PostConstruct
+    public void registerSpanAccessor() {
+        // Lets ContextSnapshot carry spans opened with Tracer.withSpan, not just observations
+        Tracer tracer = tracerProvider.getIfAvailable();
+        if (tracer != null) {
+            ContextRegistry.getInstance().registerThreadLocalAccessor(
+                    new ObservationAwareSpanThreadLocalAccessor(tracer));
+        }
+    }
+
+    @Bean
+    public ClientResourcesBuilderCustomizer redisTracing(ObservationRegistry observationRegistry) {
+        return builder -> builder.tracing(new MicrometerTracing(observationRegistry, "redis"));
+    }
+
+    // Applied by Boot to the auto-configured task executor and scheduler
+    @Bean
+    public ContextPropagatingTaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnProperty("tracing.export.file")
+    public SpanExporter otlpJsonFileSpanExporter(@Value("${tracing.export.file}") String path) throws IOException {
+        return new OtlpJsonFileSpanExporter(path);
+    }
+
+    static boolean isSampled(Span span) {
+        return span != null && Boolean.TRUE.equals(span.context().sampled());
+    }
+}
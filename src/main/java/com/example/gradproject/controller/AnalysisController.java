@@ -0,0 +1,85 @@
+package com.example.gradproject.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.gradproject.DTO.AnalysisJobResponse;
+import com.example.gradproject.DTO.AnalyzeRequest;
+import com.example.gradproject.Repository.UserRepo;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.enums.AnalysisStatus;
+import com.example.gradproject.exception.UserNotFoundException;
+import com.example.gradproject.service.AnalysisJobService;
+
+@RestController
+@RequestMapping("/api/files/analyze")
+public class AnalysisController {
+
+    private static final int MAX_LIST_LIMIT = 100;
+
+    private final AnalysisJobService analysisJobService;
+    private final UserRepo userRepo;
+
+    public AnalysisController(AnalysisJobService analysisJobService, UserRepo userRepo) {
+        this.analysisJobService = analysisJobService;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Submit one of the user's uploaded scans for analysis.
+     * Returns 202 with the job id immediately; poll the job for the result.
+     * If the same scan was already analyzed by the current model the job is
+     * created DONE and 200 is returned with the cached result.
+     *
+     * @param request        Contains the S3 key of the scan
+     * @param authentication Spring Security authentication object (automatically
+     *                       injected)
+     * @return The queued job
+     */
+    @PostMapping
+    public ResponseEntity<AnalysisJobResponse> submit(
+            @RequestBody AnalyzeRequest request,
+            Authentication authentication) {
+
+        if (request.getKey() == null || request.getKey().isEmpty()) {
+            throw new IllegalArgumentException("S3 key is required");
+        }
+
+        User user = currentUser(authentication);
+        AnalysisJobResponse response = analysisJobService.submit(request.getKey(), user);
+        HttpStatus status = response.getStatus() == AnalysisStatus.DONE ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<AnalysisJobResponse> getJob(@PathVariable Long jobId, Authentication authentication) {
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(analysisJobService.getJob(jobId, user));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AnalysisJobResponse>> getJobs(
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            Authentication authentication) {
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIST_LIMIT);
+        }
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(analysisJobService.getJobs(user, limit));
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    }
+}
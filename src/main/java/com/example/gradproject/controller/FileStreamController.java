@@ -0,0 +1,168 @@
+package com.example.gradproject.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.Repository.UserImageRepository;
+import com.example.gradproject.Repository.UserRepo;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.enums.DeidentificationStatus;
+import com.example.gradproject.enums.ImageVariant;
+import com.example.gradproject.exception.UploadNotReadyException;
+import com.example.gradproject.exception.UserNotFoundException;
+import com.example.gradproject.service.S3Service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Authenticated download proxy for networks that cannot reach S3 directly.
+ * The S3 body is copied to the response through one fixed-size buffer per
+ * connection, so memory use does not depend on object size. Writes block
+ * while the client is slow, which in turn stops reads from S3: backpressure
+ * comes from plain blocking I/O.
+ * Range and If-None-Match are passed through to S3 and answered with
+ * 206 and 304.
+ */
+@RestController
+@RequestMapping("/api/files")
+@ConditionalOnProperty(name = "files.stream.enabled", havingValue = "true", matchIfMissing = true)
+public class FileStreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStreamController.class);
+
+    // Only a single byte range is forwarded; multi-range requests get the full object
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d+-\\d*|-\\d+)");
+
+    private final S3Service s3Service;
+    private final PhotoRepository photoRepository;
+    private final UserImageRepository userImageRepository;
+    private final UserRepo userRepo;
+
+    @Value("${files.stream.buffer-size:65536}")
+    private int bufferSize;
+
+    public FileStreamController(S3Service s3Service, PhotoRepository photoRepository,
+            UserImageRepository userImageRepository, UserRepo userRepo) {
+        this.s3Service = s3Service;
+        this.photoRepository = photoRepository;
+        this.userImageRepository = userImageRepository;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Stream one of the user's files (or one of its derivatives) through the
+     * backend.
+     *
+     * @param key            S3 key of the original upload
+     * @param variant        original (default), preview or thumbnail
+     * @param range          optional HTTP Range header
+     * @param ifNoneMatch    optional If-None-Match header
+     * @param authentication Spring Security authentication object (automatically
+     *                       injected)
+     */
+    @GetMapping("/stream")
+    public void stream(
+            @RequestParam("key") String key,
+            @RequestParam(value = "variant", defaultValue = "original") String variant,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        ImageVariant imageVariant;
+        try {
+            imageVariant = ImageVariant.valueOf(variant.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!photoRepository.existsByUrlAndUser_Id(key, user.getId())) {
+            throw new IllegalArgumentException("No file found for key: " + key);
+        }
+        if (userImageRepository.existsByS3KeyAndDeidentifyStatusNot(key, DeidentificationStatus.DONE)) {
+            throw new UploadNotReadyException("File is still being processed: " + key);
+        }
+
+        String forwardedRange = range != null && SINGLE_RANGE.matcher(range.trim()).matches() ? range.trim() : null;
+
+        ResponseInputStream<GetObjectResponse> object;
+        try {
+            object = s3Service.getObject(imageVariant.keyFor(key), forwardedRange, ifNoneMatch);
+        } catch (S3Exception e) {
+            if (e.statusCode() == HttpServletResponse.SC_NOT_MODIFIED) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.setHeader(HttpHeaders.ETAG, ifNoneMatch);
+                return;
+            }
+            if (e.statusCode() == HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            throw e;
+        }
+
+        GetObjectResponse metadata = object.response();
+        boolean partial = forwardedRange != null && metadata.contentRange() != null;
+        response.setStatus(partial ? HttpServletResponse.SC_PARTIAL_CONTENT : HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=0, must-revalidate");
+        if (partial) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, metadata.contentRange());
+        }
+        if (metadata.eTag() != null) {
+            response.setHeader(HttpHeaders.ETAG, metadata.eTag());
+        }
+        if (metadata.lastModified() != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, metadata.lastModified().toEpochMilli());
+        }
+        if (metadata.contentLength() != null) {
+            response.setContentLengthLong(metadata.contentLength());
+        }
+        response.setContentType(metadata.contentType() != null ? metadata.contentType() : "application/octet-stream");
+
+        transfer(object, response.getOutputStream(), key);
+    }
+
+    private void transfer(ResponseInputStream<GetObjectResponse> object, OutputStream out, String key)
+            throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        boolean complete = false;
+        try {
+            int read;
+            while ((read = object.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.flush();
+            complete = true;
+        } catch (IOException e) {
+            // Usually the client went away mid-download
+            logger.debug("Stream for key {} aborted: {}", key, e.getMessage());
+        } finally {
+            if (complete) {
+                object.close();
+            } else {
+                // Drop the S3 connection instead of draining the rest of a large object on close
+                object.abort();
+            }
+        }
+    }
+}
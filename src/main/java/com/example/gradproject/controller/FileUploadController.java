@@ -1,47 +1,84 @@
 package com.example.gradproject.controller;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.gradproject.DTO.BatchUploadCompleteRequest;
 import com.example.gradproject.DTO.PresignedUrlRequest;
 import com.example.gradproject.DTO.PresignedUrlResponse;
 import com.example.gradproject.DTO.UploadCompleteRequest;
 import com.example.gradproject.Repository.UserRepo;
 import com.example.gradproject.entity.User;
+import com.example.gradproject.enums.ImageVariant;
 import com.example.gradproject.exception.UserNotFoundException;
+import com.example.gradproject.service.NearDuplicateService;
 import com.example.gradproject.service.PhotoService;
 import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.ScanMetadataService;
+import com.example.gradproject.service.StreamingUploadService;
+import com.example.gradproject.service.UploadIngestService;
+import com.example.gradproject.service.ZipExportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/files")
 public class FileUploadController {
 
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+
     private final PhotoService photoService;
     private final S3Service s3Service;
+    private final NearDuplicateService nearDuplicateService;
+    private final StreamingUploadService streamingUploadService;
+    private final UploadIngestService uploadIngestService;
+    private final ZipExportService zipExportService;
+    private final ScanMetadataService scanMetadataService;
     private final UserRepo userRepo;
 
     public FileUploadController(
             PhotoService photoService,
             S3Service s3Service,
+            NearDuplicateService nearDuplicateService,
+            StreamingUploadService streamingUploadService,
+            UploadIngestService uploadIngestService,
+            ZipExportService zipExportService,
+            ScanMetadataService scanMetadataService,
             UserRepo userRepo) {
         this.photoService = photoService;
         this.s3Service = s3Service;
+        this.nearDuplicateService = nearDuplicateService;
+        this.streamingUploadService = streamingUploadService;
+        this.uploadIngestService = uploadIngestService;
+        this.zipExportService = zipExportService;
+        this.scanMetadataService = scanMetadataService;
         this.userRepo = userRepo;
     }
 
     @DeleteMapping("/delete")
-    public ResponseEntity<Map<String, String>> deleteFile(@RequestParam("url") String fileUrl) {
-        Map<String, String> response = photoService.deletePhoto(fileUrl);
+    public ResponseEntity<Map<String, String>> deleteFile(@RequestParam("url") String fileUrl,
+            Authentication authentication) {
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        Map<String, String> response = photoService.deletePhoto(fileUrl, user);
         return ResponseEntity.ok(response);
     }
 
@@ -51,24 +88,112 @@ public class FileUploadController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * List the user's photos. URLs point at 256px thumbnails by default;
+     * pass variant=preview (1024px) or variant=original for larger files.
+     */
     @GetMapping("/my-photos")
-    public ResponseEntity<?> getMyPhotos(Authentication authentication) {
+    public ResponseEntity<?> getMyPhotos(
+            @RequestParam(value = "variant", defaultValue = "thumbnail") String variant,
+            Authentication authentication) {
+        ImageVariant imageVariant;
+        try {
+            imageVariant = ImageVariant.valueOf(variant.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+
         // Get authenticated user
         String userEmail = authentication.getName();
         User user = userRepo.findByEmail(userEmail)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         // Delegate to photo service
-        Map<String, Object> response = photoService.getUserPhotos(user, Duration.ofMinutes(60));
+        Map<String, Object> response = photoService.getUserPhotos(user, Duration.ofMinutes(60), imageVariant);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Download the user's whole library as one ZIP, built while it is sent.
+     * Entries are named ID-filename in id order. If the connection drops,
+     * keep the complete entries and request ?after=ID, where ID is the prefix
+     * of the last complete entry, to get the rest; photos added or deleted in
+     * between do not shift it.
+     *
+     * @param after          id of the last entry already received (default:
+     *                       start from the first)
+     * @param authentication Spring Security authentication object (automatically
+     *                       injected)
+     */
+    @GetMapping("/export.zip")
+    public void exportZip(
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        if (after < 0) {
+            throw new IllegalArgumentException("after must not be negative");
+        }
+        List<ZipExportService.ExportEntry> entries = zipExportService.listEntries(user);
+
+        String fileName = after == 0 ? "photos.zip" : "photos-after-" + after + ".zip";
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setHeader("X-Export-Total-Entries", String.valueOf(entries.size()));
+        // Commit the headers now so the client sees the download start before S3 answers
+        response.flushBuffer();
+
+        zipExportService.writeZip(entries, after, response.getOutputStream());
+    }
+
+    /**
+     * Header fields (modality, dimensions, acquisition date, ...) extracted
+     * from a DICOM or NIfTI upload at ingest.
+     */
+    @GetMapping("/metadata")
+    public ResponseEntity<Map<String, Object>> getMetadata(
+            @RequestParam("key") String key,
+            Authentication authentication) {
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        return scanMetadataService.getMetadata(key, user)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * List the user's images that look like the given one (re-exports,
+     * re-compressions or rescaled copies), closest first.
+     *
+     * @param key         S3 key of one of the user's images
+     * @param maxDistance Hamming distance between 64-bit perceptual hashes
+     *                    (0-15, default 6)
+     */
+    @GetMapping("/near-duplicates")
+    public ResponseEntity<List<Map<String, Object>>> getNearDuplicates(
+            @RequestParam("key") String key,
+            @RequestParam(value = "maxDistance", defaultValue = "6") int maxDistance,
+            Authentication authentication) {
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        return ResponseEntity.ok(nearDuplicateService.findNearDuplicates(key, user, maxDistance));
+    }
+
     /**
      * Generate presigned PUT URL for direct upload to S3.
      * Frontend calls this endpoint first to get a presigned URL, then uploads
      * directly to S3.
+     * If the request carries the file's SHA-256 and the user already uploaded
+     * identical content, no URL is issued: the photo is linked to the existing
+     * object and the response has deduplicated=true (skip the upload and
+     * upload-complete calls).
      * 
-     * @param request        Contains fileName, contentType, and optional folder
+     * @param request        Contains fileName, contentType, optional folder and
+     *                       optional sha256
      * @param authentication Spring Security authentication object (automatically
      *                       injected)
      * @return Presigned PUT URL and S3 key
@@ -86,6 +211,24 @@ public class FileUploadController {
             throw new IllegalArgumentException("Content type is required");
         }
 
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        String sha256 = request.getSha256();
+        if (sha256 != null && !sha256.isEmpty()) {
+            if (!SHA256_HEX.matcher(sha256).matches()) {
+                throw new IllegalArgumentException("sha256 must be 64 hex characters");
+            }
+            Optional<String> existingKey = photoService.linkExistingUpload(sha256, user);
+            if (existingKey.isPresent()) {
+                PresignedUrlResponse response = new PresignedUrlResponse();
+                response.setKey(existingKey.get());
+                response.setDeduplicated(true);
+                response.setMessage("Identical file already uploaded; linked to the existing copy");
+                return ResponseEntity.ok(response);
+            }
+        }
+
         // Set default folder if not provided
         String folder = request.getFolder();
         if (folder == null || folder.isEmpty()) {
@@ -98,6 +241,8 @@ public class FileUploadController {
 
         // Generate unique S3 key
         String s3Key = s3Service.generateS3Key(request.getFileName(), folder);
+        // Only keys recorded as issued to this user are accepted by upload-complete
+        uploadIngestService.issue(s3Key, request.getFileName(), user);
 
         // Generate presigned PUT URL (valid for 5 minutes)
         String presignedUrl = s3Service.generatePresignedPutUrl(
@@ -115,12 +260,14 @@ public class FileUploadController {
 
     /**
      * Confirm upload completion after frontend uploads directly to S3.
-     * This endpoint saves the S3 key to the database.
+     * The key must have been issued to this user by presigned-url. It is
+     * queued for verification and saved to the database asynchronously, so
+     * this returns 202 without waiting on S3.
      * 
-     * @param request        Contains the S3 key
+     * @param request        Contains the S3 key and optional original file name
      * @param authentication Spring Security authentication object (automatically
      *                       injected)
-     * @return Confirmation response with presigned GET URL
+     * @return Queued status for the key
      */
     @PostMapping("/upload-complete")
     public ResponseEntity<Map<String, String>> confirmUpload(
@@ -137,17 +284,78 @@ public class FileUploadController {
             throw new IllegalArgumentException("S3 key is required");
         }
 
-        // Confirm upload and save to database
-        Map<String, String> response = photoService.confirmUpload(request.getKey(), user);
+        // Queue the upload for verification and registration
+        Map<String, String> response = photoService.confirmUpload(request.getKey(), request.getFileName(), user);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Upload through the backend for clients that cannot PUT to S3 directly.
+     * Send the file as the raw request body (not multipart/form-data) with its
+     * Content-Type; it is forwarded to S3 while it is being read, then
+     * registered exactly like upload-complete.
+     *
+     * @param fileName       Original file name, used for the key extension
+     * @param contentType    Content type of the file
+     * @param authentication Spring Security authentication object (automatically
+     *                       injected)
+     * @return Queued status for the new key
+     */
+    @PostMapping("/upload-stream")
+    public ResponseEntity<Map<String, String>> uploadStream(
+            @RequestParam("fileName") String fileName,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        if (fileName.isEmpty()) {
+            throw new IllegalArgumentException("File name is required");
+        }
+        if (contentType == null || contentType.isEmpty() || contentType.startsWith("multipart/")) {
+            throw new IllegalArgumentException("Send the file as the raw body with its own Content-Type");
+        }
+
+        String s3Key = streamingUploadService.upload(request.getInputStream(), fileName, contentType);
+        uploadIngestService.issue(s3Key, fileName, user);
+        Map<String, String> response = photoService.confirmUpload(s3Key, fileName, user);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
-    @PostMapping("/analyze")
-    public String postMethodName(@RequestBody String entity) {
-        // TODO: process POST request
+    /**
+     * Bulk variant of upload-complete for importing many objects at once.
+     * Keys are registered before the response, in JDBC batches, and no
+     * presigned URLs are returned. Keys that were not issued to the user or
+     * are not in S3 are skipped and not counted. Requests with more than
+     * {@code ingest.max-batch-keys} keys are rejected.
+     *
+     * @param request        Contains the S3 keys
+     * @param authentication Spring Security authentication object (automatically
+     *                       injected)
+     * @return Number of keys registered
+     */
+    @PostMapping("/upload-complete/batch")
+    public ResponseEntity<Map<String, Object>> confirmUploads(
+            @RequestBody BatchUploadCompleteRequest request,
+            Authentication authentication) {
+
+        String userEmail = authentication.getName();
+        User user = userRepo.findByEmail(userEmail)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        if (request.getKeys() == null || request.getKeys().isEmpty()) {
+            throw new IllegalArgumentException("At least one S3 key is required");
+        }
+        if (request.getKeys().stream().anyMatch(key -> key == null || key.isEmpty())) {
+            throw new IllegalArgumentException("S3 keys must not be empty");
+        }
 
-        return entity;
+        Map<String, Object> response = photoService.confirmUploads(request.getKeys(), user);
+        return ResponseEntity.ok(response);
     }
 
 }
@@ -0,0 +1,53 @@
+package com.example.gradproject.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.gradproject.Repository.UserRepo;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.exception.UserNotFoundException;
+import com.example.gradproject.service.ProgressEventService;
+
+@RestController
+@RequestMapping("/api/events")
+public class ProgressEventController {
+
+    private final ProgressEventService progressEventService;
+    private final UserRepo userRepo;
+
+    public ProgressEventController(ProgressEventService progressEventService, UserRepo userRepo) {
+        this.progressEventService = progressEventService;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Server-sent event stream of the current user's upload and analysis
+     * progress, replacing status polling. Authentication and the user lookup
+     * happen once per connection.
+     * Events: {@code ingest} when an upload is registered, {@code ready}
+     * once it is de-identified and can be viewed, {@code analysis} on every
+     * job state change (QUEUED, RUNNING, DONE, FAILED).
+     * The stream is closed when the access token expires or is revoked, and
+     * a user can have {@code progress.sse.max-streams-per-user} open (429
+     * beyond that).
+     *
+     * @param authorization  Bearer token the stream is tied to
+     * @param authentication Spring Security authentication object (automatically
+     *                       injected)
+     * @return The open event stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            Authentication authentication) {
+        User user = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        // JwtAuthenticationFilter only authenticates Bearer headers, so this is the verified token
+        return progressEventService.subscribe(user.getId(), authorization.substring("Bearer ".length()));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.gradproject.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Replica pools for read-only transactions (datasource.replicas.urls,
+ * separated by whitespace since JDBC URLs may contain commas). Each pool
+ * is read-only, so a write routed there by mistake fails instead of
+ * diverging from the primary. With replicas configured, the primary and
+ * replica pools hand out connections with auto-commit off and Hibernate
+ * takes one at the first statement, once Spring's transaction
+ * synchronization is active to report the commit for read-your-writes.
+ * <p>
+ * Lag is read every lag-check-ms with lag-query (the lag-column value in
+ * seconds). A replica is used while its lag is at most max-lag-seconds; a
+ * failed check, no row (not a replica) or a null lag (replication stopped)
+ * takes it out until the next good check. With no lag-query every replica is always used. Lag is
+ * exported as datasource.replica.lag{pool}, pools as hikaricp.*{pool}.
+ */
+@Component
+public class ReadReplicas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicas.class);
+
+    private final List<ReplicaPool> replicas = new ArrayList<>();
+    private final ReadYourWritesTracker readYourWrites;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${datasource.replicas.max-lag-seconds:5}")
+    private double maxLagSeconds;
+
+    private final String lagQuery;
+
+    @Value("${datasource.replicas.lag-column:Seconds_Behind_Source}")
+    private String lagColumn;
+
+    public ReadReplicas(@Value("${datasource.replicas.urls:}") String urls,
+            @Value("${datasource.replicas.username:}") String username,
+            @Value("${datasource.replicas.password:}") String password,
+            @Value("${datasource.replicas.pool-size:10}") int poolSize,
+            @Value("${datasource.replicas.lag-query:}") String lagQuery,
+            @Value("${datasource.replicas.read-your-writes-ms:5000}") long readYourWritesMillis,
+            MeterRegistry meterRegistry) {
+        this.lagQuery = lagQuery;
+        this.readYourWrites = new ReadYourWritesTracker(readYourWritesMillis);
+        this.meterRegistry = meterRegistry;
+        for (String url : urls.trim().split("\\s+")) {
+            if (url.isEmpty()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(url);
+            // As Boot does for the primary; the JDBC observations tag queries with the pool's driver
+            String driverClassName = DatabaseDriver.fromJdbcUrl(url).getDriverClassName();
+            if (driverClassName != null) {
+                dataSource.setDriverClassName(driverClassName);
+            }
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setReadOnly(true);
+            dataSource.setAutoCommit(false);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            // Unchecked replicas wait for their first lag check
+            ReplicaPool replica = new ReplicaPool(name, dataSource, lagQuery.isBlank());
+            Gauge.builder("datasource.replica.lag", replica, ReplicaPool::lagSeconds)
+                    .description("Replication lag at the last check (NaN if it failed)")
+                    .baseUnit("seconds")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            replicas.add(replica);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * @return the primary unchanged if no replicas are configured, otherwise
+     *         a data source that routes between the primary and the replicas
+     */
+    public DataSource route(DataSource primary) {
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+        if (primary instanceof HikariDataSource hikari) {
+            hikari.setAutoCommit(false);
+        }
+        logger.info("Routing read-only transactions to {} replica(s)", replicas.size());
+        return new ReadWriteRoutingDataSource(primary, replicas, readYourWrites, meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-ms:2000}")
+    public void checkLag() {
+        readYourWrites.purgeExpired();
+        if (lagQuery.isBlank()) {
+            return;
+        }
+        for (ReplicaPool replica : replicas) {
+            double lag = Double.NaN;
+            try (Connection connection = replica.dataSource().getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (resultSet.next()) {
+                    long seconds = resultSet.getLong(lagColumn);
+                    lag = resultSet.wasNull() ? Double.NaN : seconds;
+                }
+            } catch (Exception e) {
+                logger.debug("Lag check failed for {}: {}", replica.name(), e.getMessage());
+            }
+            boolean eligible = lag <= maxLagSeconds;
+            if (eligible != replica.eligible()) {
+                if (eligible) {
+                    logger.info("Replica {} back in rotation (lag {} s)", replica.name(), lag);
+                } else {
+                    logger.warn("Replica {} out of rotation (lag {} s, limit {} s)", replica.name(), lag,
+                            maxLagSeconds);
+                }
+            }
+            replica.update(lag, eligible);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+}
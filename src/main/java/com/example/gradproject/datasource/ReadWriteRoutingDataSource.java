@@ -0,0 +1,145 @@
+package com.example.gradproject.datasource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything
+ * else to the primary. Replicas are taken round-robin, skipping those whose
+ * last lag check failed or exceeded the limit; with none left, or while the
+ * current user is inside their read-your-writes window, reads use the
+ * primary.
+ * <p>
+ * Whether a transaction is read-only comes from RoutingJpaTransactionManager,
+ * which records it on the thread before Hibernate begins the transaction:
+ * Hibernate takes the connection for a read-only transaction during begin,
+ * before Spring's own read-only flag is set. Counted as
+ * datasource.routing{target, reason}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    enum TransactionKind {
+        READ_ONLY,
+        READ_WRITE,
+        // An outer transaction suspended for non-transactional work
+        SUSPENDED
+    }
+
+    // Transactions begun or suspended on this thread, innermost last
+    private static final ThreadLocal<Deque<TransactionKind>> TRANSACTIONS = new ThreadLocal<>();
+
+    private final List<ReplicaPool> replicas;
+    private final ReadYourWritesTracker readYourWrites;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    ReadWriteRoutingDataSource(DataSource primary, List<ReplicaPool> replicas, ReadYourWritesTracker readYourWrites,
+            MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaPool replica : replicas) {
+            targets.put(replica.name(), replica.dataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    static void push(TransactionKind kind) {
+        Deque<TransactionKind> transactions = TRANSACTIONS.get();
+        if (transactions == null) {
+            transactions = new ArrayDeque<>();
+            TRANSACTIONS.set(transactions);
+        }
+        transactions.addLast(kind);
+    }
+
+    static void pop() {
+        Deque<TransactionKind> transactions = TRANSACTIONS.get();
+        if (transactions == null) {
+            return;
+        }
+        transactions.pollLast();
+        if (transactions.isEmpty()) {
+            TRANSACTIONS.remove();
+        }
+    }
+
+    static TransactionKind currentTransaction() {
+        Deque<TransactionKind> transactions = TRANSACTIONS.get();
+        return transactions == null ? null : transactions.peekLast();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        TransactionKind transaction = currentTransaction();
+        if (transaction == null || transaction == TransactionKind.SUSPENDED) {
+            return route(PRIMARY, "no-transaction");
+        }
+        String user = ReadYourWritesTracker.currentUser();
+        if (transaction == TransactionKind.READ_WRITE) {
+            if (user != null) {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            readYourWrites.recordWrite(user);
+                        }
+                    });
+                } else {
+                    // Connection taken during begin; start the window now
+                    readYourWrites.recordWrite(user);
+                }
+            }
+            return route(PRIMARY, "write");
+        }
+        if (user != null && readYourWrites.wroteRecently(user)) {
+            return route(PRIMARY, "read-your-writes");
+        }
+        ReplicaPool replica = nextEligible();
+        return replica == null ? route(PRIMARY, "no-replica") : route(replica.name(), "read");
+    }
+
+    private ReplicaPool nextEligible() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaPool replica = replicas.get((start + i) % size);
+            if (replica.eligible()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private String route(String target, String reason) {
+        counters.computeIfAbsent(target + '/' + reason, key -> Counter.builder("datasource.routing")
+                .description("Connections handed out, by pool and routing reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry))
+                .increment();
+        return target;
+    }
+}
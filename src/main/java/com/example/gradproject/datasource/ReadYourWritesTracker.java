@@ -0,0 +1,51 @@
+package com.example.gradproject.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Remembers when each user last committed a write, so their reads can stay
+ * on the primary until the replicas have caught up. Users are keyed by the
+ * authenticated principal name; work without one (signup, background
+ * workers) is not tracked. State is per node.
+ */
+class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    ReadYourWritesTracker(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * @return the authenticated user on this thread, or null
+     */
+    static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    void recordWrite(String user) {
+        lastWrites.put(user, System.nanoTime());
+    }
+
+    boolean wroteRecently(String user) {
+        Long lastWrite = lastWrites.get(user);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    void purgeExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
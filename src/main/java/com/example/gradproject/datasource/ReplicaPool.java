@@ -0,0 +1,44 @@
+package com.example.gradproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * A replica connection pool and the lag last measured for it.
+ */
+final class ReplicaPool {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+    private volatile double lagSeconds;
+    private volatile boolean eligible;
+
+    ReplicaPool(String name, HikariDataSource dataSource, boolean eligible) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.eligible = eligible;
+    }
+
+    String name() {
+        return name;
+    }
+
+    HikariDataSource dataSource() {
+        return dataSource;
+    }
+
+    double lagSeconds() {
+        return lagSeconds;
+    }
+
+    boolean eligible() {
+        return eligible;
+    }
+
+    /**
+     * @param lagSeconds the measured lag, or NaN if it could not be read
+     */
+    void update(double lagSeconds, boolean eligible) {
+        this.lagSeconds = lagSeconds;
+        this.eligible = eligible;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.gradproject.datasource;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import com.example.gradproject.datasource.ReadWriteRoutingDataSource.TransactionKind;
+
+/**
+ * JpaTransactionManager that tells ReadWriteRoutingDataSource whether the
+ * transaction being begun is read-only. The flag is set before
+ * {@link #doBegin}, where Hibernate already takes the connection for a
+ * read-only transaction, and suspended transactions are masked so
+ * non-transactional work inside them goes to the primary.
+ */
+public class RoutingJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReadWriteRoutingDataSource.push(definition.isReadOnly()
+                ? TransactionKind.READ_ONLY
+                : TransactionKind.READ_WRITE);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            ReadWriteRoutingDataSource.pop();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReadWriteRoutingDataSource.pop();
+        }
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        Object suspended = super.doSuspend(transaction);
+        ReadWriteRoutingDataSource.push(TransactionKind.SUSPENDED);
+        return suspended;
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        ReadWriteRoutingDataSource.pop();
+        super.doResume(transaction, suspendedResources);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gradproject.entity;
+
+import com.example.gradproject.enums.AnalysisStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "analysis_job", indexes = {
+        @Index(name = "idx_analysis_job_status", columnList = "status"),
+        @Index(name = "idx_analysis_job_user", columnList = "user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AnalysisJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "analysis_job_seq")
+    @SequenceGenerator(name = "analysis_job_seq", sequenceName = "analysis_job_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "s3_key", nullable = false)
+    private String s3Key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private AnalysisStatus status;
+
+    // SHA-256 of the scan bytes, used as the result cache key
+    @Column(name = "content_sha256", length = 64)
+    private String contentHash;
+
+    @Column(name = "model_version")
+    private String modelVersion;
+
+    // Analyzer output serialized as JSON
+    @Column(name = "result", columnDefinition = "TEXT")
+    private String result;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
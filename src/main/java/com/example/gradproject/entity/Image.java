@@ -2,6 +2,8 @@ package com.example.gradproject.entity;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import jakarta.persistence.*;
@@ -11,18 +13,31 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "image")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "image")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Image {
 
+    // Pooled sequence (table-emulated on MySQL) instead of IDENTITY so Hibernate
+    // can assign ids up front and group INSERTs into JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_seq")
+    @SequenceGenerator(name = "image_seq", sequenceName = "image_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "url", columnDefinition = "TEXT", nullable = false)
     private String url;
 
+    // True once the thumbnail/preview derivatives exist in S3
+    @Column(name = "derivatives_ready")
+    private Boolean derivativesReady;
+
+    // 64-bit dHash of the decoded image, for near-duplicate lookup
+    @Column(name = "phash")
+    private Long perceptualHash;
+
     @CreationTimestamp
     @Column(name = "uploaded_at", nullable = false, updatable = false)
     private LocalDateTime uploadedAt;
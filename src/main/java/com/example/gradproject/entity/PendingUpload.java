@@ -0,0 +1,60 @@
+package com.example.gradproject.entity;
+
+import com.example.gradproject.enums.PendingUploadStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An S3 key handed to a user for upload that is not registered yet.
+ * ISSUED when the key is generated, CONFIRMED when the client reports the
+ * upload, INGESTING while a worker holds it. The row is deleted once the
+ * upload is registered (or rejected), so confirmed uploads survive restarts.
+ */
+@Entity
+@Table(name = "pending_upload", indexes = {
+        @Index(name = "idx_pending_upload_status", columnList = "status"),
+        @Index(name = "idx_pending_upload_claim", columnList = "claim_token")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class PendingUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_upload_seq")
+    @SequenceGenerator(name = "pending_upload_seq", sequenceName = "pending_upload_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "s3_key", nullable = false, unique = true)
+    private String s3Key;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "original_filename")
+    private String originalFilename;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private PendingUploadStatus status;
+
+    // Set by the worker batch that claimed the row
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "confirmed_at")
+    private LocalDateTime confirmedAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+}
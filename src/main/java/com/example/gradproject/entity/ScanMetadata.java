@@ -0,0 +1,69 @@
+package com.example.gradproject.entity;
+
+import com.example.gradproject.enums.ScanFormat;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Header fields of a DICOM or NIfTI upload, one row per UserImage
+ * (shares its id).
+ */
+@Entity
+@Table(name = "scan_metadata", indexes = {
+        @Index(name = "idx_scan_metadata_modality", columnList = "modality"),
+        @Index(name = "idx_scan_metadata_acquired", columnList = "acquisition_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ScanMetadata {
+
+    @Id
+    private Long id;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_image_id")
+    private UserImage userImage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false)
+    private ScanFormat format;
+
+    @Column(name = "modality", length = 16)
+    private String modality;  // DICOM (0008,0060), e.g. "MR", "CT"
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "depth")
+    private Integer depth;  // frames / slices
+
+    @Column(name = "bits_allocated")
+    private Integer bitsAllocated;
+
+    @Column(name = "acquisition_date")
+    private LocalDate acquisitionDate;
+
+    @Column(name = "body_part", length = 64)
+    private String bodyPart;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "header_bytes_read")
+    private Long headerBytesRead;  // bytes fetched from S3 to extract this row
+
+    @CreationTimestamp
+    @Column(name = "extracted_at", updatable = false)
+    private LocalDateTime extractedAt;
+}
@@ -5,7 +5,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,13 +17,18 @@ import java.util.List;
 
 @Entity
 @Table(name = "user")
+// Second-level cached (see HibernateCacheConfig); email lookups go through the natural-id cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-email")
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     private Integer id;
 
@@ -30,6 +39,7 @@ public class User {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
+    @NaturalId
     @Column(name = "email", nullable = false, unique = true)
     private String email;
 
@@ -46,6 +56,7 @@ public class User {
     private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-images")
     private List<Image> images = new ArrayList<>();
 
     @Enumerated(EnumType.STRING)
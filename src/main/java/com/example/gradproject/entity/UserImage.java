@@ -1,17 +1,31 @@
 package com.example.gradproject.entity;
 
+import com.example.gradproject.enums.DeidentificationStatus;
+
 import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_images", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "s3_key"}))
+@Table(name = "user_images", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "s3_key"}),
+        indexes = {
+                @Index(name = "idx_user_images_sha256", columnList = "content_sha256"),
+                @Index(name = "idx_user_images_upload_sha256", columnList = "user_id, upload_sha256"),
+                @Index(name = "idx_user_images_deidentify_status", columnList = "deidentify_status")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
 public class UserImage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_image_seq")
+    @SequenceGenerator(name = "user_image_seq", sequenceName = "user_image_seq", allocationSize = 50)
     private Long id;  // ✅ Separate primary key
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -29,5 +43,27 @@ public class UserImage {
 
     @Column(name = "file_size")
     private Long fileSize;
+
+    @Column(name = "content_sha256", length = 64)
+    private String contentHash;  // hex SHA-256 of the stored object bytes, filled in at ingest
+
+    @Column(name = "upload_sha256", length = 64)
+    private String uploadHash;  // hex SHA-256 of the bytes as uploaded, before de-identification
+
+    @Column(name = "ref_count")
+    private Integer refCount;  // Image rows pointing at this object; null on legacy rows means 1
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "deidentify_status", nullable = false)
+    private DeidentificationStatus deidentifyStatus = DeidentificationStatus.PENDING;  // object is served once DONE
+
+    @Column(name = "deidentify_attempts", nullable = false)
+    private int deidentifyAttempts;
+
+    @Column(name = "deidentify_claim_token", length = 36)
+    private String deidentifyClaimToken;
+
+    @Column(name = "deidentify_claimed_at")
+    private LocalDateTime deidentifyClaimedAt;
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.example.gradproject.enums;
+
+public enum AnalysisStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
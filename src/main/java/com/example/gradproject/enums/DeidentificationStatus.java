@@ -0,0 +1,8 @@
+package com.example.gradproject.enums;
+
+public enum DeidentificationStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
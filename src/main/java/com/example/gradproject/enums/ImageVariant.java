@@ -0,0 +1,38 @@
+package com.example.gradproject.enums;
+
+/**
+ * Sizes served by the photo listing endpoints. Derived variants are JPEGs
+ * stored next to the original under "previews/{size}/".
+ */
+public enum ImageVariant {
+    THUMBNAIL(256),
+    PREVIEW(1024),
+    ORIGINAL(0);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isDerived() {
+        return maxDimension > 0;
+    }
+
+    /**
+     * S3 key of this variant for the given original key.
+     * e.g. images/abc.png → previews/256/images/abc.jpg
+     */
+    public String keyFor(String originalKey) {
+        if (!isDerived()) {
+            return originalKey;
+        }
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > originalKey.lastIndexOf('/') ? originalKey.substring(0, dot) : originalKey;
+        return "previews/" + maxDimension + "/" + base + ".jpg";
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.gradproject.enums;
+
+public enum PendingUploadStatus {
+    ISSUED,
+    CONFIRMED,
+    INGESTING
+}
@@ -0,0 +1,6 @@
+package com.example.gradproject.enums;
+
+public enum ScanFormat {
+    DICOM,
+    NIFTI
+}
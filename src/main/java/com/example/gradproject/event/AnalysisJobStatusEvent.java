@@ -0,0 +1,14 @@
+package com.example.gradproject.event;
+
+import com.example.gradproject.enums.AnalysisStatus;
+
+/**
+ * Published whenever an analysis job changes state. Outcomes are only
+ * published after the new state has been saved.
+ */
+public record AnalysisJobStatusEvent(
+        Integer userId,
+        Long jobId,
+        String s3Key,
+        AnalysisStatus status) {
+}
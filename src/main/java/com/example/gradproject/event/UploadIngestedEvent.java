@@ -0,0 +1,16 @@
+package com.example.gradproject.event;
+
+/**
+ * Published once an uploaded object has been verified in S3 and its
+ * Image/UserImage rows are committed. The object may not be de-identified
+ * yet; stages that read it wait for UploadReadyEvent.
+ */
+public record UploadIngestedEvent(
+        Integer userId,
+        String userEmail,
+        Long imageId,
+        Long userImageId,
+        String s3Key,
+        String contentType,
+        Long fileSize) {
+}
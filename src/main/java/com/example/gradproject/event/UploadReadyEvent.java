@@ -0,0 +1,14 @@
+package com.example.gradproject.event;
+
+/**
+ * Published once an ingested object may be served: it has been
+ * de-identified, or is of a kind that is stored as uploaded. Stages that
+ * read the object's bytes listen for this rather than UploadIngestedEvent.
+ */
+public record UploadReadyEvent(
+        Integer userId,
+        Long userImageId,
+        String s3Key,
+        String contentType,
+        Long fileSize) {
+}
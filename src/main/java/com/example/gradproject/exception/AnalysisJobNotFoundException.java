@@ -0,0 +1,8 @@
+package com.example.gradproject.exception;
+
+public class AnalysisJobNotFoundException extends RuntimeException {
+
+    public AnalysisJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -62,6 +63,73 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
+        @ExceptionHandler(AnalysisJobNotFoundException.class)
+        public ResponseEntity<ErrorResponse> handleAnalysisJobNotFoundException(
+                        AnalysisJobNotFoundException ex, WebRequest request) {
+                logger.warn("Analysis job not found: {}", ex.getMessage());
+
+                ErrorResponse errorResponse = ErrorResponse.builder()
+                                .timestamp(LocalDateTime.now())
+                                .status(HttpStatus.NOT_FOUND.value())
+                                .error("Analysis Job Not Found")
+                                .message(ex.getMessage())
+                                .path(request.getDescription(false).replace("uri=", ""))
+                                .build();
+
+                return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        }
+
+        @ExceptionHandler(IngestQueueFullException.class)
+        public ResponseEntity<ErrorResponse> handleIngestQueueFullException(
+                        IngestQueueFullException ex, WebRequest request) {
+                logger.warn("Ingest queue full: {}", ex.getMessage());
+
+                ErrorResponse errorResponse = ErrorResponse.builder()
+                                .timestamp(LocalDateTime.now())
+                                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                                .error("Service Busy")
+                                .message(ex.getMessage())
+                                .path(request.getDescription(false).replace("uri=", ""))
+                                .build();
+
+                return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        @ExceptionHandler(TooManyStreamsException.class)
+        public ResponseEntity<ErrorResponse> handleTooManyStreamsException(
+                        TooManyStreamsException ex, WebRequest request) {
+                logger.warn("Event stream limit reached: {}", ex.getMessage());
+
+                ErrorResponse errorResponse = ErrorResponse.builder()
+                                .timestamp(LocalDateTime.now())
+                                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                                .error("Too Many Streams")
+                                .message(ex.getMessage())
+                                .path(request.getDescription(false).replace("uri=", ""))
+                                .build();
+
+                // The client asked for text/event-stream; a preset content type skips negotiation
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(errorResponse);
+        }
+
+        @ExceptionHandler(UploadNotReadyException.class)
+        public ResponseEntity<ErrorResponse> handleUploadNotReadyException(
+                        UploadNotReadyException ex, WebRequest request) {
+                logger.debug("Upload not ready: {}", ex.getMessage());
+
+                ErrorResponse errorResponse = ErrorResponse.builder()
+                                .timestamp(LocalDateTime.now())
+                                .status(HttpStatus.CONFLICT.value())
+                                .error("Upload Not Ready")
+                                .message(ex.getMessage())
+                                .path(request.getDescription(false).replace("uri=", ""))
+                                .build();
+
+                return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        }
+
         @ExceptionHandler(MethodArgumentNotValidException.class)
         public ResponseEntity<ErrorResponse> handleValidationExceptions(
                         MethodArgumentNotValidException ex, WebRequest request) {
@@ -0,0 +1,8 @@
+package com.example.gradproject.exception;
+
+public class UploadNotReadyException extends RuntimeException {
+
+    public UploadNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.gradproject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One cache read: the Spring caches backed by Redis (presignedUrls) and the
+ * two-tier analysis result cache.
+ */
+@Name("com.example.gradproject.CacheLookup")
+@Label("Cache Lookup")
+@Category({ "GradProject", "Cache" })
+@Description("Cache read with hit or miss")
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("Tier")
+    @Description("Where the value was found or last looked up: local or redis")
+    public String tier;
+}
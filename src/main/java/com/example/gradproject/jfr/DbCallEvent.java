@@ -0,0 +1,32 @@
+package com.example.gradproject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One JDBC statement execution, from the datasource proxy. The SQL is the
+ * prepared text; bound parameter values are never recorded. Keeps the stack
+ * trace so a slow statement can be traced back to its repository call.
+ */
+@Name("com.example.gradproject.DbCall")
+@Label("DB Call")
+@Category({ "GradProject", "Database" })
+@Description("JDBC statement execution")
+public class DbCallEvent extends Event {
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Statement Type")
+    @Description("STATEMENT, PREPARED or CALLABLE")
+    public String statementType;
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,211 @@
+package com.example.gradproject.jfr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * On-demand Flight Recorder recordings on the management port
+ * (ADMIN only, see SecurityConfig):
+ * <ul>
+ * <li>POST /actuator/jfr {"durationSeconds": 60, "settings": "profile"}
+ * starts a recording that stops itself after the duration</li>
+ * <li>GET /actuator/jfr lists them</li>
+ * <li>GET /actuator/jfr/{id} streams the .jfr recorded so far</li>
+ * <li>DELETE /actuator/jfr/{id} stops it and discards its data</li>
+ * </ul>
+ * Finished recordings are discarded {@code jfr.retention-minutes} after
+ * they stop, and at most {@code jfr.max-kept} are held: starting a new one
+ * discards the oldest finished recording beyond that.
+ * "default" settings cost about 1% CPU, "profile" about 2% and add
+ * allocation and method sampling. Our own events are in the GradProject
+ * category of JMC's event browser.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrEndpoint.class);
+
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+
+    @Value("${jfr.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${jfr.max-running:1}")
+    private int maxRunning;
+
+    @Value("${jfr.max-kept:5}")
+    private int maxKept;
+
+    @Value("${jfr.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @ReadOperation
+    public List<RecordingInfo> recordings() {
+        return recordings.values().stream().map(RecordingInfo::of).toList();
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Object> start(@Nullable Long durationSeconds, @Nullable String settings) {
+        long running = recordings.values().stream()
+                .filter(recording -> recording.getState() == RecordingState.RUNNING)
+                .count();
+        if (running >= maxRunning) {
+            return new WebEndpointResponse<>(Map.of("error", "Already " + running + " recording(s) running"),
+                    WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        long seconds = durationSeconds == null ? 60 : durationSeconds;
+        if (seconds < 1 || seconds > maxDurationSeconds) {
+            return new WebEndpointResponse<>(Map.of("error", "durationSeconds must be 1-" + maxDurationSeconds),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        // Make room for the new one by discarding the oldest finished recordings
+        recordings.values().stream()
+                .filter(recording -> recording.getState() != RecordingState.RUNNING)
+                .sorted(Comparator.comparing(JfrEndpoint::finishedAt))
+                .limit(Math.max(0, recordings.size() + 1 - maxKept))
+                .toList()
+                .forEach(recording -> discard(recording, "over jfr.max-kept"));
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings == null ? "default" : settings);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown settings: " + settings),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        Recording recording = new Recording(configuration);
+        recording.setName("gradproject-" + configuration.getName());
+        recording.setToDisk(true);
+        recording.setDuration(Duration.ofSeconds(seconds));
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        logger.info("Started JFR recording {} ({}s, {} settings)", recording.getId(), seconds,
+                configuration.getName());
+        return new WebEndpointResponse<>(RecordingInfo.of(recording));
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            // The temp file is removed once the response has been written
+            Path file = Files.createTempFile("recording-" + id + "-", ".jfr");
+            recording.dump(file);
+            return new WebEndpointResponse<>(new TemporaryFileResource(file));
+        } catch (IOException e) {
+            throw new RuntimeException("Error dumping JFR recording: " + e.getMessage(), e);
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<RecordingInfo> stop(@Selector long id) {
+        Recording recording = recordings.remove(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        RecordingInfo info = RecordingInfo.of(recording);
+        recording.close();
+        logger.info("Closed JFR recording {}", id);
+        return new WebEndpointResponse<>(info);
+    }
+
+    @Scheduled(fixedDelayString = "${jfr.retention-sweep-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void discardExpired() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        recordings.values().stream()
+                .filter(recording -> recording.getState() != RecordingState.RUNNING
+                        && finishedAt(recording).isBefore(cutoff))
+                .toList()
+                .forEach(recording -> discard(recording, "retention expired"));
+    }
+
+    private void discard(Recording recording, String reason) {
+        if (recordings.remove(recording.getId(), recording)) {
+            recording.close();
+            logger.info("Discarded JFR recording {} ({})", recording.getId(), reason);
+        }
+    }
+
+    // Recordings that never started have no stop time
+    private static Instant finishedAt(Recording recording) {
+        Instant stopTime = recording.getStopTime();
+        return stopTime != null ? stopTime : Instant.EPOCH;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+
+    public record RecordingInfo(long id, String name, String state, Instant startTime, Duration duration,
+            long size) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+                    recording.getStartTime(), recording.getDuration(), recording.getSize());
+        }
+    }
+
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Path file = getFile().toPath();
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.gradproject.jfr;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Emits a DbCallEvent per statement. Picked up by the datasource proxy that
+ * datasource-micrometer wraps around Hikari; before and after run on the
+ * calling thread, so the event's duration is the statement's.
+ */
+@Component
+public class JfrQueryExecutionListener implements QueryExecutionListener {
+
+    private static final String EVENT = DbCallEvent.class.getName();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        DbCallEvent event = new DbCallEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            execInfo.addCustomValue(EVENT, event);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        DbCallEvent event = execInfo.getCustomValue(EVENT, DbCallEvent.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery();
+            event.statementType = execInfo.getStatementType() == null ? null : execInfo.getStatementType().name();
+            event.batchSize = execInfo.getBatchSize();
+            event.success = execInfo.isSuccess();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.gradproject.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * Emits a CacheLookupEvent for every synchronous read of a Redis-backed
+ * Spring cache (@Cacheable). Wraps the writer rather than the Cache so
+ * RedisCache, and with it the cache.gets meter, stays as Boot binds it.
+ */
+public class JfrRedisCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+
+    public JfrRedisCacheWriter(RedisCacheWriter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        byte[] value = delegate.get(name, key);
+        commit(event, name, key, value != null);
+        return value;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        byte[] value = delegate.get(name, key, ttl);
+        commit(event, name, key, value != null);
+        return value;
+    }
+
+    // @Cacheable(sync = true): a miss is the value loader being called
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueSupplier, Duration ttl, boolean timeToIdleEnabled) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        boolean[] loaded = new boolean[1];
+        event.begin();
+        byte[] value = delegate.get(name, key, () -> {
+            loaded[0] = true;
+            return valueSupplier.get();
+        }, ttl, timeToIdleEnabled);
+        commit(event, name, key, !loaded[0]);
+        return value;
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key) {
+        return delegate.retrieve(name, key);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new JfrRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector));
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    private static void commit(CacheLookupEvent event, String name, byte[] key, boolean hit) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = name;
+            event.key = new String(key, StandardCharsets.UTF_8);
+            event.hit = hit;
+            event.tier = "redis";
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.gradproject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One bearer token check in JwtAuthenticationFilter, including the blacklist
+ * lookup and the user load.
+ */
+@Name("com.example.gradproject.JwtVerification")
+@Label("JWT Verification")
+@Category({ "GradProject", "Auth" })
+@Description("Bearer token verification, including blacklist lookup and user load")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Outcome")
+    @Description("authenticated, rejected, skipped or blacklisted")
+    public String outcome;
+}
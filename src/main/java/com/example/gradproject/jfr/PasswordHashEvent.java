@@ -0,0 +1,26 @@
+package com.example.gradproject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One BCrypt encode or match in TimedPasswordEncoder.
+ */
+@Name("com.example.gradproject.PasswordHash")
+@Label("Password Hash")
+@Category({ "GradProject", "Auth" })
+@Description("BCrypt encode or match")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    @Description("encode or matches")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
@@ -0,0 +1,27 @@
+package com.example.gradproject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One S3 URL signature computed by S3ServiceImpl. Cached GET URLs do not
+ * reach the presigner; those show up as CacheLookup events instead.
+ */
+@Name("com.example.gradproject.Presign")
+@Label("S3 Presign")
+@Category({ "GradProject", "S3" })
+@Description("Presigned S3 URL generation")
+@StackTrace(false)
+public class PresignEvent extends Event {
+
+    @Label("Key")
+    public String key;
+
+    @Label("Method")
+    @Description("HTTP method the URL is signed for")
+    public String method;
+}
@@ -0,0 +1,23 @@
+package com.example.gradproject.service;
+
+import java.util.List;
+
+import com.example.gradproject.DTO.AnalysisJobResponse;
+import com.example.gradproject.entity.User;
+
+public interface AnalysisJobService {
+
+    /**
+     * Persists a QUEUED analysis job for one of the user's scans and hands it
+     * to the worker pool. Never waits for the analysis itself.
+     *
+     * @param s3Key the scan's S3 key
+     * @param user  the owner of the scan
+     * @return the created job
+     */
+    AnalysisJobResponse submit(String s3Key, User user);
+
+    AnalysisJobResponse getJob(Long jobId, User user);
+
+    List<AnalysisJobResponse> getJobs(User user, int limit);
+}
@@ -0,0 +1,20 @@
+package com.example.gradproject.service;
+
+import java.util.Optional;
+
+/**
+ * Analysis results keyed by scan content and model version. Identical bytes
+ * analyzed by the same model reuse the stored result; a new model version
+ * never sees results from an older one.
+ */
+public interface AnalysisResultCache {
+
+    /**
+     * @param contentHash  hex SHA-256 of the scan bytes
+     * @param modelVersion version of the model that would produce the result
+     * @return the cached result JSON, if present
+     */
+    Optional<String> get(String contentHash, String modelVersion);
+
+    void put(String contentHash, String modelVersion, String resultJson);
+}
@@ -0,0 +1,23 @@
+package com.example.gradproject.service;
+
+import java.util.Optional;
+
+public interface ContentHashService {
+
+    /**
+     * @return the stored hex SHA-256 of an ingested object, if computed yet
+     */
+    Optional<String> getContentHash(String s3Key);
+
+    /**
+     * Records a hash computed elsewhere (e.g. while an analysis worker was
+     * streaming the object anyway). Existing hashes are left untouched.
+     */
+    void recordContentHash(String s3Key, String contentHash);
+
+    /**
+     * Queues an ingested object that is kept as uploaded for hashing. The
+     * digest is stored as both the upload hash and the content hash.
+     */
+    void hashAsUploaded(String s3Key);
+}
@@ -0,0 +1,12 @@
+package com.example.gradproject.service;
+
+public interface DeidentificationService {
+
+    /**
+     * Whether the de-identification stage takes ingested objects of this
+     * type. Such objects are not served until the stage has run; it rewrites
+     * them in place if it recognises the format. Objects of other types are
+     * stored as uploaded and handed to ContentHashService instead.
+     */
+    boolean rewrites(String contentType, String s3Key);
+}
@@ -0,0 +1,21 @@
+package com.example.gradproject.service;
+
+public interface ImageDerivativeService {
+
+    /**
+     * Schedules thumbnail/preview generation for an uploaded object.
+     * Returns false if the object is not a supported image or the worker
+     * pool is saturated.
+     *
+     * @param s3Key       the original object key
+     * @param contentType the object's content type
+     */
+    boolean submit(String s3Key, String contentType);
+
+    /**
+     * Deletes all derived variants of an object (best effort).
+     *
+     * @param s3Key the original object key
+     */
+    void deleteDerivatives(String s3Key);
+}
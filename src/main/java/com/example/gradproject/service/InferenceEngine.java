@@ -0,0 +1,20 @@
+package com.example.gradproject.service;
+
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface InferenceEngine {
+
+    /**
+     * Queues one preprocessed scan for the next model batch. Blocks while
+     * the engine queue is full, which pushes back on the callers.
+     *
+     * @param input the scan's pooled model input tensor; ownership passes to
+     *              the engine, which returns it to the TensorPool
+     * @return future completed when the batch containing this input finishes
+     */
+    CompletableFuture<Map<String, Object>> submit(FloatBuffer input) throws InterruptedException;
+
+    String getModelVersion();
+}
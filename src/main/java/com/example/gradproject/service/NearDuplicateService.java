@@ -0,0 +1,34 @@
+package com.example.gradproject.service;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+
+import com.example.gradproject.entity.Image;
+import com.example.gradproject.entity.User;
+
+public interface NearDuplicateService {
+
+    /**
+     * Computes the perceptual hash of a decoded image, stores it on every
+     * Image row of the object and adds those rows to the index.
+     */
+    void record(String s3Key, BufferedImage decoded);
+
+    /**
+     * Adds a single Image row whose hash is already known (e.g. a linked
+     * duplicate upload). No-op if the row has no hash.
+     */
+    void index(Image image);
+
+    void remove(Long imageId);
+
+    /**
+     * Finds the user's other images within {@code maxDistance} bits of the
+     * given object's perceptual hash.
+     *
+     * @return one map per match with imageId, key and distance; empty if the
+     *         object has not been hashed yet
+     */
+    List<Map<String, Object>> findNearDuplicates(String s3Key, User user, int maxDistance);
+}
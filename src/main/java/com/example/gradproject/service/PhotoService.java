@@ -1,17 +1,35 @@
 package com.example.gradproject.service;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import com.example.gradproject.entity.User;
+import com.example.gradproject.enums.ImageVariant;
 
 public interface PhotoService {
 
-    Map<String, Object> getUserPhotos(User user, Duration urlDuration);
+    Map<String, Object> getUserPhotos(User user, Duration urlDuration, ImageVariant variant);
 
     Map<String, String> viewPhoto(String key, Duration duration);
 
-    Map<String, String> deletePhoto(String fileUrl);
+    /**
+     * Removes one of the user's references to an object. The S3 object and
+     * its derivatives are deleted only when no reference is left.
+     */
+    Map<String, String> deletePhoto(String fileUrl, User user);
 
-    Map<String, String> confirmUpload(String s3Key, User user);
+    /**
+     * Links a new Image to an object the user already uploaded with the same
+     * content, instead of uploading the bytes again.
+     *
+     * @param sha256 hex SHA-256 declared by the client
+     * @return the existing object's key, or empty if there is no match
+     */
+    Optional<String> linkExistingUpload(String sha256, User user);
+
+    Map<String, String> confirmUpload(String s3Key, String originalFilename, User user);
+
+    Map<String, Object> confirmUploads(List<String> s3Keys, User user);
 }
@@ -0,0 +1,32 @@
+package com.example.gradproject.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.gradproject.DTO.ProgressEvent;
+
+public interface ProgressEventService {
+
+    /**
+     * Opens an event stream for the user on this node. The emitter is
+     * completed by the server after the configured timeout, when the access
+     * token that opened it expires, or soon after that token is revoked;
+     * clients are expected to reconnect.
+     *
+     * @param accessToken the bearer token the stream was opened with
+     * @throws com.example.gradproject.exception.TooManyStreamsException if
+     *                                                                   the user has
+     *                                                                   too many streams
+     *                                                                   open
+     */
+    SseEmitter subscribe(Integer userId, String accessToken);
+
+    /**
+     * Delivers the event to every open stream of its user, on any node.
+     */
+    void publish(ProgressEvent event);
+
+    /**
+     * @return number of streams currently open on this node
+     */
+    int getConnectionCount();
+}
@@ -1,6 +1,14 @@
 package com.example.gradproject.service;
 
+import java.io.InputStream;
 import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 
 public interface S3Service {
 
@@ -13,4 +21,44 @@ public interface S3Service {
     String generatePresignedPutUrl(String key, String contentType, Duration duration);
 
     String generateS3Key(String fileName, String folder);
+
+    Optional<HeadObjectResponse> headObject(String key);
+
+    InputStream openObject(String key);
+
+    /**
+     * Streaming GET with the client's Range and If-None-Match passed through
+     * to S3. A matching ETag surfaces as an S3Exception with status 304, an
+     * unsatisfiable range as 416.
+     *
+     * @param range       single HTTP byte range, or null for the whole object
+     * @param ifNoneMatch ETag from the client's cache, or null
+     */
+    ResponseInputStream<GetObjectResponse> getObject(String key, String range, String ifNoneMatch);
+
+    /**
+     * Reads {@code length} bytes starting at {@code offset} with one ranged
+     * GET; fewer bytes come back at the end of the object.
+     */
+    byte[] readRange(String key, long offset, int length);
+
+    void putObject(String key, byte[] content, String contentType);
+
+    void putObject(String key, byte[] content, int length, String contentType);
+
+    /**
+     * @return the upload id for the part calls below
+     */
+    String createMultipartUpload(String key, String contentType);
+
+    /**
+     * Uploads the first {@code length} bytes of {@code content} as part
+     * {@code partNumber} (1-based); every part but the last must be at least
+     * 5 MiB.
+     */
+    CompletedPart uploadPart(String key, String uploadId, int partNumber, byte[] content, int length);
+
+    void completeMultipartUpload(String key, String uploadId, List<CompletedPart> parts);
+
+    void abortMultipartUpload(String key, String uploadId);
 }
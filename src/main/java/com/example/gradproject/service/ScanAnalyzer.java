@@ -0,0 +1,28 @@
+package com.example.gradproject.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entry point analysis workers use to run the model on an uploaded scan.
+ * Implementations must be thread-safe; several workers call them at once.
+ */
+public interface ScanAnalyzer {
+
+    /**
+     * @return identifier of the model (and weights) producing the results
+     */
+    String getModelVersion();
+
+    /**
+     * Reads and preprocesses the scan on the calling thread, then schedules
+     * inference. The calling worker is free once this returns.
+     *
+     * @param scan raw object bytes, streamed from S3; closed by the caller
+     * @return future completed with a JSON-serializable analysis result
+     * @throws IOException if the scan cannot be read or decoded
+     */
+    CompletableFuture<Map<String, Object>> analyze(InputStream scan) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.example.gradproject.service;
+
+import java.util.Map;
+import java.util.Optional;
+
+import com.example.gradproject.entity.User;
+
+public interface ScanMetadataService {
+
+    /**
+     * Queues header extraction for an ingested object.
+     *
+     * @return false if the object is not a scan candidate or the pool is full
+     */
+    boolean submit(Long userImageId, String s3Key, String contentType, Long fileSize);
+
+    /**
+     * @return the extracted header fields of one of the user's scans
+     */
+    Optional<Map<String, Object>> getMetadata(String s3Key, User user);
+}
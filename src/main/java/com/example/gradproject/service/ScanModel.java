@@ -0,0 +1,21 @@
+package com.example.gradproject.service;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model that scores a batch of preprocessed scans in a single invocation.
+ */
+public interface ScanModel {
+
+    String getModelVersion();
+
+    /**
+     * @param inputs one normalized off-heap tensor per scan, each holding
+     *               {@code inputSize * inputSize} floats; read-only for the
+     *               model and only valid for the duration of the call
+     * @return one result per input, in the same order
+     */
+    List<Map<String, Object>> predictBatch(List<FloatBuffer> inputs);
+}
@@ -0,0 +1,20 @@
+package com.example.gradproject.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.FloatBuffer;
+
+public interface ScanPreprocessor {
+
+    /**
+     * Decodes a scan and writes the model's input tensor: a square grayscale
+     * image of {@code analysis.input-size} pixels per side, normalized and
+     * laid out row-major.
+     * The returned buffer comes from the shared TensorPool; whoever ends up
+     * holding it (normally the InferenceEngine) must release it.
+     *
+     * @param scan raw object bytes; closed by the caller
+     * @throws IOException if the scan format is unsupported
+     */
+    FloatBuffer preprocess(InputStream scan) throws IOException;
+}
@@ -0,0 +1,31 @@
+package com.example.gradproject.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface StreamingUploadService {
+
+    /**
+     * Copies a raw request body to a new S3 object while it is being read.
+     * The caller registers the returned key like any other upload.
+     *
+     * @param body        the request body, read to the end
+     * @param fileName    client-side file name, used for the key extension
+     * @param contentType stored as the object's content type
+     * @return the S3 key of the new object
+     * @throws com.example.gradproject.exception.IngestQueueFullException if
+     *                                                                   too many
+     *                                                                   uploads are
+     *                                                                   running
+     */
+    String upload(InputStream body, String fileName, String contentType) throws IOException;
+
+    /**
+     * Overwrites an existing object with a stream, using the same bounded
+     * part buffers. Not limited by the request upload slots or max size;
+     * background callers bound their own concurrency.
+     *
+     * @return the number of bytes written
+     */
+    long replace(String key, InputStream body, String contentType) throws IOException;
+}
@@ -0,0 +1,48 @@
+package com.example.gradproject.service;
+
+import java.util.List;
+
+import com.example.gradproject.entity.User;
+
+public interface UploadIngestService {
+
+    /**
+     * Records that an S3 key was handed to the user for upload (presigned PUT
+     * or upload-stream). Only keys recorded here are accepted by
+     * {@link #enqueue}.
+     *
+     * @param s3Key            the generated S3 object key
+     * @param originalFilename the client-side file name, may be null
+     * @param user             the user the key was issued to
+     */
+    void issue(String s3Key, String originalFilename, User user);
+
+    /**
+     * Marks an uploaded S3 key for verification and registration.
+     * The pending row is durable, so the upload is registered even if this
+     * node stops before a worker gets to it; this returns immediately.
+     *
+     * @param s3Key            the S3 object key reported by the client
+     * @param originalFilename the client-side file name, may be null
+     * @param user             the owner of the upload
+     * @throws IllegalArgumentException if the key was not issued to the user
+     */
+    void enqueue(String s3Key, String originalFilename, User user);
+
+    /**
+     * Registers uploaded keys right away, for bulk imports. Applies the same
+     * checks as the queued path (issued to this user, present in S3, not
+     * registered yet) and inserts Image and UserImage rows in JDBC batches of
+     * {@code ingest.batch-size}, one transaction per batch.
+     *
+     * @return number of keys registered; keys that fail a check are skipped
+     * @throws IllegalArgumentException if there are more than
+     *                                  {@code ingest.max-batch-keys} keys
+     */
+    int ingestNow(List<String> s3Keys, User user);
+
+    /**
+     * @return number of uploads waiting for a worker on this node
+     */
+    int getQueueSize();
+}
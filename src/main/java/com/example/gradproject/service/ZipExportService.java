@@ -0,0 +1,31 @@
+package com.example.gradproject.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.example.gradproject.entity.User;
+
+public interface ZipExportService {
+
+    /**
+     * @param id the Image row id; entries are ordered by it and it prefixes
+     *           the entry name
+     */
+    record ExportEntry(long id, String key, String name) {
+    }
+
+    /**
+     * @return the user's files ordered by id
+     */
+    List<ExportEntry> listEntries(User user);
+
+    /**
+     * Writes a ZIP of the entries with an id greater than {@code afterId}
+     * to the stream, fetching objects from S3 as it goes. Resuming after the
+     * last complete entry's id neither skips nor repeats files, even if
+     * photos were added or deleted in between. Returns when the archive is
+     * complete or throws when the client goes away.
+     */
+    void writeZip(List<ExportEntry> entries, long afterId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,353 @@
+package com.example.gradproject.service.impl;
+
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.DTO.AnalysisJobResponse;
+import com.example.gradproject.Repository.AnalysisJobRepository;
+import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.Repository.UserImageRepository;
+import com.example.gradproject.Repository.UserRepo;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.entity.AnalysisJob;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.enums.AnalysisStatus;
+import com.example.gradproject.enums.DeidentificationStatus;
+import com.example.gradproject.event.AnalysisJobStatusEvent;
+import com.example.gradproject.exception.AnalysisJobNotFoundException;
+import com.example.gradproject.exception.UploadNotReadyException;
+import com.example.gradproject.service.AnalysisJobService;
+import com.example.gradproject.service.AnalysisResultCache;
+import com.example.gradproject.service.ContentHashService;
+import com.example.gradproject.service.NearDuplicateService;
+import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.ScanAnalyzer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs analysis jobs on a bounded worker pool.
+ * The analysis_job table is the durable queue: submission only inserts a
+ * QUEUED row and offers its id to the pool. If the pool is full the job
+ * simply waits in the table and the scheduled poller dispatches it once
+ * workers free up, so request threads never block on inference.
+ * Workers only download and preprocess; inference itself runs batched in the
+ * InferenceEngine and results are persisted on a completion thread.
+ * Results are cached by scan SHA-256 and model version, so a scan that was
+ * analyzed before (by any user) completes at submission without a worker.
+ */
+@Service
+public class AnalysisJobServiceImpl implements AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobServiceImpl.class);
+
+    private static final TypeReference<Map<String, Object>> RESULT_TYPE = new TypeReference<>() {
+    };
+
+    private final AnalysisJobRepository analysisJobRepository;
+    private final PhotoRepository photoRepository;
+    private final UserImageRepository userImageRepository;
+    private final UserRepo userRepo;
+    private final S3Service s3Service;
+    private final ScanAnalyzer scanAnalyzer;
+    private final ContentHashService contentHashService;
+    private final AnalysisResultCache analysisResultCache;
+    private final NearDuplicateService nearDuplicateService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${analysis.worker-count:2}")
+    private int workerCount;
+
+    @Value("${analysis.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${analysis.stale-after-minutes:30}")
+    private long staleAfterMinutes;
+
+    @Value("${analysis.near-duplicate-distance:6}")
+    private int nearDuplicateDistance;
+
+    private ThreadPoolExecutor executor;
+
+    // Persists results off the inference dispatcher thread
+    private ExecutorService completionExecutor;
+
+    public AnalysisJobServiceImpl(AnalysisJobRepository analysisJobRepository, PhotoRepository photoRepository,
+            UserImageRepository userImageRepository, UserRepo userRepo, S3Service s3Service, ScanAnalyzer scanAnalyzer,
+            ContentHashService contentHashService, AnalysisResultCache analysisResultCache,
+            NearDuplicateService nearDuplicateService,
+            ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.analysisJobRepository = analysisJobRepository;
+        this.photoRepository = photoRepository;
+        this.userImageRepository = userImageRepository;
+        this.userRepo = userRepo;
+        this.s3Service = s3Service;
+        this.scanAnalyzer = scanAnalyzer;
+        this.contentHashService = contentHashService;
+        this.analysisResultCache = analysisResultCache;
+        this.nearDuplicateService = nearDuplicateService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        completionExecutor = Executors.newSingleThreadExecutor();
+        logger.info("Analysis pool started with {} workers ({}), queue capacity {}",
+                workerCount, scanAnalyzer.getModelVersion(), queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING and are requeued by the stale-job sweep
+        executor.shutdownNow();
+        completionExecutor.shutdown();
+    }
+
+    @Override
+    public AnalysisJobResponse submit(String s3Key, User user) {
+        if (!photoRepository.existsByUrlAndUser_Id(s3Key, user.getId())) {
+            throw new IllegalArgumentException("No uploaded scan found for key: " + s3Key);
+        }
+        // Workers must only ever read the de-identified object
+        if (userImageRepository.existsByS3KeyAndDeidentifyStatusNot(s3Key, DeidentificationStatus.DONE)) {
+            throw new UploadNotReadyException("Scan is still being processed: " + s3Key);
+        }
+
+        String modelVersion = scanAnalyzer.getModelVersion();
+        String contentHash = contentHashService.getContentHash(s3Key).orElse(null);
+        Optional<String> cached = contentHash != null
+                ? analysisResultCache.get(contentHash, modelVersion)
+                : Optional.empty();
+
+        AnalysisJob job = new AnalysisJob();
+        job.setUser(userRepo.getReferenceById(user.getId()));
+        job.setS3Key(s3Key);
+        job.setContentHash(contentHash);
+        job.setModelVersion(modelVersion);
+        if (cached.isPresent()) {
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(AnalysisStatus.DONE);
+            job.setResult(cached.get());
+            job.setStartedAt(now);
+            job.setCompletedAt(now);
+            AnalysisJob saved = analysisJobRepository.save(job);
+            publishStatus(saved);
+            logger.info("Analysis job {} served from cache for user: {}, key: {}",
+                    saved.getId(), user.getEmail(), s3Key);
+            return toResponse(saved);
+        }
+
+        job.setStatus(AnalysisStatus.QUEUED);
+        AnalysisJob saved = analysisJobRepository.save(job);
+        publishStatus(saved);
+
+        dispatch(saved.getId());
+        logger.info("Analysis job {} queued for user: {}, key: {}", saved.getId(), user.getEmail(), s3Key);
+
+        // Flag near-duplicates so the client can reuse an earlier result instead of waiting
+        AnalysisJobResponse response = toResponse(saved);
+        List<Map<String, Object>> nearDuplicates = nearDuplicateService.findNearDuplicates(s3Key, user,
+                nearDuplicateDistance);
+        if (!nearDuplicates.isEmpty()) {
+            response.setNearDuplicates(nearDuplicates);
+        }
+        return response;
+    }
+
+    @Override
+    public AnalysisJobResponse getJob(Long jobId, User user) {
+        return analysisJobRepository.findByIdAndUser_Id(jobId, user.getId())
+                .map(this::toResponse)
+                .orElseThrow(() -> new AnalysisJobNotFoundException("Analysis job " + jobId + " not found"));
+    }
+
+    @Override
+    public List<AnalysisJobResponse> getJobs(User user, int limit) {
+        return analysisJobRepository.findByUser_IdOrderByCreatedAtDesc(user.getId(), PageRequest.of(0, limit))
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Dispatch jobs that were left QUEUED because the pool was full or the
+     * node restarted, and recover jobs stuck RUNNING on a dead worker.
+     */
+    @Scheduled(fixedDelayString = "${analysis.poll-interval-ms:5000}")
+    public void dispatchQueuedJobs() {
+        try {
+            int recovered = analysisJobRepository
+                    .requeueStale(LocalDateTime.now().minusMinutes(staleAfterMinutes));
+            if (recovered > 0) {
+                logger.warn("Requeued {} stale analysis jobs", recovered);
+            }
+
+            int capacity = executor.getQueue().remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+            for (Long jobId : analysisJobRepository.findIdsByStatus(AnalysisStatus.QUEUED,
+                    PageRequest.of(0, capacity))) {
+                if (!dispatch(jobId)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching queued analysis jobs: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean dispatch(Long jobId) {
+        try {
+            // From submit this carries the request's trace; from the poller there is none
+            executor.execute(ContextPropagation.wrap(() -> run(jobId)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.debug("Analysis pool full, job {} stays queued", jobId);
+            return false;
+        }
+    }
+
+    private void run(Long jobId) {
+        // The same id can be dispatched twice (submit + poller); only one claim wins
+        if (analysisJobRepository.claim(jobId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        AnalysisJob job = analysisJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        publishStatus(job);
+
+        String modelVersion = scanAnalyzer.getModelVersion();
+        if (job.getContentHash() == null) {
+            contentHashService.getContentHash(job.getS3Key()).ifPresent(job::setContentHash);
+        }
+        // Another job for the same bytes may have finished while this one was queued
+        if (job.getContentHash() != null) {
+            Optional<String> cached = analysisResultCache.get(job.getContentHash(), modelVersion);
+            if (cached.isPresent()) {
+                completeFromCache(job, cached.get(), modelVersion);
+                return;
+            }
+        }
+
+        CompletableFuture<Map<String, Object>> inference;
+        try (DigestInputStream scan = new DigestInputStream(s3Service.openObject(job.getS3Key()),
+                MessageDigest.getInstance("SHA-256"))) {
+            inference = scanAnalyzer.analyze(scan);
+            if (job.getContentHash() == null) {
+                // Ingest did not hash this object; finish reading it so the digest covers every byte
+                scan.transferTo(OutputStream.nullOutputStream());
+                String contentHash = HexFormat.of().formatHex(scan.getMessageDigest().digest());
+                job.setContentHash(contentHash);
+                contentHashService.recordContentHash(job.getS3Key(), contentHash);
+            }
+        } catch (Exception e) {
+            complete(job, null, e);
+            return;
+        }
+
+        // The worker is released here; the result is written once the batch finishes
+        inference.whenCompleteAsync((result, error) -> complete(job, result, error), completionExecutor);
+    }
+
+    private void complete(AnalysisJob job, Map<String, Object> result, Throwable error) {
+        try {
+            if (error == null) {
+                String resultJson = objectMapper.writeValueAsString(result);
+                job.setResult(resultJson);
+                job.setModelVersion(scanAnalyzer.getModelVersion());
+                job.setStatus(AnalysisStatus.DONE);
+                if (job.getContentHash() != null) {
+                    analysisResultCache.put(job.getContentHash(), job.getModelVersion(), resultJson);
+                }
+                logger.info("Analysis job {} done", job.getId());
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                logger.error("Analysis job {} failed", job.getId(), cause);
+                job.setStatus(AnalysisStatus.FAILED);
+                job.setErrorMessage(cause.getMessage() != null
+                        ? truncate(cause.getMessage())
+                        : cause.getClass().getSimpleName());
+            }
+            job.setCompletedAt(LocalDateTime.now());
+            analysisJobRepository.save(job);
+            publishStatus(job);
+        } catch (Exception e) {
+            logger.error("Could not store outcome of analysis job {}", job.getId(), e);
+        }
+    }
+
+    private void completeFromCache(AnalysisJob job, String resultJson, String modelVersion) {
+        job.setResult(resultJson);
+        job.setModelVersion(modelVersion);
+        job.setStatus(AnalysisStatus.DONE);
+        job.setCompletedAt(LocalDateTime.now());
+        analysisJobRepository.save(job);
+        publishStatus(job);
+        logger.info("Analysis job {} done from cache", job.getId());
+    }
+
+    private void publishStatus(AnalysisJob job) {
+        eventPublisher.publishEvent(new AnalysisJobStatusEvent(job.getUser().getId(), job.getId(),
+                job.getS3Key(), job.getStatus()));
+    }
+
+    private AnalysisJobResponse toResponse(AnalysisJob job) {
+        Map<String, Object> result = null;
+        if (job.getResult() != null) {
+            try {
+                result = objectMapper.readValue(job.getResult(), RESULT_TYPE);
+            } catch (Exception e) {
+                logger.warn("Unreadable result stored for analysis job {}", job.getId());
+            }
+        }
+        return AnalysisJobResponse.builder()
+                .jobId(job.getId())
+                .key(job.getS3Key())
+                .status(job.getStatus())
+                .modelVersion(job.getModelVersion())
+                .result(result)
+                .error(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private String truncate(String message) {
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
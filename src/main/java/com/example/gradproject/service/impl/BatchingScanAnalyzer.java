@@ -0,0 +1,49 @@
+package com.example.gradproject.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.service.InferenceEngine;
+import com.example.gradproject.service.ScanAnalyzer;
+import com.example.gradproject.service.ScanPreprocessor;
+
+/**
+ * Preprocesses on the calling worker and hands the tensor to the shared
+ * micro-batching inference engine.
+ */
+@Service
+public class BatchingScanAnalyzer implements ScanAnalyzer {
+
+    private final ScanPreprocessor scanPreprocessor;
+    private final InferenceEngine inferenceEngine;
+    private final TensorPool tensorPool;
+
+    public BatchingScanAnalyzer(ScanPreprocessor scanPreprocessor, InferenceEngine inferenceEngine,
+            TensorPool tensorPool) {
+        this.scanPreprocessor = scanPreprocessor;
+        this.inferenceEngine = inferenceEngine;
+        this.tensorPool = tensorPool;
+    }
+
+    @Override
+    public String getModelVersion() {
+        return inferenceEngine.getModelVersion();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> analyze(InputStream scan) throws IOException {
+        FloatBuffer input = scanPreprocessor.preprocess(scan);
+        try {
+            return inferenceEngine.submit(input);
+        } catch (InterruptedException e) {
+            tensorPool.release(input);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing scan for inference", e);
+        }
+    }
+}
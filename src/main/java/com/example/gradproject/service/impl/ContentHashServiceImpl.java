@@ -0,0 +1,96 @@
+package com.example.gradproject.service.impl;
+
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.Repository.UserImageRepository;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.service.ContentHashService;
+import com.example.gradproject.service.S3Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Streams objects that ingest keeps as uploaded once through SHA-256 and
+ * stores the digest on their UserImage row. The de-identification stage
+ * hands over every object it does not rewrite, and hashes the ones it does
+ * itself. If the pool is saturated the hash is skipped here; the content
+ * hash is then computed by the first analysis of the object, and the
+ * object is not offered for duplicate-upload linking.
+ */
+@Service
+public class ContentHashServiceImpl implements ContentHashService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentHashServiceImpl.class);
+
+    private final S3Service s3Service;
+    private final UserImageRepository userImageRepository;
+
+    @Value("${ingest.hash.worker-count:2}")
+    private int workerCount;
+
+    @Value("${ingest.hash.queue-capacity:500}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    public ContentHashServiceImpl(S3Service s3Service, UserImageRepository userImageRepository) {
+        this.s3Service = s3Service;
+        this.userImageRepository = userImageRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Optional<String> getContentHash(String s3Key) {
+        return userImageRepository.findContentHashByS3Key(s3Key);
+    }
+
+    @Override
+    public void recordContentHash(String s3Key, String contentHash) {
+        userImageRepository.setContentHash(s3Key, contentHash);
+    }
+
+    @Override
+    public void hashAsUploaded(String s3Key) {
+        try {
+            executor.execute(ContextPropagation.wrap(() -> hash(s3Key)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Hash pool saturated, deferring content hash for key: {}", s3Key);
+        }
+    }
+
+    private void hash(String s3Key) {
+        try (DigestInputStream in = new DigestInputStream(s3Service.openObject(s3Key),
+                MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            String hex = HexFormat.of().formatHex(in.getMessageDigest().digest());
+            userImageRepository.setHashes(s3Key, hex, hex);
+            logger.debug("Content hash for key {}: {}", s3Key, hex);
+        } catch (Exception e) {
+            logger.error("Error hashing key: {}", s3Key, e);
+        }
+    }
+}
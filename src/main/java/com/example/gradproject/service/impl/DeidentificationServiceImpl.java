@@ -0,0 +1,311 @@
+package com.example.gradproject.service.impl;
+
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.Repository.UserImageRepository;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.event.UploadIngestedEvent;
+import com.example.gradproject.event.UploadReadyEvent;
+import com.example.gradproject.service.ContentHashService;
+import com.example.gradproject.service.DeidentificationService;
+import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.StreamingUploadService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingest stage that strips identifying metadata (DICOM attributes, EXIF,
+ * PNG text chunks) from each new object. The object is read from S3,
+ * rewritten by DeidentifyingInputStream and written back to the same key
+ * through StreamingUploadService.replace. Memory per object is the upload
+ * part buffers, whatever the object size, and objects are processed in
+ * parallel on a bounded pool. The SHA-256 of the bytes read becomes the
+ * upload hash and that of the bytes written the content hash.
+ * The de-identification status on the UserImage row is the durable queue,
+ * claimed like pending_upload rows: ingest stores objects this stage
+ * rewrites as PENDING, and nothing serves, lists or exports them until the
+ * row is DONE. Keys the pool cannot take, failed attempts and claims of a
+ * dead node are retried by the scheduled poller; after
+ * {@code ingest.deidentify.max-attempts} the row is FAILED and the object
+ * is never served. UploadReadyEvent is published once an object is DONE,
+ * and for objects stored as uploaded, which also get their hashes through
+ * ContentHashService.
+ * Metrics:
+ * ingest.deidentify.bytes (rate = aggregate throughput),
+ * ingest.deidentify.throughput (MB/s per object, 1 MB = 10^6 bytes),
+ * ingest.deidentify.objects
+ */
+@Service
+public class DeidentificationServiceImpl implements DeidentificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeidentificationServiceImpl.class);
+
+    private static final Set<String> CONTENT_TYPES = Set.of("image/jpeg", "image/png", "application/dicom",
+            "application/octet-stream");
+
+    private final S3Service s3Service;
+    private final StreamingUploadService streamingUploadService;
+    private final UserImageRepository userImageRepository;
+    private final ContentHashService contentHashService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ingest.deidentify.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ingest.deidentify.worker-count:2}")
+    private int workerCount;
+
+    @Value("${ingest.deidentify.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${ingest.deidentify.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${ingest.deidentify.stale-after-minutes:10}")
+    private long staleAfterMinutes;
+
+    @Value("${ingest.deidentify.max-attempts:5}")
+    private int maxAttempts;
+
+    private ThreadPoolExecutor executor;
+
+    // Keys queued or running on this node, so the poller does not queue them twice
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    // Meters by format (and outcome), registered on first use
+    private final Map<String, Counter> objectCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> byteCounters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> throughputs = new ConcurrentHashMap<>();
+
+    public DeidentificationServiceImpl(S3Service s3Service, StreamingUploadService streamingUploadService,
+            UserImageRepository userImageRepository, ContentHashService contentHashService,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.s3Service = s3Service;
+        this.streamingUploadService = streamingUploadService;
+        this.userImageRepository = userImageRepository;
+        this.contentHashService = contentHashService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted rows stay PROCESSING and are requeued by the stale-claim sweep
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean rewrites(String contentType, String s3Key) {
+        if (!enabled) {
+            return false;
+        }
+        if (contentType == null) {
+            return s3Key != null && s3Key.toLowerCase(Locale.ROOT).endsWith(".dcm");
+        }
+        return CONTENT_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    @EventListener
+    public void onUploadIngested(UploadIngestedEvent event) {
+        if (!rewrites(event.contentType(), event.s3Key())) {
+            // Ingest stored the row as DONE
+            contentHashService.hashAsUploaded(event.s3Key());
+            eventPublisher.publishEvent(new UploadReadyEvent(event.userId(), event.userImageId(), event.s3Key(),
+                    event.contentType(), event.fileSize()));
+            return;
+        }
+        offer(event.s3Key(), event.contentType());
+    }
+
+    /**
+     * Queue PENDING rows no worker has taken (the pool was full, an attempt
+     * failed, the node restarted) and release claims left by a dead worker.
+     */
+    @Scheduled(fixedDelayString = "${ingest.deidentify.poll-interval-ms:5000}")
+    public void dispatchPending() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int recovered = userImageRepository.requeueStaleDeidentification(now.minusMinutes(staleAfterMinutes));
+            if (recovered > 0) {
+                logger.warn("Released {} stale de-identification claims", recovered);
+            }
+
+            int capacity = executor.getQueue().remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+            // A failed attempt keeps its claim time, so it is retried one interval later
+            List<Object[]> pending = userImageRepository.findPendingDeidentification(
+                    now.minusNanos(pollIntervalMs * 1_000_000), PageRequest.of(0, Math.min(capacity, 1000)));
+            for (Object[] row : pending) {
+                if (!offer((String) row[0], (String) row[1])) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching pending de-identification: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean offer(String s3Key, String contentType) {
+        if (!queued.add(s3Key)) {
+            return true;
+        }
+        try {
+            executor.execute(ContextPropagation.wrap(() -> {
+                try {
+                    process(s3Key, contentType);
+                } catch (Exception e) {
+                    // The row stays PENDING or PROCESSING and is picked up again by the poller
+                    logger.error("Error processing de-identification of key: {}", s3Key, e);
+                } finally {
+                    queued.remove(s3Key);
+                }
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(s3Key);
+            logger.debug("De-identification pool saturated, key {} waits for the poller", s3Key);
+            return false;
+        }
+    }
+
+    private void process(String s3Key, String contentType) {
+        // The row may be queued on several nodes; only one claim wins
+        String token = UUID.randomUUID().toString();
+        if (userImageRepository.claimDeidentification(s3Key, token, LocalDateTime.now()) == 0) {
+            return;
+        }
+        Hashes hashes;
+        try {
+            hashes = deidentify(s3Key, contentType);
+        } catch (Exception e) {
+            release(s3Key, token, e);
+            return;
+        }
+        if (userImageRepository.completeDeidentification(s3Key, token, hashes.upload(), hashes.content()) == 0) {
+            // The stale sweep gave the row to another worker, which repeats the rewrite
+            logger.warn("Lost de-identification claim on key: {}", s3Key);
+            return;
+        }
+        userImageRepository.findByS3Key(s3Key).ifPresent(userImage -> eventPublisher.publishEvent(
+                new UploadReadyEvent(userImage.getUser().getId(), userImage.getId(), s3Key,
+                        userImage.getContentType(), userImage.getFileSize())));
+    }
+
+    private void release(String s3Key, String token, Exception cause) {
+        if (userImageRepository.failDeidentification(s3Key, token, maxAttempts) > 0) {
+            count("unknown", "failed");
+            logger.error("Giving up de-identifying key {} after {} attempts, the object will not be served",
+                    s3Key, maxAttempts, cause);
+            return;
+        }
+        userImageRepository.retryDeidentification(s3Key, token);
+        count("unknown", "retried");
+        logger.warn("Error de-identifying key {}, will retry: {}", s3Key, cause.getMessage(), cause);
+    }
+
+    /**
+     * Rewrites the object in place unless no rewriter recognises its format.
+     * A failed replace aborts its multipart upload, so the stored object is
+     * still the upload and the attempt can be repeated.
+     */
+    private Hashes deidentify(String s3Key, String contentType) throws Exception {
+        long start = System.nanoTime();
+        // Every byte read from the object, including the sniffed head, goes through this digest
+        try (DigestInputStream object = new DigestInputStream(s3Service.openObject(s3Key),
+                MessageDigest.getInstance("SHA-256"))) {
+            Optional<DeidentifyingInputStream> rewriter = DeidentifyingInputStream.open(object);
+            if (rewriter.isEmpty()) {
+                object.transferTo(OutputStream.nullOutputStream());
+                String hex = hex(object.getMessageDigest());
+                logger.debug("No de-identification rewriter for key: {}", s3Key);
+                return new Hashes(hex, hex);
+            }
+
+            String format = rewriter.get().format();
+            long bytes;
+            String contentHash;
+            try (DigestInputStream in = new DigestInputStream(rewriter.get(), MessageDigest.getInstance("SHA-256"))) {
+                bytes = streamingUploadService.replace(s3Key, in, contentType);
+                // Anything past the end of the format's data is not part of the output but was uploaded
+                object.transferTo(OutputStream.nullOutputStream());
+                contentHash = hex(in.getMessageDigest());
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            record(format, bytes, seconds);
+            logger.info("De-identified {} object {} ({} bytes) in {} ms", format, s3Key, bytes,
+                    Math.round(seconds * 1000));
+            return new Hashes(hex(object.getMessageDigest()), contentHash);
+        }
+    }
+
+    private static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void count(String format, String outcome) {
+        objectCounters.computeIfAbsent(format + '/' + outcome, key -> Counter.builder("ingest.deidentify.objects")
+                .tag("format", format)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private void record(String format, long bytes, double seconds) {
+        count(format, "rewritten");
+        byteCounters.computeIfAbsent(format, key -> Counter.builder("ingest.deidentify.bytes")
+                .description("Bytes written by de-identification")
+                .baseUnit("bytes")
+                .tag("format", key)
+                .register(meterRegistry))
+                .increment(bytes);
+        if (seconds > 0) {
+            throughputs.computeIfAbsent(format, key -> DistributionSummary.builder("ingest.deidentify.throughput")
+                    .description("Read-rewrite-upload rate per object")
+                    .baseUnit("megabytes.per.second")
+                    .tag("format", key)
+                    .register(meterRegistry))
+                    .record(bytes / 1_000_000.0 / seconds);
+        }
+    }
+
+    private record Hashes(String upload, String content) {
+    }
+}
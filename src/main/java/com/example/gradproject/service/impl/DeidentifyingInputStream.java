@@ -0,0 +1,538 @@
+package com.example.gradproject.service.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Rewrites an object while it is read, removing identifying metadata, with
+ * memory that does not depend on the object size. Each format only parses
+ * the small headers (DICOM element headers, JPEG markers, PNG chunk
+ * headers). It then tells the base class to pass, blank or drop the next n
+ * source bytes, and those bytes go straight from the source to the
+ * caller's buffer.
+ * <ul>
+ * <li>DICOM: values of patient/institution/physician attributes and of all
+ * private (odd group) elements are overwritten in place with spaces or
+ * zeros, as is the 128-byte preamble. Lengths are preserved, so sequence
+ * and item lengths stay valid. Everything from pixel data on is copied
+ * unchanged. Deflated transfer syntax is rejected. In implicit VR a
+ * defined-length sequence cannot be told apart from a plain value, so
+ * it is only cleaned if its own tag is listed.</li>
+ * <li>JPEG: APP1 (EXIF/XMP), APP13 (IPTC) and COM segments are dropped.</li>
+ * <li>PNG: tEXt, zTXt, iTXt and eXIf chunks are dropped.</li>
+ * </ul>
+ */
+public abstract class DeidentifyingInputStream extends InputStream {
+
+    private static final int SNIFF_BYTES = 132;
+
+    protected final InputStream source;
+
+    // Small output produced by the parser (headers, rewritten short values)
+    private byte[] staged = new byte[0];
+    private int stagedPos;
+
+    private long passLeft;
+    private long blankLeft;
+    private byte blankByte;
+    private long dropLeft;
+    private boolean passRest;
+    private boolean finished;
+
+    private final byte[] scratch = new byte[8192];
+
+    protected DeidentifyingInputStream(InputStream source) {
+        this.source = source;
+    }
+
+    /**
+     * Picks a rewriter from the first bytes of the stream.
+     *
+     * @return empty if the format is not one this class can clean; the
+     *         source has then been partly read and should be closed
+     */
+    public static Optional<DeidentifyingInputStream> open(InputStream source) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(source, SNIFF_BYTES);
+        byte[] head = in.readNBytes(SNIFF_BYTES);
+        in.unread(head);
+
+        if (head.length == SNIFF_BYTES && new String(head, 128, 4, StandardCharsets.US_ASCII).equals("DICM")) {
+            return Optional.of(new Dicom(in));
+        }
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return Optional.of(new Jpeg(in));
+        }
+        if (head.length >= 8 && Arrays.equals(Arrays.copyOf(head, 8), Png.SIGNATURE)) {
+            return Optional.of(new Png(in));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return short format name, used as a metric tag
+     */
+    public abstract String format();
+
+    /**
+     * Parses the next header and schedules its output through
+     * {@link #stage}, {@link #pass}, {@link #blank}, {@link #drop} or
+     * {@link #passRest}.
+     *
+     * @return false at the end of the object
+     */
+    protected abstract boolean next() throws IOException;
+
+    protected final void stage(byte[] bytes) {
+        staged = bytes;
+        stagedPos = 0;
+    }
+
+    protected final void pass(long length) {
+        passLeft = length;
+    }
+
+    protected final void blank(long length, byte fill) {
+        blankLeft = length;
+        blankByte = fill;
+    }
+
+    protected final void drop(long length) {
+        dropLeft = length;
+    }
+
+    protected final void passRest() {
+        passRest = true;
+    }
+
+    /**
+     * Reads exactly {@code length} header bytes, or returns null at a clean
+     * end of stream.
+     */
+    protected final byte[] readHeader(int length) throws IOException {
+        byte[] header = source.readNBytes(length);
+        if (header.length == 0) {
+            return null;
+        }
+        if (header.length < length) {
+            throw new EOFException("Truncated " + format() + " header");
+        }
+        return header;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (stagedPos < staged.length) {
+                int n = Math.min(len, staged.length - stagedPos);
+                System.arraycopy(staged, stagedPos, b, off, n);
+                stagedPos += n;
+                return n;
+            }
+            if (dropLeft > 0) {
+                skipSource(dropLeft);
+                dropLeft = 0;
+                continue;
+            }
+            if (passLeft > 0) {
+                int n = source.read(b, off, (int) Math.min(len, passLeft));
+                if (n < 0) {
+                    throw new EOFException("Value runs past the end of the " + format() + " object");
+                }
+                passLeft -= n;
+                return n;
+            }
+            if (blankLeft > 0) {
+                int n = (int) Math.min(len, blankLeft);
+                skipSource(n);
+                Arrays.fill(b, off, off + n, blankByte);
+                blankLeft -= n;
+                return n;
+            }
+            if (passRest) {
+                return source.read(b, off, len);
+            }
+            if (finished || !next()) {
+                finished = true;
+                return -1;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private void skipSource(long length) throws IOException {
+        long left = length;
+        while (left > 0) {
+            int n = source.read(scratch, 0, (int) Math.min(scratch.length, left));
+            if (n < 0) {
+                throw new EOFException("Value runs past the end of the " + format() + " object");
+            }
+            left -= n;
+        }
+    }
+
+    // ----- DICOM -----
+
+    static final class Dicom extends DeidentifyingInputStream {
+
+        private static final String IMPLICIT_VR_LE = "1.2.840.10008.1.2";
+        private static final String EXPLICIT_VR_BE = "1.2.840.10008.1.2.2";
+        private static final String DEFLATED_LE = "1.2.840.10008.1.2.1.99";
+        private static final long UNDEFINED_LENGTH = 0xFFFFFFFFL;
+
+        private static final Set<String> LONG_LENGTH_VRS = Set.of("OB", "OD", "OF", "OL", "OV", "OW", "SQ", "SV",
+                "UC", "UN", "UR", "UT", "UV");
+        private static final Set<String> TEXT_VRS = Set.of("AE", "AS", "CS", "DA", "DS", "DT", "IS", "LO", "LT",
+                "PN", "SH", "ST", "TM", "UC", "UR", "UT");
+
+        // Identifying attributes outside the patient group (0010,xxxx), which is cleaned entirely
+        private static final Set<Integer> IDENTIFYING_TAGS = Set.of(
+                0x00080050, // Accession Number
+                0x00080080, // Institution Name
+                0x00080081, // Institution Address
+                0x00080090, // Referring Physician's Name
+                0x00080092, // Referring Physician's Address
+                0x00080094, // Referring Physician's Telephone Numbers
+                0x00081010, // Station Name
+                0x00081040, // Institutional Department Name
+                0x00081048, // Physician(s) of Record
+                0x00081050, // Performing Physician's Name
+                0x00081060, // Name of Physician(s) Reading Study
+                0x00081070, // Operators' Name
+                0x00081120, // Referenced Patient Sequence
+                0x00200010, // Study ID
+                0x00321032, // Requesting Physician
+                0x00321033, // Requesting Service
+                0x00400006, // Scheduled Performing Physician's Name
+                0x00400244, // Performed Procedure Step Start Date
+                0x00400253, // Performed Procedure Step ID
+                0x00401001, // Requested Procedure ID
+                0x40000010, // Arbitrary
+                0x40004000); // Text Comments
+
+        private final Deque<Sequence> sequences = new ArrayDeque<>();
+        private long position;
+        private int preambleState;
+        private boolean explicit = true;
+        private boolean bigEndian;
+        private String transferSyntax;
+
+        Dicom(InputStream source) {
+            super(source);
+        }
+
+        @Override
+        public String format() {
+            return "dicom";
+        }
+
+        @Override
+        protected boolean next() throws IOException {
+            if (preambleState == 0) {
+                // Dual-format files can carry a TIFF header with identifying tags here
+                blank(128, (byte) 0);
+                preambleState = 1;
+                return true;
+            }
+            if (preambleState == 1) {
+                stage(readFully(4));
+                position = 132;
+                preambleState = 2;
+                return true;
+            }
+
+            while (!sequences.isEmpty() && sequences.peek().end() <= position) {
+                sequences.pop();
+            }
+
+            byte[] tagBytes = source.readNBytes(4);
+            if (tagBytes.length == 0) {
+                return false;
+            }
+            if (tagBytes.length < 4) {
+                throw new EOFException("Truncated dicom header");
+            }
+
+            // Group 0002 is always explicit VR little endian, whatever the dataset uses
+            boolean meta = u16(tagBytes, 0, false) == 0x0002;
+            boolean big = !meta && bigEndian;
+            boolean explicitVr = meta || explicit;
+            int group = u16(tagBytes, 0, big);
+            int element = u16(tagBytes, 2, big);
+            int tag = group << 16 | element;
+
+            if (!meta && transferSyntax != null && DEFLATED_LE.equals(transferSyntax)) {
+                throw new IOException("Deflated DICOM transfer syntax is not supported");
+            }
+
+            // Item and delimiter tags: tag + 4-byte length, no VR, never a value to rewrite
+            if (group == 0xFFFE) {
+                byte[] lengthBytes = readFully(4);
+                stage(concat(tagBytes, lengthBytes));
+                position += 8;
+                Sequence parent = sequences.peek();
+                if (element == 0xE0DD && parent != null && parent.end() == Long.MAX_VALUE) {
+                    sequences.pop();
+                } else if (element == 0xE000 && parent != null && parent.fragments()) {
+                    // Compressed pixel data fragment: opaque bytes, not a dataset
+                    long length = u32(lengthBytes, big);
+                    pass(length);
+                    position += length;
+                }
+                return true;
+            }
+
+            String vr = null;
+            long length;
+            byte[] header;
+            if (explicitVr) {
+                byte[] vrBytes = readFully(4);
+                vr = new String(vrBytes, 0, 2, StandardCharsets.US_ASCII);
+                if (LONG_LENGTH_VRS.contains(vr)) {
+                    byte[] longLength = readFully(4);
+                    length = u32(longLength, big);
+                    header = concat(concat(tagBytes, vrBytes), longLength);
+                } else {
+                    length = u16(vrBytes, 2, big);
+                    header = concat(tagBytes, vrBytes);
+                }
+            } else {
+                byte[] lengthBytes = readFully(4);
+                length = u32(lengthBytes, big);
+                header = concat(tagBytes, lengthBytes);
+            }
+            position += header.length;
+
+            if (meta) {
+                return meta(header, tag, length);
+            }
+
+            if (sequences.isEmpty() && (group == 0x7FE0 || tag == 0xFFFCFFFC)) {
+                // Top-level pixel data (possibly encapsulated) and trailing padding are copied as is
+                stage(header);
+                passRest();
+                return true;
+            }
+            if (group == 0x7FE0 && length == UNDEFINED_LENGTH) {
+                // Encapsulated pixel data nested in a sequence, e.g. an icon image
+                stage(header);
+                sequences.push(new Sequence(Long.MAX_VALUE, false, true));
+                return true;
+            }
+
+            boolean identifying = isIdentifying(tag) || (!sequences.isEmpty() && sequences.peek().identifying());
+            boolean sequence = "SQ".equals(vr) || (!explicitVr && length == UNDEFINED_LENGTH);
+            if ("UN".equals(vr) && length == UNDEFINED_LENGTH) {
+                throw new IOException("Undefined-length UN element " + tagString(tag) + " is not supported");
+            }
+
+            stage(header);
+            if (sequence) {
+                // Descend: items are parsed as elements, and inherit the sequence's cleaning
+                sequences.push(new Sequence(length == UNDEFINED_LENGTH ? Long.MAX_VALUE : position + length,
+                        identifying, false));
+                return true;
+            }
+            if (identifying) {
+                boolean text = vr != null ? TEXT_VRS.contains(vr) : (group & 1) == 0;
+                blank(length, text ? (byte) ' ' : 0);
+            } else {
+                pass(length);
+            }
+            position += length;
+            return true;
+        }
+
+        private boolean meta(byte[] header, int tag, long length) throws IOException {
+            if (length > 1024) {
+                throw new IOException("Oversized file meta element " + tagString(tag));
+            }
+            byte[] value = readFully((int) length);
+            if (tag == 0x00020010) {
+                transferSyntax = new String(value, StandardCharsets.US_ASCII).trim();
+                explicit = !IMPLICIT_VR_LE.equals(transferSyntax);
+                bigEndian = EXPLICIT_VR_BE.equals(transferSyntax);
+            }
+            stage(concat(header, value));
+            position += length;
+            return true;
+        }
+
+        private static boolean isIdentifying(int tag) {
+            int group = tag >>> 16;
+            // Odd groups are private; their content is undocumented and often identifying
+            return group == 0x0010 || (group & 1) == 1 || IDENTIFYING_TAGS.contains(tag);
+        }
+
+        private byte[] readFully(int length) throws IOException {
+            byte[] bytes = source.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException("Truncated dicom header");
+            }
+            return bytes;
+        }
+
+        private static int u16(byte[] b, int off, boolean bigEndian) {
+            return bigEndian
+                    ? (b[off] & 0xFF) << 8 | (b[off + 1] & 0xFF)
+                    : (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8;
+        }
+
+        private static long u32(byte[] b, int off, boolean bigEndian) {
+            return bigEndian
+                    ? ((long) u16(b, off, true) << 16) | u16(b, off + 2, true)
+                    : u16(b, off, false) | ((long) u16(b, off + 2, false) << 16);
+        }
+
+        private static long u32(byte[] b, boolean bigEndian) {
+            return u32(b, 0, bigEndian);
+        }
+
+        private static String tagString(int tag) {
+            return String.format("(%04X,%04X)", tag >>> 16, tag & 0xFFFF);
+        }
+
+        private record Sequence(long end, boolean identifying, boolean fragments) {
+        }
+    }
+
+    // ----- JPEG -----
+
+    static final class Jpeg extends DeidentifyingInputStream {
+
+        private static final int SOI = 0xD8;
+        private static final int EOI = 0xD9;
+        private static final int SOS = 0xDA;
+        private static final int APP1 = 0xE1;
+        private static final int APP13 = 0xED;
+        private static final int COM = 0xFE;
+
+        Jpeg(InputStream source) {
+            super(source);
+        }
+
+        @Override
+        public String format() {
+            return "jpeg";
+        }
+
+        @Override
+        protected boolean next() throws IOException {
+            byte[] marker = readHeader(2);
+            if (marker == null) {
+                return false;
+            }
+            if ((marker[0] & 0xFF) != 0xFF) {
+                throw new IOException("Expected a JPEG marker");
+            }
+            // Fill bytes before a marker
+            while ((marker[1] & 0xFF) == 0xFF) {
+                marker[1] = (byte) readByte();
+            }
+            int type = marker[1] & 0xFF;
+            if (type == SOI || type == EOI || (type >= 0xD0 && type <= 0xD7) || type == 0x01) {
+                stage(marker);
+                return true;
+            }
+
+            byte[] lengthBytes = readHeader(2);
+            if (lengthBytes == null) {
+                throw new EOFException("Truncated jpeg header");
+            }
+            int length = (lengthBytes[0] & 0xFF) << 8 | (lengthBytes[1] & 0xFF);
+            if (length < 2) {
+                throw new IOException("Invalid JPEG segment length");
+            }
+            if (type == APP1 || type == APP13 || type == COM) {
+                drop(length - 2);
+                return true;
+            }
+            stage(new byte[] { marker[0], marker[1], lengthBytes[0], lengthBytes[1] });
+            if (type == SOS) {
+                // Entropy-coded data and everything after it carries no metadata segments we strip
+                passRest();
+            } else {
+                pass(length - 2);
+            }
+            return true;
+        }
+
+        private int readByte() throws IOException {
+            int b = source.read();
+            if (b < 0) {
+                throw new EOFException("Truncated jpeg header");
+            }
+            return b;
+        }
+    }
+
+    // ----- PNG -----
+
+    static final class Png extends DeidentifyingInputStream {
+
+        static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+        private static final Set<String> TEXT_CHUNKS = Set.of("tEXt", "zTXt", "iTXt", "eXIf");
+
+        private boolean signatureDone;
+
+        Png(InputStream source) {
+            super(source);
+        }
+
+        @Override
+        public String format() {
+            return "png";
+        }
+
+        @Override
+        protected boolean next() throws IOException {
+            if (!signatureDone) {
+                stage(readHeader(SIGNATURE.length));
+                signatureDone = true;
+                return true;
+            }
+            byte[] header = readHeader(8);
+            if (header == null) {
+                return false;
+            }
+            long length = ((header[0] & 0xFFL) << 24) | (header[1] & 0xFF) << 16 | (header[2] & 0xFF) << 8
+                    | (header[3] & 0xFF);
+            String type = new String(header, 4, 4, StandardCharsets.US_ASCII);
+            // Chunk data plus its CRC
+            if (TEXT_CHUNKS.contains(type)) {
+                drop(length + 4);
+            } else {
+                stage(header);
+                pass(length + 4);
+            }
+            return true;
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+}
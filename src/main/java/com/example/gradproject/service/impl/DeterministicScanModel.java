@@ -0,0 +1,107 @@
+package com.example.gradproject.service.impl;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.service.ScanModel;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * CPU stand-in for the real classifier: a single linear layer with fixed,
+ * seeded weights followed by softmax. Identical input tensors always give
+ * identical scores. Each scan of a batch is scored with its own dot
+ * products, so the cost grows linearly with the batch size and there is no
+ * per-batch saving to find. Use it to exercise the inference engine's
+ * queueing and batching, not to tune the batch size for throughput.
+ */
+@Service
+@ConditionalOnProperty(name = "analysis.model", havingValue = "deterministic", matchIfMissing = true)
+public class DeterministicScanModel implements ScanModel {
+
+    private static final String[] LABELS = { "no_tumor", "glioma", "meningioma", "pituitary" };
+    private static final long WEIGHT_SEED = 42L;
+
+    @Value("${analysis.input-size:224}")
+    private int inputSize;
+
+    private float[][] weights;
+
+    @PostConstruct
+    public void init() {
+        int features = inputSize * inputSize;
+        Random random = new Random(WEIGHT_SEED);
+        weights = new float[LABELS.length][features];
+        float scale = (float) (1.0 / Math.sqrt(features));
+        for (float[] row : weights) {
+            for (int i = 0; i < features; i++) {
+                row[i] = (float) random.nextGaussian() * scale;
+            }
+        }
+    }
+
+    @Override
+    public String getModelVersion() {
+        return "deterministic-v2";
+    }
+
+    @Override
+    public List<Map<String, Object>> predictBatch(List<FloatBuffer> inputs) {
+        List<Map<String, Object>> results = new ArrayList<>(inputs.size());
+        double[] logits = new double[LABELS.length];
+        for (FloatBuffer input : inputs) {
+            int length = input.limit();
+            for (int c = 0; c < LABELS.length; c++) {
+                float[] row = weights[c];
+                double sum = 0;
+                for (int i = 0; i < length; i++) {
+                    sum += row[i] * input.get(i);
+                }
+                logits[c] = sum;
+            }
+            results.add(toResult(softmax(logits)));
+        }
+        return results;
+    }
+
+    private double[] softmax(double[] logits) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double logit : logits) {
+            max = Math.max(max, logit);
+        }
+        double[] probabilities = new double[logits.length];
+        double total = 0;
+        for (int i = 0; i < logits.length; i++) {
+            probabilities[i] = Math.exp(logits[i] - max);
+            total += probabilities[i];
+        }
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] /= total;
+        }
+        return probabilities;
+    }
+
+    private Map<String, Object> toResult(double[] probabilities) {
+        Map<String, Object> scores = new LinkedHashMap<>();
+        int best = 0;
+        for (int i = 0; i < LABELS.length; i++) {
+            scores.put(LABELS[i], probabilities[i]);
+            if (probabilities[i] > probabilities[best]) {
+                best = i;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", LABELS[best]);
+        result.put("confidence", probabilities[best]);
+        result.put("scores", scores);
+        return result;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.gradproject.service.impl;
 
 import com.example.gradproject.exception.EmailServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
@@ -11,12 +14,22 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
     private final JavaMailSender javaMailSender;
+    private final MeterRegistry meterRegistry;
 
     @Value("${frontend.url}")
     private String frontendUrl;
@@ -30,8 +43,21 @@ public class EmailService {
     @Value("${spring.mail.username}")
     private String gmailUsername;
 
-    public EmailService(JavaMailSender javaMailSender) {
+    @Value("${mail.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${mail.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    // Platform threads for SMTP: SMTPTransport's synchronized I/O would pin a virtual thread's carrier
+    private ExecutorService senders;
+
+    // One timer per outcome, registered on first use
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+
+    public EmailService(JavaMailSender javaMailSender, MeterRegistry meterRegistry) {
         this.javaMailSender = javaMailSender;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
@@ -44,6 +70,12 @@ public class EmailService {
         logger.info("Frontend URL: {}", frontendUrl);
         logger.info("From Email: {}", fromEmail);
         logger.info("From Name: {}", fromName);
+        senders = Executors.newFixedThreadPool(senderThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
     }
 
     // there is a small change here
@@ -65,7 +97,7 @@ public class EmailService {
             helper.setSubject("Reset Your Password - XFed NeuroScan");
             helper.setText(htmlContent, true); // true indicates HTML content
 
-            javaMailSender.send(message);
+            send(message);
             logger.info("Password reset email sent successfully to: {}", toEmail);
 
         } catch (MessagingException e) {
@@ -77,6 +109,39 @@ public class EmailService {
         }
     }
 
+    private void send(MimeMessage message) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            sendOnPlatformThread(message);
+            outcome = "success";
+        } finally {
+            sendTimers.computeIfAbsent(outcome, key -> Timer.builder("mail.send")
+                    .description("SMTP send latency")
+                    .tag("outcome", key)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void sendOnPlatformThread(MimeMessage message) throws Exception {
+        if (!Thread.currentThread().isVirtual()) {
+            javaMailSender.send(message);
+            return;
+        }
+        // The virtual thread unmounts while it waits, leaving its carrier free
+        Future<?> sent = senders.submit(() -> javaMailSender.send(message));
+        try {
+            sent.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (TimeoutException e) {
+            sent.cancel(true);
+            throw e;
+        }
+    }
+
     private String createPasswordResetEmailTemplate(String firstName, String resetLink) {
         return """
                 <!DOCTYPE html>
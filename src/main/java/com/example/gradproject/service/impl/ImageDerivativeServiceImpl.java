@@ -0,0 +1,207 @@
+package com.example.gradproject.service.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.enums.ImageVariant;
+import com.example.gradproject.event.UploadReadyEvent;
+import com.example.gradproject.service.ImageDerivativeService;
+import com.example.gradproject.service.NearDuplicateService;
+import com.example.gradproject.service.S3Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates JPEG thumbnails and previews for newly ingested images on a
+ * bounded CPU pool.
+ * The original is decoded straight from the S3 stream with source
+ * subsampling, so only a raster slightly larger than the biggest variant is
+ * ever held in memory, never the full-resolution image. The same raster
+ * feeds the perceptual hash used for near-duplicate lookup.
+ */
+@Service
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeServiceImpl.class);
+
+    private static final ImageVariant[] DERIVED_VARIANTS = { ImageVariant.PREVIEW, ImageVariant.THUMBNAIL };
+
+    private final S3Service s3Service;
+    private final PhotoRepository photoRepository;
+    private final NearDuplicateService nearDuplicateService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${derivatives.worker-count:0}")
+    private int workerCount;
+
+    @Value("${derivatives.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    public ImageDerivativeServiceImpl(S3Service s3Service, PhotoRepository photoRepository,
+            NearDuplicateService nearDuplicateService, TransactionTemplate transactionTemplate) {
+        this.s3Service = s3Service;
+        this.photoRepository = photoRepository;
+        this.nearDuplicateService = nearDuplicateService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Keep temp-file caching out of the decode path; the compressed bytes stay in memory
+        ImageIO.setUseCache(false);
+
+        int threads = workerCount > 0 ? workerCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        logger.info("Image derivative pool started with {} workers", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onUploadReady(UploadReadyEvent event) {
+        submit(event.s3Key(), event.contentType());
+    }
+
+    @Override
+    public boolean submit(String s3Key, String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return false;
+        }
+        try {
+            executor.execute(ContextPropagation.wrap(() -> generate(s3Key)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Listing falls back to the original until derivatives exist
+            logger.warn("Derivative pool saturated, skipping previews for key: {}", s3Key);
+            return false;
+        }
+    }
+
+    @Override
+    public void deleteDerivatives(String s3Key) {
+        for (ImageVariant variant : DERIVED_VARIANTS) {
+            try {
+                s3Service.deleteByKey(variant.keyFor(s3Key));
+            } catch (Exception e) {
+                logger.warn("Could not delete {} for key: {}", variant, s3Key);
+            }
+        }
+    }
+
+    private void generate(String s3Key) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage source = decodeSubsampled(s3Key, ImageVariant.PREVIEW.getMaxDimension());
+            if (source == null) {
+                logger.debug("No ImageIO reader for key: {}", s3Key);
+                return;
+            }
+
+            // The decoded raster is reused for the perceptual hash, saving a second download
+            try {
+                nearDuplicateService.record(s3Key, source);
+            } catch (Exception e) {
+                logger.warn("Could not hash key: {} for near-duplicate lookup: {}", s3Key, e.getMessage());
+            }
+
+            // Variants are produced largest first, each scaled from the previous one
+            BufferedImage current = source;
+            for (ImageVariant variant : DERIVED_VARIANTS) {
+                current = scaleToFit(current, variant.getMaxDimension());
+                s3Service.putObject(variant.keyFor(s3Key), encodeJpeg(current), "image/jpeg");
+            }
+
+            // Updated through the entities, so only these rows are evicted from the image cache
+            transactionTemplate.executeWithoutResult(status -> photoRepository.findByUrl(s3Key)
+                    .forEach(image -> image.setDerivativesReady(true)));
+            logger.info("Generated derivatives for key: {} in {} ms", s3Key,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("Error generating derivatives for key: {}", s3Key, e);
+        }
+    }
+
+    /**
+     * Decode the object with the coarsest subsampling that still yields at
+     * least {@code targetDimension} pixels on the long edge.
+     */
+    private BufferedImage decodeSubsampled(String s3Key, int targetDimension) throws IOException {
+        try (InputStream in = s3Service.openObject(s3Key);
+                ImageInputStream imageStream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int factor = Math.max(1, longEdge / targetDimension);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scaleToFit(BufferedImage source, int maxDimension) {
+        int longEdge = Math.max(source.getWidth(), source.getHeight());
+        double scale = longEdge > maxDimension ? (double) maxDimension / longEdge : 1.0;
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // Always redraw into RGB so alpha/indexed sources encode cleanly as JPEG
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        if (!ImageIO.write(image, "jpg", out)) {
+            throw new IOException("No JPEG writer available");
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.gradproject.service.impl;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.service.InferenceEngine;
+import com.example.gradproject.service.ScanModel;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Collects inference requests from all analysis workers into micro-batches.
+ * A dispatcher takes the oldest request, then keeps adding requests until
+ * the batch holds {@code max-batch-size} items or {@code max-wait-ms} has
+ * passed since that first request, and runs the whole batch as one model
+ * call. While a batch runs the next one fills up, so batches grow with load.
+ * Metrics:
+ * analysis.inference.batch.size, analysis.inference.queue.delay,
+ * analysis.inference.batch.duration, analysis.inference.latency,
+ * analysis.inference.queue.size
+ */
+@Service
+public class MicroBatchingInferenceEngine implements InferenceEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatchingInferenceEngine.class);
+
+    private final ScanModel scanModel;
+    private final TensorPool tensorPool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${analysis.inference.max-batch-size:16}")
+    private int maxBatchSize;
+
+    @Value("${analysis.inference.max-wait-ms:20}")
+    private long maxWaitMs;
+
+    @Value("${analysis.inference.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${analysis.inference.concurrency:1}")
+    private int concurrency;
+
+    private LinkedBlockingQueue<PendingInference> queue;
+    private ExecutorService dispatchers;
+    private volatile boolean running;
+
+    private DistributionSummary batchSize;
+    private Timer queueDelay;
+    private Timer batchDuration;
+    private Timer latency;
+
+    public MicroBatchingInferenceEngine(ScanModel scanModel, TensorPool tensorPool, MeterRegistry meterRegistry) {
+        this.scanModel = scanModel;
+        this.tensorPool = tensorPool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        batchSize = DistributionSummary.builder("analysis.inference.batch.size")
+                .description("Number of scans per model invocation")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        queueDelay = Timer.builder("analysis.inference.queue.delay")
+                .description("Time a scan waits before its batch starts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchDuration = Timer.builder("analysis.inference.batch.duration")
+                .description("Model invocation time per batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        latency = Timer.builder("analysis.inference.latency")
+                .description("Time from submission to result per scan")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("analysis.inference.queue.size", queue, LinkedBlockingQueue::size)
+                .description("Scans waiting for a batch")
+                .register(meterRegistry);
+
+        running = true;
+        dispatchers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            dispatchers.submit(this::runDispatcher);
+        }
+        logger.info("Inference engine started: model {}, max batch {}, max wait {} ms",
+                scanModel.getModelVersion(), maxBatchSize, maxWaitMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatchers.shutdownNow();
+        PendingInference pending;
+        while ((pending = queue.poll()) != null) {
+            tensorPool.release(pending.input());
+            pending.future().completeExceptionally(new IllegalStateException("Inference engine shut down"));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> submit(FloatBuffer input) throws InterruptedException {
+        PendingInference pending = new PendingInference(input, new CompletableFuture<>(), System.nanoTime());
+        queue.put(pending);
+        return pending.future();
+    }
+
+    @Override
+    public String getModelVersion() {
+        return scanModel.getModelVersion();
+    }
+
+    private void runDispatcher() {
+        List<PendingInference> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingInference first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = first.enqueuedNanos() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    // Take whatever is already waiting before checking the clock
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingInference next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> {
+                    tensorPool.release(p.input());
+                    p.future().completeExceptionally(e);
+                });
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runBatch(List<PendingInference> batch) {
+        long start = System.nanoTime();
+        for (PendingInference pending : batch) {
+            queueDelay.record(start - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+        batchSize.record(batch.size());
+
+        List<Map<String, Object>> results;
+        try {
+            List<FloatBuffer> inputs = new ArrayList<>(batch.size());
+            for (PendingInference pending : batch) {
+                inputs.add(pending.input());
+            }
+            results = scanModel.predictBatch(inputs);
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("Model returned " + results.size()
+                        + " results for a batch of " + batch.size());
+            }
+        } catch (Exception e) {
+            logger.error("Inference batch of {} failed", batch.size(), e);
+            batch.forEach(p -> p.future().completeExceptionally(e));
+            return;
+        } finally {
+            batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Inputs are no longer needed once the model call returns
+            batch.forEach(p -> tensorPool.release(p.input()));
+        }
+
+        long end = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingInference pending = batch.get(i);
+            latency.record(end - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            pending.future().complete(results.get(i));
+        }
+    }
+
+    private record PendingInference(FloatBuffer input, CompletableFuture<Map<String, Object>> future,
+            long enqueuedNanos) {
+    }
+}
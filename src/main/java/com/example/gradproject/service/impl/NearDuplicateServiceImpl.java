@@ -0,0 +1,311 @@
+package com.example.gradproject.service.impl;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.entity.Image;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.service.NearDuplicateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Near-duplicate detection on 64-bit difference hashes (dHash).
+ * The hash is taken from the raster the derivative stage already decoded,
+ * so it costs no extra download. Hashes are persisted on Image and served
+ * from an in-memory {@link PerceptualHashIndex} on each node. Lookups only
+ * return images of the same user.
+ * <p>
+ * Each node applies its own changes at once and publishes them on a Redis
+ * channel (after commit), and the other nodes apply them too. Pub/sub is
+ * fire-and-forget, so the index is also rebuilt from the database every
+ * near-duplicates.resync-minutes; changes that arrive while it is being
+ * rebuilt are replayed onto the new index before it replaces the old one.
+ * A stale entry can at worst hide a match until then: results are
+ * resolved against the Image table, which drops deleted rows.
+ */
+@Service
+public class NearDuplicateServiceImpl implements NearDuplicateService, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateServiceImpl.class);
+
+    public static final String CHANNEL = "near-duplicate-index";
+
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+    private static final int MAX_RESULTS = 50;
+
+    private final PhotoRepository photoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String node = UUID.randomUUID().toString();
+
+    // Swapped whole on rebuild; writers hold changeLock, readers do not
+    private volatile PerceptualHashIndex index = new PerceptualHashIndex();
+    private final Object changeLock = new Object();
+    // Changes applied while a rebuild is loading, replayed onto the new index; null otherwise
+    private List<IndexChange> pendingChanges;
+
+    @Value("${near-duplicates.load-page-size:10000}")
+    private int loadPageSize;
+
+    public NearDuplicateServiceImpl(PhotoRepository photoRepository, TransactionTemplate transactionTemplate,
+            StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.photoRepository = photoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        Gauge.builder("images.phash.index.size", this, service -> service.index.size())
+                .description("Images in the near-duplicate index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${near-duplicates.resync-minutes:15}",
+            initialDelayString = "${near-duplicates.resync-minutes:15}", timeUnit = TimeUnit.MINUTES)
+    public void resync() {
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<IndexChange> replay = new ArrayList<>();
+        synchronized (changeLock) {
+            pendingChanges = replay;
+        }
+        try {
+            PerceptualHashIndex fresh = new PerceptualHashIndex();
+            long afterId = 0;
+            List<Object[]> page;
+            do {
+                page = photoRepository.findPerceptualHashesAfter(afterId, PageRequest.of(0, loadPageSize));
+                for (Object[] row : page) {
+                    afterId = (Long) row[0];
+                    fresh.add(afterId, (Integer) row[1], (Long) row[2]);
+                }
+            } while (page.size() == loadPageSize);
+
+            synchronized (changeLock) {
+                replay.forEach(change -> change.applyTo(fresh));
+                index = fresh;
+            }
+            logger.info("Loaded {} perceptual hashes in {} ms", fresh.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Error loading perceptual hash index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (changeLock) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    @Override
+    public void record(String s3Key, BufferedImage decoded) {
+        long hash = dHash(decoded);
+        // Updated through the entities, so only these rows are evicted from the image cache
+        List<Image> images = transactionTemplate.execute(status -> {
+            List<Image> rows = photoRepository.findByUrl(s3Key);
+            rows.forEach(image -> image.setPerceptualHash(hash));
+            return rows;
+        });
+        for (Image image : images) {
+            change(new IndexChange(node, image.getId(), image.getUser().getId(), hash));
+        }
+    }
+
+    @Override
+    public void index(Image image) {
+        if (image.getPerceptualHash() != null) {
+            change(new IndexChange(node, image.getId(), image.getUser().getId(), image.getPerceptualHash()));
+        }
+    }
+
+    @Override
+    public void remove(Long imageId) {
+        change(new IndexChange(node, imageId, null, null));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            IndexChange change = objectMapper.readValue(message.getBody(), IndexChange.class);
+            if (!node.equals(change.node())) {
+                apply(change);
+            }
+        } catch (Exception e) {
+            logger.warn("Dropping unreadable near-duplicate index change: {}", e.getMessage());
+        }
+    }
+
+    private void change(IndexChange change) {
+        apply(change);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(change);
+                }
+            });
+        } else {
+            publish(change);
+        }
+    }
+
+    private void apply(IndexChange change) {
+        synchronized (changeLock) {
+            change.applyTo(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    private void publish(IndexChange change) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(change));
+        } catch (Exception e) {
+            logger.warn("Could not publish near-duplicate index change: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> findNearDuplicates(String s3Key, User user, int maxDistance) {
+        Long hash = photoRepository.findFirstByUrlAndUser_Id(s3Key, user.getId())
+                .map(Image::getPerceptualHash)
+                .orElse(null);
+        if (hash == null) {
+            return List.of();
+        }
+
+        List<PerceptualHashIndex.Match> matches = index.query(hash, user.getId(), maxDistance);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        // Resolving ids also drops entries whose row no longer exists (e.g. a rolled-back link)
+        Map<Long, Image> images = photoRepository
+                .findAllById(matches.stream().map(PerceptualHashIndex.Match::imageId).toList())
+                .stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        matches.stream()
+                .sorted(Comparator.comparingInt(PerceptualHashIndex.Match::distance))
+                .forEach(match -> {
+                    Image image = images.get(match.imageId());
+                    // Rows sharing the object itself are exact copies, not near-duplicates
+                    if (image == null || image.getUrl().equals(s3Key) || result.size() >= MAX_RESULTS) {
+                        return;
+                    }
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("imageId", image.getId());
+                    entry.put("key", image.getUrl());
+                    entry.put("distance", match.distance());
+                    result.add(entry);
+                });
+        return result;
+    }
+
+    /**
+     * Difference hash: shrink to 9x8 gray by box averaging, then set one bit
+     * per pixel that is brighter than its right neighbour. Robust to
+     * re-compression, rescaling and small brightness changes.
+     */
+    static long dHash(BufferedImage image) {
+        BufferedImage gray = image;
+        // Read the raster directly only when it is a plain, unshared 8-bit gray buffer
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY || image.getRaster().getParent() != null) {
+            gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = gray.createGraphics();
+            try {
+                g.drawImage(image, 0, 0, null);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        byte[] pixels = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        int stride = ((ComponentSampleModel) gray.getRaster().getSampleModel()).getScanlineStride();
+
+        double[] cells = new double[HASH_WIDTH * HASH_HEIGHT];
+        for (int cy = 0; cy < HASH_HEIGHT; cy++) {
+            int y0 = cy * height / HASH_HEIGHT;
+            int y1 = Math.max(y0 + 1, (cy + 1) * height / HASH_HEIGHT);
+            for (int cx = 0; cx < HASH_WIDTH; cx++) {
+                int x0 = cx * width / HASH_WIDTH;
+                int x1 = Math.max(x0 + 1, (cx + 1) * width / HASH_WIDTH);
+                long sum = 0;
+                for (int y = y0; y < y1; y++) {
+                    int row = y * stride;
+                    for (int x = x0; x < x1; x++) {
+                        sum += pixels[row + x] & 0xFF;
+                    }
+                }
+                cells[cy * HASH_WIDTH + cx] = (double) sum / ((long) (y1 - y0) * (x1 - x0));
+            }
+        }
+
+        long hash = 0;
+        int bit = 0;
+        for (int cy = 0; cy < HASH_HEIGHT; cy++) {
+            for (int cx = 0; cx < HASH_WIDTH - 1; cx++) {
+                if (cells[cy * HASH_WIDTH + cx] > cells[cy * HASH_WIDTH + cx + 1]) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * An add (hash set) or a removal (hash null) of one Image row.
+     */
+    record IndexChange(String node, long imageId, Integer ownerId, Long hash) {
+
+        void applyTo(PerceptualHashIndex index) {
+            if (hash == null) {
+                index.remove(imageId);
+            } else {
+                index.add(imageId, ownerId, hash);
+            }
+        }
+    }
+}
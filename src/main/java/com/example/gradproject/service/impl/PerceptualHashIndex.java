@@ -0,0 +1,202 @@
+package com.example.gradproject.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory multi-index hash over 64-bit perceptual hashes.
+ * Each hash is split into four 16-bit chunks, and each chunk has its own
+ * 65536-bucket table. If two hashes differ in at most r bits, at least one
+ * chunk differs in at most r/4 bits (pigeonhole). A radius-r query
+ * therefore only probes the buckets within r/4 bits of each query chunk.
+ * For r = 8 that is 4 x 137 buckets, and only their entries are compared
+ * with a popcount. The cost depends on bucket occupancy, not on the total
+ * index size. Entries live in parallel primitive arrays, about 40 bytes
+ * per image.
+ */
+public class PerceptualHashIndex {
+
+    public static final int MAX_DISTANCE = 15;
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int BUCKETS = 1 << CHUNK_BITS;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot-indexed entry data; slots of removed entries are unlinked from the buckets, not reused
+    private long[] imageIds = new long[1024];
+    private long[] hashes = new long[1024];
+    private int[] owners = new int[1024];
+    private boolean[] removed = new boolean[1024];
+    private int size;
+    private int live;
+
+    private final Map<Long, Integer> slotByImageId = new HashMap<>();
+
+    // buckets[chunk][value] holds slots; bucketSizes[chunk][value] is the fill level
+    private final int[][][] buckets = new int[CHUNKS][BUCKETS][];
+    private final int[][] bucketSizes = new int[CHUNKS][BUCKETS];
+
+    public record Match(long imageId, int ownerId, int distance) {
+    }
+
+    public void add(long imageId, int ownerId, long hash) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotByImageId.get(imageId);
+            if (existing != null) {
+                if (hashes[existing] == hash && owners[existing] == ownerId) {
+                    return;
+                }
+                removeSlot(existing);
+            }
+            if (size == hashes.length) {
+                grow();
+            }
+            int slot = size++;
+            imageIds[slot] = imageId;
+            hashes[slot] = hash;
+            owners[slot] = ownerId;
+            slotByImageId.put(imageId, slot);
+            live++;
+
+            for (int c = 0; c < CHUNKS; c++) {
+                int value = chunk(hash, c);
+                int[] bucket = buckets[c][value];
+                int fill = bucketSizes[c][value];
+                if (bucket == null) {
+                    bucket = buckets[c][value] = new int[4];
+                } else if (fill == bucket.length) {
+                    bucket = buckets[c][value] = Arrays.copyOf(bucket, fill * 2);
+                }
+                bucket[fill] = slot;
+                bucketSizes[c][value] = fill + 1;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long imageId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByImageId.get(imageId);
+            if (slot != null) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param ownerId     only entries of this owner are returned; negative for all
+     * @param maxDistance Hamming radius, at most {@link #MAX_DISTANCE}
+     * @return matches ordered by the slot they were found in, not by distance
+     */
+    public List<Match> query(long hash, int ownerId, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("Distance must be between 0 and " + MAX_DISTANCE);
+        }
+        int chunkRadius = maxDistance / CHUNKS;
+        Map<Integer, Match> matches = new LinkedHashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (int c = 0; c < CHUNKS; c++) {
+                int value = chunk(hash, c);
+                probe(c, value, hash, ownerId, maxDistance, matches);
+                if (chunkRadius >= 1) {
+                    for (int i = 0; i < CHUNK_BITS; i++) {
+                        int v1 = value ^ (1 << i);
+                        probe(c, v1, hash, ownerId, maxDistance, matches);
+                        if (chunkRadius >= 2) {
+                            for (int j = i + 1; j < CHUNK_BITS; j++) {
+                                int v2 = v1 ^ (1 << j);
+                                probe(c, v2, hash, ownerId, maxDistance, matches);
+                                if (chunkRadius >= 3) {
+                                    for (int k = j + 1; k < CHUNK_BITS; k++) {
+                                        probe(c, v2 ^ (1 << k), hash, ownerId, maxDistance, matches);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private void probe(int c, int value, long hash, int ownerId, int maxDistance, Map<Integer, Match> matches) {
+        int[] bucket = buckets[c][value];
+        if (bucket == null) {
+            return;
+        }
+        int fill = bucketSizes[c][value];
+        for (int i = 0; i < fill; i++) {
+            int slot = bucket[i];
+            if (removed[slot] || (ownerId >= 0 && owners[slot] != ownerId)) {
+                continue;
+            }
+            int d = Long.bitCount(hashes[slot] ^ hash);
+            if (d <= maxDistance) {
+                matches.putIfAbsent(slot, new Match(imageIds[slot], owners[slot], d));
+            }
+        }
+    }
+
+    private void removeSlot(int slot) {
+        removed[slot] = true;
+        slotByImageId.remove(imageIds[slot]);
+        live--;
+
+        // Unlink from the buckets so tombstones do not slow down later probes
+        long hash = hashes[slot];
+        for (int c = 0; c < CHUNKS; c++) {
+            int value = chunk(hash, c);
+            int[] bucket = buckets[c][value];
+            int fill = bucketSizes[c][value];
+            for (int i = 0; i < fill; i++) {
+                if (bucket[i] == slot) {
+                    bucket[i] = bucket[fill - 1];
+                    bucketSizes[c][value] = fill - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = hashes.length * 2;
+        imageIds = Arrays.copyOf(imageIds, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+    }
+
+    private static int chunk(long hash, int c) {
+        return (int) (hash >>> (c * CHUNK_BITS)) & (BUCKETS - 1);
+    }
+}
@@ -2,8 +2,11 @@ package com.example.gradproject.service.impl;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,10 +14,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.Repository.UserImageRepository;
 import com.example.gradproject.entity.Image;
 import com.example.gradproject.entity.User;
+import com.example.gradproject.entity.UserImage;
+import com.example.gradproject.enums.DeidentificationStatus;
+import com.example.gradproject.enums.ImageVariant;
+import com.example.gradproject.exception.UploadNotReadyException;
+import com.example.gradproject.service.ImageDerivativeService;
+import com.example.gradproject.service.NearDuplicateService;
 import com.example.gradproject.service.PhotoService;
 import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.UploadIngestService;
+
+import jakarta.persistence.EntityManager;
 
 @Service
 public class PhotoServiceImpl implements PhotoService {
@@ -23,29 +36,50 @@ public class PhotoServiceImpl implements PhotoService {
 
     private final S3Service s3Service;
     private final PhotoRepository photoRepository;
+    private final UserImageRepository userImageRepository;
+    private final EntityManager entityManager;
+    private final UploadIngestService uploadIngestService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final NearDuplicateService nearDuplicateService;
 
-    public PhotoServiceImpl(S3Service s3Service, PhotoRepository photoRepository) {
+    public PhotoServiceImpl(S3Service s3Service, PhotoRepository photoRepository,
+            UserImageRepository userImageRepository, EntityManager entityManager,
+            UploadIngestService uploadIngestService, ImageDerivativeService imageDerivativeService,
+            NearDuplicateService nearDuplicateService) {
         this.s3Service = s3Service;
         this.photoRepository = photoRepository;
+        this.userImageRepository = userImageRepository;
+        this.entityManager = entityManager;
+        this.uploadIngestService = uploadIngestService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.nearDuplicateService = nearDuplicateService;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Map<String, Object> getUserPhotos(User user, Duration urlDuration) {
+    public Map<String, Object> getUserPhotos(User user, Duration urlDuration, ImageVariant variant) {
         try {
             // Get user's photos
             List<Image> images = user.getImages();
+            // Leave out uploads that are not de-identified yet
+            Set<String> unservable = new HashSet<>(userImageRepository.findUnservableKeys(user.getId()));
 
-            // Convert to list of refreshed presigned URLs
+            // Convert to list of refreshed presigned URLs, pointing at the requested
+            // derivative when it exists and at the original otherwise
             List<Map<String, String>> photoData = images.stream()
+                    .filter(image -> !unservable.contains(extractKeyFromUrl(image.getUrl())))
                     .map(image -> {
                         String oldUrl = image.getUrl();
                         String key = extractKeyFromUrl(oldUrl);
-                        String newUrl = s3Service.generatePresignedUrl(key, urlDuration);
+                        ImageVariant served = variant.isDerived() && Boolean.TRUE.equals(image.getDerivativesReady())
+                                ? variant
+                                : ImageVariant.ORIGINAL;
+                        String newUrl = s3Service.generatePresignedUrl(served.keyFor(key), urlDuration);
 
                         return Map.of(
                                 "key", key,
-                                "url", newUrl);
+                                "url", newUrl,
+                                "variant", served.name());
                     })
                     .toList();
 
@@ -64,6 +98,9 @@ public class PhotoServiceImpl implements PhotoService {
 
     @Override
     public Map<String, String> viewPhoto(String key, Duration duration) {
+        if (userImageRepository.existsByS3KeyAndDeidentifyStatusNot(key, DeidentificationStatus.DONE)) {
+            throw new UploadNotReadyException("File is still being processed: " + key);
+        }
         try {
             String presignedUrl = s3Service.generatePresignedUrl(key, duration);
             return Map.of("url", presignedUrl);
@@ -73,14 +110,40 @@ public class PhotoServiceImpl implements PhotoService {
         }
     }
 
+    /**
+     * Storage is reference-counted: identical uploads of one user share a
+     * single S3 object (see linkExistingUpload). Only the caller's own
+     * UserImage row is decremented; the decrement locks that row until
+     * commit, so two concurrent deletes cannot both see a reference left and
+     * leak the object. The object itself goes only when no Image row and no
+     * referencing UserImage row is left, whoever they belong to.
+     */
     @Override
     @Transactional
-    public Map<String, String> deletePhoto(String fileUrl) {
+    public Map<String, String> deletePhoto(String fileUrl, User user) {
+        String key = extractKeyFromUrl(fileUrl);
+        Image image = photoRepository.findFirstByUrlAndUser_Id(key, user.getId())
+                .orElseThrow(() -> new IllegalArgumentException("No photo found for key: " + key));
         try {
-            s3Service.deleteFile(fileUrl);
+            photoRepository.delete(image);
+            nearDuplicateService.remove(image.getId());
+
+            if (userImageRepository.adjustRefCount(user.getId(), key, -1) > 0) {
+                userImageRepository.deleteUnreferenced(user.getId(), key);
+            }
+            photoRepository.flush();
+            long remaining = photoRepository.countByUrl(key) + userImageRepository.countReferencing(key);
 
             Map<String, String> response = new HashMap<>();
-            response.put("message", "File deleted successfully");
+            if (remaining <= 0) {
+                s3Service.deleteByKey(key);
+                imageDerivativeService.deleteDerivatives(key);
+                response.put("message", "File deleted successfully");
+                logger.info("Deleted last reference and object for key: {}", key);
+            } else {
+                response.put("message", "File removed; stored object is still referenced");
+                logger.info("Removed reference to key: {}, {} left", key, remaining);
+            }
 
             return response;
         } catch (Exception e) {
@@ -89,30 +152,82 @@ public class PhotoServiceImpl implements PhotoService {
         }
     }
 
+    /**
+     * Only objects of the same user are matched, and only by the hash the
+     * server computed at ingest, so a declared hash cannot be used to reach
+     * someone else's file. The match is on the bytes as uploaded, which is
+     * what the client hashed, not on the de-identified object.
+     */
     @Override
     @Transactional
-    public Map<String, String> confirmUpload(String s3Key, User user) {
-        try {
-            // Save S3 key in DB
-            Image image = new Image();
-            image.setUrl(s3Key);
-            image.setUser(user);
-            photoRepository.save(image);
+    public Optional<String> linkExistingUpload(String sha256, User user) {
+        Optional<UserImage> existing = userImageRepository.findFirstByUser_IdAndUploadHash(user.getId(),
+                sha256.toLowerCase());
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = existing.get().getS3Key();
 
-            // Generate presigned URL for immediate use
-            String presignedUrl = s3Service.generatePresignedUrl(s3Key, Duration.ofMinutes(60));
+        // Zero rows means the last reference was deleted meanwhile; upload as new
+        if (userImageRepository.adjustRefCount(user.getId(), key, 1) == 0) {
+            return Optional.empty();
+        }
 
-            Map<String, String> response = new HashMap<>();
-            response.put("key", s3Key);
-            response.put("url", presignedUrl);
-            response.put("message", "Upload confirmed and saved successfully!");
+        // Derivatives and perceptual hash belong to the object, so copy them from a sibling row
+        Image sibling = photoRepository.findFirstByUrlAndUser_Id(key, user.getId()).orElse(null);
+        Image image = new Image();
+        image.setUrl(key);
+        image.setUser(entityManager.getReference(User.class, user.getId()));
+        if (sibling != null) {
+            image.setDerivativesReady(sibling.getDerivativesReady());
+            image.setPerceptualHash(sibling.getPerceptualHash());
+        }
+        photoRepository.save(image);
+        nearDuplicateService.index(image);
+
+        logger.info("Linked duplicate upload for user: {} to existing key: {}", user.getEmail(), key);
+        return Optional.of(key);
+    }
+
+    /**
+     * Hand the key to the ingest pipeline and return straight away.
+     * The object is verified and registered asynchronously, see
+     * UploadIngestServiceImpl.
+     */
+    @Override
+    public Map<String, String> confirmUpload(String s3Key, String originalFilename, User user) {
+        uploadIngestService.enqueue(s3Key, originalFilename, user);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("key", s3Key);
+        response.put("status", "PENDING");
+        response.put("message", "Upload received and queued for processing");
+
+        logger.info("Upload queued for user: {}, key: {}", user.getEmail(), s3Key);
+        return response;
+    }
+
+    /**
+     * Register many already-uploaded S3 keys before returning.
+     * Each key goes through the ingest checks (issued to this user, present
+     * in S3) and is inserted with its UserImage row in JDBC batches, see
+     * UploadIngestService.ingestNow. No presigned URLs are generated here.
+     */
+    @Override
+    public Map<String, Object> confirmUploads(List<String> s3Keys, User user) {
+        try {
+            int saved = uploadIngestService.ingestNow(s3Keys, user);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("count", saved);
+            response.put("message", "Uploads confirmed and saved successfully!");
 
-            logger.info("Upload confirmed for user: {}, key: {}", user.getEmail(), s3Key);
+            logger.info("Bulk upload confirmed for user: {}, count: {}", user.getEmail(), saved);
             return response;
 
         } catch (Exception e) {
-            logger.error("Error confirming upload for user: {}", user.getEmail(), e);
-            throw new RuntimeException("Error confirming upload: " + e.getMessage(), e);
+            logger.error("Error confirming bulk upload for user: {}", user.getEmail(), e);
+            throw new RuntimeException("Error confirming uploads: " + e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,29 @@
+package com.example.gradproject.service.impl;
+
+/**
+ * Converts unsigned 8-bit grayscale pixels to normalized floats:
+ * {@code out[i] = ((pixels[i] & 0xFF) / 255 - mean) / std}.
+ */
+public interface PixelNormalizer {
+
+    String VECTOR_IMPLEMENTATION = "com.example.gradproject.service.impl.VectorPixelNormalizer";
+
+    void normalize(byte[] pixels, float[] out, int length, float mean, float std);
+
+    /**
+     * Vector API implementation when it was compiled in (src/vector/java,
+     * built with -Pvector) and the jdk.incubator.vector module is resolved
+     * (started with --add-modules jdk.incubator.vector), scalar otherwise.
+     */
+    static PixelNormalizer best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (PixelNormalizer) Class.forName(VECTOR_IMPLEMENTATION)
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Not part of this build
+            }
+        }
+        return new ScalarPixelNormalizer();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.gradproject.service.impl;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.gradproject.DTO.ProgressEvent;
+import com.example.gradproject.config.JwtUtil;
+import com.example.gradproject.event.AnalysisJobStatusEvent;
+import com.example.gradproject.event.UploadIngestedEvent;
+import com.example.gradproject.event.UploadReadyEvent;
+import com.example.gradproject.exception.TooManyStreamsException;
+import com.example.gradproject.service.ProgressEventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-user server-sent event streams with cross-node fan-out.
+ * Streams are async SseEmitters, so an idle connection holds no request
+ * thread, only its registry entry. Every event is published once to a Redis
+ * channel; each node receives it on its single subscription and writes it
+ * to whichever streams of that user it holds. If Redis is unavailable the
+ * event is still delivered to streams on the publishing node.
+ * A stream lives no longer than the access token that opened it, and the
+ * heartbeat closes streams whose token has been revoked since.
+ * ResponseBodyEmitter.send holds a monitor across the socket write, so
+ * writes that would run on a virtual thread (the heartbeat, the local
+ * fallback) are handed to a few platform threads instead of pinning the
+ * carrier. Relayed events already arrive on platform threads.
+ */
+@Service
+public class RedisProgressEventService implements ProgressEventService, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisProgressEventService.class);
+
+    public static final String CHANNEL = "progress-events";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final JwtUtil jwtUtil;
+    private final TokenBlacklistService tokenBlacklistService;
+
+    @Value("${progress.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${progress.sse.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${progress.sse.writer-threads:2}")
+    private int writerThreads;
+
+    private ExecutorService writers;
+
+    // Each user's open streams, with the access token each was opened with
+    private final Map<Integer, Map<SseEmitter, String>> streams = new ConcurrentHashMap<>();
+
+    public RedisProgressEventService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry, JwtUtil jwtUtil, TokenBlacklistService tokenBlacklistService) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.jwtUtil = jwtUtil;
+        this.tokenBlacklistService = tokenBlacklistService;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("progress.sse.connections", this, RedisProgressEventService::getConnectionCount)
+                .description("Open progress event streams on this node")
+                .register(meterRegistry);
+        writers = Executors.newFixedThreadPool(writerThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+    }
+
+    @Override
+    public SseEmitter subscribe(Integer userId, String accessToken) {
+        long untilExpiry = jwtUtil.extractExpiration(accessToken).getTime() - System.currentTimeMillis();
+        SseEmitter emitter = new SseEmitter(Math.max(1, Math.min(timeoutMs, untilExpiry)));
+        streams.compute(userId, (id, userStreams) -> {
+            Map<SseEmitter, String> target = userStreams != null ? userStreams : new ConcurrentHashMap<>();
+            if (target.size() >= maxStreamsPerUser) {
+                throw new TooManyStreamsException("At most " + maxStreamsPerUser + " event streams can be open");
+            }
+            target.put(emitter, accessToken);
+            return target;
+        });
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+
+        try {
+            // Commits the response headers so the client sees the stream open immediately.
+            // Buffered until MVC initializes the emitter, which flushes it under the emitter's monitor on
+            // the request thread: one small write on a fresh connection, the only pinning write left
+            emitter.send(SseEmitter.event().name("connected").reconnectTime(5000).data(Map.of("userId", userId)));
+        } catch (IOException e) {
+            remove(userId, emitter);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void publish(ProgressEvent event) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            logger.warn("Could not relay progress event through Redis, delivering locally: {}", e.getMessage());
+            writeOnPlatformThread(() -> deliver(event));
+        }
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return streams.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            deliver(objectMapper.readValue(message.getBody(), ProgressEvent.class));
+        } catch (Exception e) {
+            logger.warn("Dropping unreadable progress event: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onUploadIngested(UploadIngestedEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("key", event.s3Key());
+        data.put("imageId", event.imageId());
+        data.put("contentType", event.contentType());
+        data.put("fileSize", event.fileSize());
+        publish(new ProgressEvent(event.userId(), "ingest", data));
+    }
+
+    @EventListener
+    public void onUploadReady(UploadReadyEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("key", event.s3Key());
+        publish(new ProgressEvent(event.userId(), "ready", data));
+    }
+
+    @EventListener
+    public void onAnalysisJobStatus(AnalysisJobStatusEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("jobId", event.jobId());
+        data.put("key", event.s3Key());
+        data.put("status", event.status());
+        publish(new ProgressEvent(event.userId(), "analysis", data));
+    }
+
+    /**
+     * Comment frames keep proxies from closing idle streams and surface
+     * clients that went away without closing the connection. Streams opened
+     * with a token that has been revoked since (logout) are closed here.
+     */
+    @Scheduled(fixedDelayString = "${progress.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        writeOnPlatformThread(() -> streams.forEach((userId, userStreams) -> userStreams.forEach((emitter, token) -> {
+            if (tokenBlacklistService.isRevoked(token)) {
+                remove(userId, emitter);
+                emitter.complete();
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                remove(userId, emitter);
+            }
+        })));
+    }
+
+    private void writeOnPlatformThread(Runnable write) {
+        if (Thread.currentThread().isVirtual()) {
+            writers.execute(write);
+        } else {
+            write.run();
+        }
+    }
+
+    private void deliver(ProgressEvent event) {
+        Map<SseEmitter, String> userStreams = streams.get(event.getUserId());
+        if (userStreams == null) {
+            return;
+        }
+        for (SseEmitter emitter : userStreams.keySet()) {
+            try {
+                emitter.send(SseEmitter.event().name(event.getType()).data(event.getData(),
+                        MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                logger.debug("Dropping broken event stream for user {}", event.getUserId());
+                remove(event.getUserId(), emitter);
+            }
+        }
+    }
+
+    private void remove(Integer userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.remove(emitter);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.gradproject.service.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -10,12 +14,26 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.example.gradproject.jfr.PresignEvent;
 import com.example.gradproject.service.S3Service;
 
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
@@ -80,7 +98,10 @@ public class S3ServiceImpl implements S3Service {
                 .getObjectRequest(getObjectRequest)
                 .build();
 
+        PresignEvent event = new PresignEvent();
+        event.begin();
         String url = s3Presigner.presignGetObject(presignRequest).url().toString();
+        commit(event, key, "GET");
         logger.info("Generated presigned URL (will be cached for 59min): {}", key);
         return url;
     }
@@ -107,7 +128,10 @@ public class S3ServiceImpl implements S3Service {
                 .putObjectRequest(putObjectRequest)
                 .build();
 
+        PresignEvent event = new PresignEvent();
+        event.begin();
         String url = s3Presigner.presignPutObject(presignRequest).url().toString();
+        commit(event, key, "PUT");
         logger.info("Generated presigned PUT URL for key: {}", key);
         return url;
     }
@@ -122,6 +146,123 @@ public class S3ServiceImpl implements S3Service {
         return (folder != null && !folder.isEmpty()) ? folder + generatedFileName : generatedFileName;
     }
 
+    /**
+     * Fetch object metadata without downloading the body.
+     * Returns empty if the object does not exist.
+     */
+    @Override
+    public Optional<HeadObjectResponse> headObject(String key) {
+        try {
+            return Optional.of(s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            // HEAD responses carry no body, so a missing key may surface as a bare 404
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Open a streaming GET on the object. The caller must close the stream.
+     */
+    @Override
+    public InputStream openObject(String key) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build());
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(String key, String range, String ifNoneMatch) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range(range)
+                .ifNoneMatch(ifNoneMatch)
+                .build());
+    }
+
+    @Override
+    public byte[] readRange(String key, long offset, int length) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build())
+                .asByteArray();
+    }
+
+    @Override
+    public void putObject(String key, byte[] content, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build(),
+                RequestBody.fromBytes(content));
+    }
+
+    @Override
+    public void putObject(String key, byte[] content, int length, String contentType) {
+        // Stream from the array so the SDK does not copy the buffer
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build(),
+                RequestBody.fromInputStream(new ByteArrayInputStream(content, 0, length), length));
+    }
+
+    @Override
+    public String createMultipartUpload(String key, String contentType) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build())
+                .uploadId();
+    }
+
+    @Override
+    public CompletedPart uploadPart(String key, String uploadId, int partNumber, byte[] content, int length) {
+        String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) length)
+                .build(),
+                RequestBody.fromInputStream(new ByteArrayInputStream(content, 0, length), length))
+                .eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<CompletedPart> parts) {
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build());
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
     private String generateFileName(String originalFilename) {
         String extension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
@@ -130,6 +271,15 @@ public class S3ServiceImpl implements S3Service {
         return UUID.randomUUID() + extension;
     }
 
+    private static void commit(PresignEvent event, String key, String method) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.key = key;
+            event.method = method;
+            event.commit();
+        }
+    }
+
     private String extractKeyFromUrl(String fileUrl) {
         String[] parts = fileUrl.split(".amazonaws.com/");
         return parts.length > 1 ? parts[1].split("\\?")[0] : "";
@@ -0,0 +1,14 @@
+package com.example.gradproject.service.impl;
+
+public class ScalarPixelNormalizer implements PixelNormalizer {
+
+    @Override
+    public void normalize(byte[] pixels, float[] out, int length, float mean, float std) {
+        // Fold the division and mean into one multiply-add per pixel
+        float scale = 1f / (255f * std);
+        float offset = -mean / std;
+        for (int i = 0; i < length; i++) {
+            out[i] = (pixels[i] & 0xFF) * scale + offset;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.example.gradproject.service.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import com.example.gradproject.enums.ScanFormat;
+
+/**
+ * Reads DICOM Part 10 and NIfTI-1/2 headers through ranged reads.
+ * Bytes are fetched on demand into a window that doubles with every
+ * consecutive fetch, so a typical header costs one or two small requests.
+ * Elements that are not needed are skipped by offset without fetching
+ * their value. DICOM parsing stops at the first group after 0028 (data
+ * elements are sorted by tag) and never reaches pixel data.
+ */
+public final class ScanHeaderParser {
+
+    private static final int NIFTI1_HEADER = 348;
+    private static final int NIFTI2_HEADER = 540;
+    private static final long UNDEFINED_LENGTH = 0xFFFFFFFFL;
+
+    private static final String IMPLICIT_VR_LE = "1.2.840.10008.1.2";
+    private static final String EXPLICIT_VR_BE = "1.2.840.10008.1.2.2";
+    private static final String DEFLATED_LE = "1.2.840.10008.1.2.1.99";
+
+    private ScanHeaderParser() {
+    }
+
+    @FunctionalInterface
+    public interface RangeFetcher {
+        byte[] fetch(long offset, int length) throws IOException;
+    }
+
+    public record ScanHeader(
+            ScanFormat format,
+            String modality,
+            Integer width,
+            Integer height,
+            Integer depth,
+            Integer bitsAllocated,
+            LocalDate acquisitionDate,
+            String bodyPart,
+            String description,
+            long bytesRead,
+            int requests) {
+    }
+
+    /**
+     * @param initialRange size of the first request; later ones double
+     * @param maxBytes     give up once this much has been fetched
+     * @return the header, or empty if the object is neither DICOM nor NIfTI
+     */
+    public static Optional<ScanHeader> parse(RangeFetcher fetcher, long fileSize, int initialRange, int maxBytes)
+            throws IOException {
+        RangedReader reader = new RangedReader(fetcher, fileSize, initialRange, maxBytes);
+        // Open the first window at offset 0 so both magic checks share it
+        reader.u8(0);
+        if (fileSize >= 132 && reader.ascii(128, 4).equals("DICM")) {
+            return Optional.of(parseDicom(reader));
+        }
+        if (fileSize >= 2 && reader.u8(0) == 0x1F && reader.u8(1) == 0x8B) {
+            // .nii.gz: the header is at the start of the deflated stream
+            byte[] header = new GZIPInputStream(reader.stream(0), 4096).readNBytes(NIFTI2_HEADER);
+            return parseNifti(header, reader);
+        }
+        if (fileSize >= NIFTI1_HEADER) {
+            return parseNifti(reader.bytes(0, (int) Math.min(NIFTI2_HEADER, fileSize)), reader);
+        }
+        return Optional.empty();
+    }
+
+    // ----- DICOM -----
+
+    private static ScanHeader parseDicom(RangedReader reader) throws IOException {
+        DicomFields fields = new DicomFields();
+
+        // File meta information is always explicit VR little endian
+        long pos = 132;
+        String transferSyntax = null;
+        while (pos + 8 <= reader.size() && reader.u16(pos, false) == 0x0002) {
+            Element meta = readElement(reader, pos, true, false);
+            if (meta.tag() == 0x00020010) {
+                transferSyntax = reader.ascii(meta.valueOffset(), (int) meta.length()).trim();
+            }
+            pos = meta.valueOffset() + meta.length();
+        }
+
+        if (!DEFLATED_LE.equals(transferSyntax)) {
+            boolean explicit = !IMPLICIT_VR_LE.equals(transferSyntax);
+            boolean bigEndian = EXPLICIT_VR_BE.equals(transferSyntax);
+            while (pos + 8 <= reader.size()) {
+                Element element = readElement(reader, pos, explicit, bigEndian);
+                if (element.group() > 0x0028) {
+                    break;
+                }
+                if (element.length() == UNDEFINED_LENGTH) {
+                    pos = skipSequence(reader, element.valueOffset(), explicit, bigEndian);
+                    continue;
+                }
+                fields.accept(element, reader, bigEndian);
+                pos = element.valueOffset() + element.length();
+            }
+        }
+
+        LocalDate acquired = fields.acquisitionDate != null ? fields.acquisitionDate : fields.studyDate;
+        return new ScanHeader(ScanFormat.DICOM, fields.modality, fields.columns, fields.rows,
+                fields.frames != null ? fields.frames : (fields.rows != null ? 1 : null),
+                fields.bitsAllocated, acquired, fields.bodyPart, fields.description,
+                reader.bytesRead(), reader.requests());
+    }
+
+    private static Element readElement(RangedReader reader, long pos, boolean explicit, boolean bigEndian)
+            throws IOException {
+        int group = reader.u16(pos, bigEndian);
+        int number = reader.u16(pos + 2, bigEndian);
+        // Item and delimiter tags never carry a VR
+        if (!explicit || group == 0xFFFE) {
+            return new Element(group, number, null, pos + 8, reader.u32(pos + 4, bigEndian));
+        }
+        String vr = reader.ascii(pos + 4, 2);
+        if (hasLongLength(vr)) {
+            return new Element(group, number, vr, pos + 12, reader.u32(pos + 8, bigEndian));
+        }
+        return new Element(group, number, vr, pos + 8, reader.u16(pos + 6, bigEndian));
+    }
+
+    private static boolean hasLongLength(String vr) {
+        return switch (vr) {
+            case "OB", "OD", "OF", "OL", "OV", "OW", "SQ", "SV", "UC", "UN", "UR", "UT", "UV" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Skips a value of undefined length (a sequence, or encapsulated data)
+     * and returns the offset after its delimiter. Only element headers are
+     * read; defined-length values are jumped over.
+     */
+    private static long skipSequence(RangedReader reader, long pos, boolean explicit, boolean bigEndian)
+            throws IOException {
+        while (true) {
+            Element item = readElement(reader, pos, false, bigEndian);
+            if (item.tag() == 0xFFFEE0DD) {
+                return item.valueOffset();
+            }
+            if (item.length() != UNDEFINED_LENGTH) {
+                pos = item.valueOffset() + item.length();
+                continue;
+            }
+            // Item of undefined length: walk its elements up to the item delimiter
+            pos = item.valueOffset();
+            while (true) {
+                Element element = readElement(reader, pos, explicit, bigEndian);
+                if (element.tag() == 0xFFFEE00D) {
+                    pos = element.valueOffset();
+                    break;
+                }
+                pos = element.length() == UNDEFINED_LENGTH
+                        ? skipSequence(reader, element.valueOffset(), explicit, bigEndian)
+                        : element.valueOffset() + element.length();
+            }
+        }
+    }
+
+    private record Element(int group, int number, String vr, long valueOffset, long length) {
+        int tag() {
+            return (group << 16) | number;
+        }
+    }
+
+    private static final class DicomFields {
+        String modality;
+        Integer rows;
+        Integer columns;
+        Integer frames;
+        Integer bitsAllocated;
+        LocalDate acquisitionDate;
+        LocalDate studyDate;
+        String bodyPart;
+        String description;
+
+        void accept(Element element, RangedReader reader, boolean bigEndian) throws IOException {
+            int length = (int) Math.min(element.length(), 256);
+            switch (element.tag()) {
+                case 0x00080020 -> studyDate = date(reader.ascii(element.valueOffset(), length));
+                case 0x00080022 -> acquisitionDate = date(reader.ascii(element.valueOffset(), length));
+                case 0x00080060 -> modality = text(reader.ascii(element.valueOffset(), length));
+                case 0x00081030 -> description = text(reader.ascii(element.valueOffset(), length));
+                case 0x00180015 -> bodyPart = text(reader.ascii(element.valueOffset(), length));
+                case 0x00280008 -> frames = integer(reader.ascii(element.valueOffset(), length));
+                case 0x00280010 -> rows = reader.u16(element.valueOffset(), bigEndian);
+                case 0x00280011 -> columns = reader.u16(element.valueOffset(), bigEndian);
+                case 0x00280100 -> bitsAllocated = reader.u16(element.valueOffset(), bigEndian);
+                default -> {
+                    // not needed, value is never fetched
+                }
+            }
+        }
+
+        private static String text(String value) {
+            String trimmed = value.replace('\0', ' ').trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+
+        private static Integer integer(String value) {
+            String trimmed = text(value);
+            try {
+                return trimmed != null ? Integer.valueOf(trimmed) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static LocalDate date(String value) {
+            String digits = text(value);
+            if (digits == null) {
+                return null;
+            }
+            digits = digits.replace(".", "");
+            if (digits.length() < 8) {
+                return null;
+            }
+            try {
+                return LocalDate.of(Integer.parseInt(digits.substring(0, 4)),
+                        Integer.parseInt(digits.substring(4, 6)), Integer.parseInt(digits.substring(6, 8)));
+            } catch (NumberFormatException | DateTimeException e) {
+                return null;
+            }
+        }
+    }
+
+    // ----- NIfTI -----
+
+    private static Optional<ScanHeader> parseNifti(byte[] header, RangedReader reader) {
+        if (header.length < NIFTI1_HEADER) {
+            return Optional.empty();
+        }
+        int littleSize = le32(header, 0);
+        int bigSize = Integer.reverseBytes(littleSize);
+        boolean bigEndian;
+        boolean nifti2;
+        if (littleSize == NIFTI1_HEADER || littleSize == NIFTI2_HEADER) {
+            bigEndian = false;
+            nifti2 = littleSize == NIFTI2_HEADER;
+        } else if (bigSize == NIFTI1_HEADER || bigSize == NIFTI2_HEADER) {
+            bigEndian = true;
+            nifti2 = bigSize == NIFTI2_HEADER;
+        } else {
+            return Optional.empty();
+        }
+
+        int[] dims = new int[4];
+        int bitpix;
+        String description;
+        if (nifti2) {
+            if (header.length < NIFTI2_HEADER || !new String(header, 4, 3, StandardCharsets.US_ASCII).equals("n+2")
+                    && !new String(header, 4, 3, StandardCharsets.US_ASCII).equals("ni2")) {
+                return Optional.empty();
+            }
+            bitpix = s16(header, 14, bigEndian);
+            for (int i = 0; i < 4; i++) {
+                dims[i] = (int) s64(header, 16 + 8 * i, bigEndian);
+            }
+            description = asciiz(header, 240, 80);
+        } else {
+            String magic = new String(header, 344, 3, StandardCharsets.US_ASCII);
+            if (!magic.equals("n+1") && !magic.equals("ni1")) {
+                return Optional.empty();
+            }
+            bitpix = s16(header, 72, bigEndian);
+            for (int i = 0; i < 4; i++) {
+                dims[i] = s16(header, 40 + 2 * i, bigEndian);
+            }
+            description = asciiz(header, 148, 80);
+        }
+
+        int ndim = dims[0];
+        return Optional.of(new ScanHeader(ScanFormat.NIFTI, null,
+                ndim >= 1 ? dims[1] : null,
+                ndim >= 2 ? dims[2] : null,
+                ndim >= 3 ? dims[3] : 1,
+                bitpix, null, null, description,
+                reader.bytesRead(), reader.requests()));
+    }
+
+    private static int le32(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+
+    private static int s16(byte[] b, int off, boolean bigEndian) {
+        return bigEndian
+                ? (short) ((b[off] & 0xFF) << 8 | (b[off + 1] & 0xFF))
+                : (short) ((b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8);
+    }
+
+    private static long s64(byte[] b, int off, boolean bigEndian) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            int shift = bigEndian ? (7 - i) * 8 : i * 8;
+            value |= (long) (b[off + i] & 0xFF) << shift;
+        }
+        return value;
+    }
+
+    private static String asciiz(byte[] b, int off, int max) {
+        int end = off;
+        while (end < off + max && b[end] != 0) {
+            end++;
+        }
+        String value = new String(b, off, end - off, StandardCharsets.US_ASCII).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Caches one contiguous window of the object. A read inside the window
+     * costs nothing. A read just past it extends the window. A read
+     * elsewhere (after a skipped value) starts a new window at that offset.
+     * Every fetch asks for twice as much as the previous one.
+     */
+    static final class RangedReader {
+
+        private final RangeFetcher fetcher;
+        private final long size;
+        private final int maxBytes;
+
+        private byte[] window = new byte[0];
+        private long windowStart;
+        private int windowLength;
+        private int nextRange;
+        private long bytesRead;
+        private int requests;
+
+        RangedReader(RangeFetcher fetcher, long size, int initialRange, int maxBytes) {
+            this.fetcher = fetcher;
+            this.size = size;
+            this.nextRange = initialRange;
+            this.maxBytes = maxBytes;
+        }
+
+        long size() {
+            return size;
+        }
+
+        long bytesRead() {
+            return bytesRead;
+        }
+
+        int requests() {
+            return requests;
+        }
+
+        int u8(long pos) throws IOException {
+            ensure(pos, 1);
+            return window[(int) (pos - windowStart)] & 0xFF;
+        }
+
+        int u16(long pos, boolean bigEndian) throws IOException {
+            ensure(pos, 2);
+            int i = (int) (pos - windowStart);
+            return bigEndian
+                    ? (window[i] & 0xFF) << 8 | (window[i + 1] & 0xFF)
+                    : (window[i] & 0xFF) | (window[i + 1] & 0xFF) << 8;
+        }
+
+        long u32(long pos, boolean bigEndian) throws IOException {
+            ensure(pos, 4);
+            int i = (int) (pos - windowStart);
+            long value = bigEndian
+                    ? (long) (window[i] & 0xFF) << 24 | (window[i + 1] & 0xFF) << 16
+                            | (window[i + 2] & 0xFF) << 8 | (window[i + 3] & 0xFF)
+                    : (window[i] & 0xFF) | (window[i + 1] & 0xFF) << 8
+                            | (window[i + 2] & 0xFF) << 16 | (long) (window[i + 3] & 0xFF) << 24;
+            return value & 0xFFFFFFFFL;
+        }
+
+        byte[] bytes(long pos, int length) throws IOException {
+            ensure(pos, length);
+            int i = (int) (pos - windowStart);
+            return Arrays.copyOfRange(window, i, i + length);
+        }
+
+        String ascii(long pos, int length) throws IOException {
+            return new String(bytes(pos, length), StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Sequential view from {@code pos}, fetching as it is consumed.
+         */
+        InputStream stream(long pos) {
+            return new InputStream() {
+                private long position = pos;
+
+                @Override
+                public int read() throws IOException {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    return u8(position++);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int n = (int) Math.min(len, size - position);
+                    // Serve from the current window, or fetch the next chunk
+                    ensure(position, 1);
+                    n = (int) Math.min(n, windowStart + windowLength - position);
+                    System.arraycopy(window, (int) (position - windowStart), b, off, n);
+                    position += n;
+                    return n;
+                }
+            };
+        }
+
+        private void ensure(long pos, int length) throws IOException {
+            long end = pos + length;
+            if (pos >= windowStart && end <= windowStart + windowLength) {
+                return;
+            }
+            if (end > size) {
+                throw new EOFException("Header runs past the end of the object");
+            }
+
+            long windowEnd = windowStart + windowLength;
+            boolean extend = windowLength > 0 && pos >= windowStart && pos <= windowEnd;
+            long fetchStart = extend ? windowEnd : pos;
+            int fetchLength = (int) Math.min(Math.max(nextRange, end - fetchStart), size - fetchStart);
+            if (bytesRead + fetchLength > maxBytes) {
+                throw new IOException("Header exceeds " + maxBytes + " bytes");
+            }
+
+            byte[] fetched = fetcher.fetch(fetchStart, fetchLength);
+            if (fetched.length < end - fetchStart) {
+                throw new EOFException("Short read at offset " + fetchStart);
+            }
+            bytesRead += fetched.length;
+            requests++;
+            nextRange = (int) Math.min((long) nextRange * 2, maxBytes);
+
+            if (extend) {
+                window = Arrays.copyOf(window, windowLength + fetched.length);
+                System.arraycopy(fetched, 0, window, windowLength, fetched.length);
+                windowLength += fetched.length;
+            } else {
+                window = fetched;
+                windowStart = fetchStart;
+                windowLength = fetched.length;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.gradproject.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.gradproject.Repository.ScanMetadataRepository;
+import com.example.gradproject.Repository.UserImageRepository;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.entity.ScanMetadata;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.event.UploadReadyEvent;
+import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.ScanMetadataService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingest stage that extracts DICOM/NIfTI header fields with ranged GETs
+ * (see ScanHeaderParser), so volumes are never downloaded to read a
+ * few kilobytes of header. Runs on a bounded pool and skips work with a
+ * warning when saturated, like the other ingest stages.
+ */
+@Service
+public class ScanMetadataServiceImpl implements ScanMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanMetadataServiceImpl.class);
+
+    private final S3Service s3Service;
+    private final ScanMetadataRepository scanMetadataRepository;
+    private final UserImageRepository userImageRepository;
+
+    @Value("${ingest.metadata.worker-count:2}")
+    private int workerCount;
+
+    @Value("${ingest.metadata.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${ingest.metadata.initial-range:8192}")
+    private int initialRange;
+
+    @Value("${ingest.metadata.max-header-bytes:4194304}")
+    private int maxHeaderBytes;
+
+    private ThreadPoolExecutor executor;
+
+    public ScanMetadataServiceImpl(S3Service s3Service, ScanMetadataRepository scanMetadataRepository,
+            UserImageRepository userImageRepository) {
+        this.s3Service = s3Service;
+        this.scanMetadataRepository = scanMetadataRepository;
+        this.userImageRepository = userImageRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onUploadReady(UploadReadyEvent event) {
+        submit(event.userImageId(), event.s3Key(), event.contentType(), event.fileSize());
+    }
+
+    @Override
+    public boolean submit(Long userImageId, String s3Key, String contentType, Long fileSize) {
+        // Regular images are handled by the derivative stage; scans arrive as DICOM or octet-stream
+        if (userImageId == null || fileSize == null || fileSize == 0
+                || (contentType != null && contentType.startsWith("image/"))) {
+            return false;
+        }
+        try {
+            executor.execute(ContextPropagation.wrap(() -> extract(userImageId, s3Key, fileSize)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.warn("Metadata pool saturated, skipping header extraction for key: {}", s3Key);
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getMetadata(String s3Key, User user) {
+        return scanMetadataRepository.findByUserImage_S3KeyAndUserImage_User_Id(s3Key, user.getId())
+                .map(metadata -> {
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("key", s3Key);
+                    response.put("format", metadata.getFormat());
+                    response.put("modality", metadata.getModality());
+                    response.put("width", metadata.getWidth());
+                    response.put("height", metadata.getHeight());
+                    response.put("depth", metadata.getDepth());
+                    response.put("bitsAllocated", metadata.getBitsAllocated());
+                    response.put("acquisitionDate", metadata.getAcquisitionDate());
+                    response.put("bodyPart", metadata.getBodyPart());
+                    response.put("description", metadata.getDescription());
+                    return response;
+                });
+    }
+
+    private void extract(Long userImageId, String s3Key, long fileSize) {
+        long start = System.nanoTime();
+        try {
+            if (scanMetadataRepository.existsById(userImageId)) {
+                return;
+            }
+            Optional<ScanHeaderParser.ScanHeader> parsed = ScanHeaderParser.parse(
+                    (offset, length) -> s3Service.readRange(s3Key, offset, length),
+                    fileSize, initialRange, maxHeaderBytes);
+            if (parsed.isEmpty()) {
+                logger.debug("No DICOM/NIfTI header in key: {}", s3Key);
+                return;
+            }
+
+            ScanHeaderParser.ScanHeader header = parsed.get();
+            ScanMetadata metadata = new ScanMetadata();
+            metadata.setUserImage(userImageRepository.getReferenceById(userImageId));
+            metadata.setFormat(header.format());
+            metadata.setModality(header.modality());
+            metadata.setWidth(header.width());
+            metadata.setHeight(header.height());
+            metadata.setDepth(header.depth());
+            metadata.setBitsAllocated(header.bitsAllocated());
+            metadata.setAcquisitionDate(header.acquisitionDate());
+            metadata.setBodyPart(header.bodyPart());
+            metadata.setDescription(truncate(header.description()));
+            metadata.setHeaderBytesRead(header.bytesRead());
+            scanMetadataRepository.save(metadata);
+
+            logger.info("Extracted {} header for key: {} reading {} of {} bytes in {} requests, {} ms",
+                    header.format(), s3Key, header.bytesRead(), fileSize, header.requests(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("Error extracting scan header for key: {}", s3Key, e);
+        }
+    }
+
+    private String truncate(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.gradproject.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.exception.IngestQueueFullException;
+import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.StreamingUploadService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Pass-through upload: the request body is cut into fixed-size parts that
+ * are sent to S3 as a multipart upload while the next part is being read.
+ * Each upload owns at most {@code max-in-flight-parts + 1} part buffers.
+ * When all of them are in flight the reading thread waits, so a slow S3
+ * throttles how fast the body is read instead of growing memory. Nothing is
+ * spooled to disk. Bodies smaller than one part become a single PutObject.
+ */
+@Service
+public class StreamingUploadServiceImpl implements StreamingUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingUploadServiceImpl.class);
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Service s3Service;
+
+    @Value("${files.upload-stream.part-size-mb:8}")
+    private int partSizeMb;
+
+    @Value("${files.upload-stream.max-in-flight-parts:2}")
+    private int maxInFlightParts;
+
+    @Value("${files.upload-stream.max-concurrent:16}")
+    private int maxConcurrentUploads;
+
+    @Value("${files.upload-stream.max-bytes:2147483648}")
+    private long maxBytes;
+
+    @Value("${files.upload-stream.folder:images/}")
+    private String folder;
+
+    private int partSize;
+    private Semaphore uploadSlots;
+    private ExecutorService partUploaders;
+
+    public StreamingUploadServiceImpl(S3Service s3Service) {
+        this.s3Service = s3Service;
+    }
+
+    @PostConstruct
+    public void start() {
+        partSize = Math.max(MIN_PART_SIZE, partSizeMb * 1024 * 1024);
+        uploadSlots = new Semaphore(maxConcurrentUploads);
+        // One thread per possible in-flight part; the semaphores keep the task queue bounded
+        partUploaders = ContextPropagation.wrap(Executors.newFixedThreadPool(maxConcurrentUploads * maxInFlightParts));
+        logger.info("Streaming upload enabled: {} MiB parts, {} in flight per upload, {} concurrent uploads",
+                partSize / (1024 * 1024), maxInFlightParts, maxConcurrentUploads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partUploaders.shutdownNow();
+    }
+
+    @Override
+    public String upload(InputStream body, String fileName, String contentType) throws IOException {
+        // Caps total buffer memory at max-concurrent * (max-in-flight-parts + 1) * part-size
+        if (!uploadSlots.tryAcquire()) {
+            throw new IngestQueueFullException("Too many uploads in progress, please retry shortly");
+        }
+        try {
+            String key = s3Service.generateS3Key(fileName, folder);
+            write(key, body, contentType, maxBytes);
+            return key;
+        } finally {
+            uploadSlots.release();
+        }
+    }
+
+    @Override
+    public long replace(String key, InputStream body, String contentType) throws IOException {
+        return write(key, body, contentType, Long.MAX_VALUE);
+    }
+
+    private long write(String key, InputStream body, String contentType, long limit) throws IOException {
+        // readNBytes only allocates what is actually sent, so small files stay small
+        byte[] first = body.readNBytes(partSize);
+        if (first.length < partSize) {
+            s3Service.putObject(key, first, first.length, contentType);
+            logger.info("Streamed upload of {} bytes to key: {}", first.length, key);
+            return first.length;
+        }
+        return uploadMultipart(key, first, body, contentType, limit);
+    }
+
+    private long uploadMultipart(String key, byte[] first, InputStream body, String contentType, long limit)
+            throws IOException {
+        String uploadId = s3Service.createMultipartUpload(key, contentType);
+        ArrayBlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(maxInFlightParts + 1);
+        Semaphore inFlight = new Semaphore(maxInFlightParts);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        int allocated = 1;
+        long total = 0;
+
+        try {
+            byte[] buffer = first;
+            int length = first.length;
+            int partNumber = 1;
+            while (length > 0) {
+                total += length;
+                if (total > limit) {
+                    throw new IllegalArgumentException("Upload exceeds the maximum size of " + limit + " bytes");
+                }
+
+                // Blocks the reader, and with it the client, while S3 catches up
+                inFlight.acquire();
+                byte[] part = buffer;
+                int partLength = length;
+                int number = partNumber++;
+                parts.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return s3Service.uploadPart(key, uploadId, number, part, partLength);
+                    } finally {
+                        freeBuffers.offer(part);
+                        inFlight.release();
+                    }
+                }, partUploaders));
+
+                // Fail fast instead of reading the rest of the body after a part failed
+                for (CompletableFuture<CompletedPart> done : parts) {
+                    if (done.isCompletedExceptionally()) {
+                        done.join();
+                    }
+                }
+
+                buffer = freeBuffers.poll();
+                if (buffer == null && allocated <= maxInFlightParts) {
+                    buffer = new byte[partSize];
+                    allocated++;
+                } else if (buffer == null) {
+                    buffer = freeBuffers.take();
+                }
+                length = body.readNBytes(buffer, 0, partSize);
+            }
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.join());
+            }
+            completed.sort(Comparator.comparingInt(CompletedPart::partNumber));
+            s3Service.completeMultipartUpload(key, uploadId, completed);
+            logger.info("Streamed upload of {} bytes in {} parts to key: {}", total, completed.size(), key);
+            return total;
+        } catch (Exception e) {
+            parts.forEach(part -> part.cancel(true));
+            try {
+                s3Service.abortMultipartUpload(key, uploadId);
+            } catch (Exception abort) {
+                logger.warn("Could not abort multipart upload for key: {}", key, abort);
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (e instanceof IOException io) {
+                throw io;
+            }
+            if (e instanceof IllegalArgumentException illegal) {
+                throw illegal;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("Error uploading file: " + cause.getMessage(), cause);
+        }
+    }
+}
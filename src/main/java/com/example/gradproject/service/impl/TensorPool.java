@@ -0,0 +1,73 @@
+package com.example.gradproject.service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fixed-size pool of direct (off-heap, native order) float tensors used as
+ * model inputs. Tensors are allocated on demand up to {@code max-size} and
+ * then recycled, so steady-state analysis allocates no input buffers.
+ * {@link #acquire()} blocks when every tensor is in flight, which throttles
+ * preprocessing to what inference can absorb.
+ */
+@Service
+public class TensorPool {
+
+    private final LinkedBlockingQueue<FloatBuffer> free = new LinkedBlockingQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Value("${analysis.input-size:224}")
+    private int inputSize;
+
+    @Value("${analysis.tensor-pool.max-size:96}")
+    private int maxSize;
+
+    public FloatBuffer acquire() throws InterruptedException {
+        FloatBuffer tensor = free.poll();
+        if (tensor == null) {
+            tensor = tryAllocate();
+        }
+        if (tensor == null) {
+            tensor = free.take();
+        }
+        tensor.clear();
+        return tensor;
+    }
+
+    public void release(FloatBuffer tensor) {
+        if (tensor != null) {
+            free.offer(tensor);
+        }
+    }
+
+    public int getTensorLength() {
+        return inputSize * inputSize;
+    }
+
+    public int getAvailable() {
+        return free.size() + maxSize - created.get();
+    }
+
+    private FloatBuffer tryAllocate() {
+        int count = created.get();
+        while (count < maxSize) {
+            if (created.compareAndSet(count, count + 1)) {
+                return allocate();
+            }
+            count = created.get();
+        }
+        return null;
+    }
+
+    private FloatBuffer allocate() {
+        return ByteBuffer.allocateDirect(getTensorLength() * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.gradproject.service.impl;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.jfr.CacheLookupEvent;
+import com.example.gradproject.service.AnalysisResultCache;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Two-tier result cache.
+ * Local tier: access-ordered LinkedHashMap, LRU-bounded per node.
+ * Redis tier: one string per result plus a sorted set of keys scored by
+ * last access time; when the set grows past {@code redis-max-entries} the
+ * least recently used results are popped and deleted, so the Redis
+ * footprint stays bounded regardless of the server's eviction policy.
+ * Local hits count as accesses too: they are collected per node and their
+ * scores written in one ZADD XX every {@code lru-flush-seconds}, so hot
+ * results served locally are not the ones Redis evicts.
+ * Keys embed the model version, so results of older models are never
+ * returned and simply age out. Redis errors degrade to cache misses.
+ */
+@Service
+public class TieredAnalysisResultCache implements AnalysisResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredAnalysisResultCache.class);
+
+    private static final String KEY_PREFIX = "analysis-result:";
+    private static final String LRU_INDEX = "analysis-result:lru";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${analysis.cache.local-max-entries:1000}")
+    private int localMaxEntries;
+
+    @Value("${analysis.cache.redis-max-entries:100000}")
+    private long redisMaxEntries;
+
+    @Value("${analysis.cache.ttl-hours:168}")
+    private long ttlHours;
+
+    private Map<String, String> local;
+
+    // Keys read from the local tier since the last flush, with their last access time
+    private final Map<String, Long> localAccesses = new ConcurrentHashMap<>();
+
+    public TieredAnalysisResultCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        local = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > localMaxEntries;
+            }
+        });
+    }
+
+    @Override
+    public Optional<String> get(String contentHash, String modelVersion) {
+        String key = cacheKey(contentHash, modelVersion);
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        String cached = local.get(key);
+        if (cached != null) {
+            localAccesses.put(key, System.currentTimeMillis());
+            commit(event, key, true, "local");
+            return Optional.of(cached);
+        }
+
+        try {
+            cached = redisTemplate.opsForValue().get(key);
+            if (cached == null) {
+                commit(event, key, false, "redis");
+                return Optional.empty();
+            }
+            redisTemplate.opsForZSet().add(LRU_INDEX, key, System.currentTimeMillis());
+            local.put(key, cached);
+            commit(event, key, true, "redis");
+            return Optional.of(cached);
+        } catch (Exception e) {
+            logger.warn("Analysis result cache lookup failed: {}", e.getMessage());
+            commit(event, key, false, "redis");
+            return Optional.empty();
+        }
+    }
+
+    private static void commit(CacheLookupEvent event, String key, boolean hit, String tier) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = "analysisResults";
+            event.key = key;
+            event.hit = hit;
+            event.tier = tier;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void put(String contentHash, String modelVersion, String resultJson) {
+        String key = cacheKey(contentHash, modelVersion);
+        local.put(key, resultJson);
+
+        try {
+            redisTemplate.opsForValue().set(key, resultJson, Duration.ofHours(ttlHours));
+            redisTemplate.opsForZSet().add(LRU_INDEX, key, System.currentTimeMillis());
+            evictOverflow();
+        } catch (Exception e) {
+            logger.warn("Analysis result cache store failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.cache.lru-flush-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public void flushLocalAccesses() {
+        RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+        Set<Tuple> scores = new HashSet<>();
+        for (String key : localAccesses.keySet()) {
+            Long accessed = localAccesses.remove(key);
+            if (accessed != null) {
+                scores.add(new DefaultTuple(serializer.serialize(key), accessed.doubleValue()));
+            }
+        }
+        if (scores.isEmpty()) {
+            return;
+        }
+        byte[] index = serializer.serialize(LRU_INDEX);
+        try {
+            // XX: only refresh keys still indexed, never bring back ones Redis already evicted
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.zSetCommands()
+                    .zAdd(index, scores, RedisZSetCommands.ZAddArgs.ifExists()));
+        } catch (Exception e) {
+            logger.warn("Analysis result cache access flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void evictOverflow() {
+        Long size = redisTemplate.opsForZSet().zCard(LRU_INDEX);
+        if (size == null || size <= redisMaxEntries) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<String>> evicted = redisTemplate.opsForZSet()
+                .popMin(LRU_INDEX, size - redisMaxEntries);
+        if (evicted != null && !evicted.isEmpty()) {
+            redisTemplate.delete(evicted.stream()
+                    .map(ZSetOperations.TypedTuple::getValue)
+                    .collect(Collectors.toSet()));
+            logger.debug("Evicted {} analysis results from Redis", evicted.size());
+        }
+    }
+
+    private String cacheKey(String contentHash, String modelVersion) {
+        return KEY_PREFIX + modelVersion + ":" + contentHash;
+    }
+}
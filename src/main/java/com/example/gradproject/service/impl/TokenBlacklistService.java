@@ -4,6 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -16,8 +20,16 @@ public class TokenBlacklistService {
 
     private final ConcurrentHashMap<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final Counter hits;
+    private final Counter misses;
+
+    public TokenBlacklistService(MeterRegistry meterRegistry) {
+        Gauge.builder("auth.token.blacklist.size", blacklistedTokens, ConcurrentHashMap::size)
+                .description("Revoked tokens held until they expire")
+                .register(meterRegistry);
+        hits = lookups(meterRegistry, "hit");
+        misses = lookups(meterRegistry, "miss");
 
-    public TokenBlacklistService() {
         // Clean up expired tokens every hour
         scheduler.scheduleAtFixedRate(this::cleanupExpiredTokens, 1, 1, TimeUnit.HOURS);
     }
@@ -29,10 +41,23 @@ public class TokenBlacklistService {
 
     public boolean isTokenBlacklisted(String token) {
         boolean isBlacklisted = blacklistedTokens.containsKey(token);
+        (isBlacklisted ? hits : misses).increment();
         logger.debug("Token blacklist check: {} - Result: {}", token.substring(0, Math.min(10, token.length())), isBlacklisted);
         return isBlacklisted;
     }
 
+    // Uncounted check for work that outlives the request that authenticated it, e.g. open event streams
+    public boolean isRevoked(String token) {
+        return blacklistedTokens.containsKey(token);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.token.blacklist.lookups")
+                .description("Blacklist checks, one per bearer-authenticated request")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     private void cleanupExpiredTokens() {
         long currentTime = System.currentTimeMillis();
         blacklistedTokens.entrySet().removeIf(entry -> entry.getValue() < currentTime);
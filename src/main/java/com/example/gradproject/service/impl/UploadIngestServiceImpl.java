@@ -0,0 +1,403 @@
+package com.example.gradproject.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.gradproject.Repository.PendingUploadRepository;
+import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.Repository.UserImageRepository;
+import com.example.gradproject.Repository.UserRepo;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.entity.Image;
+import com.example.gradproject.entity.PendingUpload;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.entity.UserImage;
+import com.example.gradproject.enums.DeidentificationStatus;
+import com.example.gradproject.enums.PendingUploadStatus;
+import com.example.gradproject.event.UploadIngestedEvent;
+import com.example.gradproject.service.DeidentificationService;
+import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.UploadIngestService;
+
+import io.micrometer.context.ContextSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+/**
+ * Finalizes client uploads off the request path.
+ * The pending_upload table is the durable queue: a key is recorded when it is
+ * issued, and confirming the upload only marks its row CONFIRMED and offers
+ * the key to a bounded in-memory queue. Each worker drains up to
+ * {@code ingest.batch-size} keys, claims their rows, verifies them with
+ * HeadObject (in parallel on a pool of {@code ingest.head-threads} shared by
+ * all batches) and persists the verified ones (Image + UserImage) in a single
+ * batched transaction that also deletes their pending rows. Keys that do not
+ * exist in S3 are dropped. Confirmed rows the in-memory queue never got to
+ * (queue full, node stopped) are picked up by the scheduled poller.
+ */
+@Service
+public class UploadIngestServiceImpl implements UploadIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadIngestServiceImpl.class);
+
+    private final S3Service s3Service;
+    private final PhotoRepository photoRepository;
+    private final UserImageRepository userImageRepository;
+    private final PendingUploadRepository pendingUploadRepository;
+    private final UserRepo userRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeidentificationService deidentificationService;
+
+    @Value("${ingest.worker-count:4}")
+    private int workerCount;
+
+    @Value("${ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ingest.batch-size:50}")
+    private int batchSize;
+
+    @Value("${ingest.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${ingest.stale-after-minutes:5}")
+    private long staleAfterMinutes;
+
+    @Value("${ingest.issued-ttl-hours:24}")
+    private long issuedTtlHours;
+
+    @Value("${ingest.head-threads:8}")
+    private int headThreads;
+
+    @Value("${ingest.max-batch-keys:1000}")
+    private int maxBatchKeys;
+
+    private LinkedBlockingQueue<IngestTask> queue;
+    private ExecutorService workers;
+    private ExecutorService headers;
+    private volatile boolean running;
+
+    public UploadIngestServiceImpl(S3Service s3Service, PhotoRepository photoRepository,
+            UserImageRepository userImageRepository, PendingUploadRepository pendingUploadRepository,
+            UserRepo userRepo, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+            DeidentificationService deidentificationService) {
+        this.s3Service = s3Service;
+        this.photoRepository = photoRepository;
+        this.userImageRepository = userImageRepository;
+        this.pendingUploadRepository = pendingUploadRepository;
+        this.userRepo = userRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.deidentificationService = deidentificationService;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        workers = Executors.newFixedThreadPool(workerCount);
+        headers = ContextPropagation.wrap(Executors.newFixedThreadPool(headThreads));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::runWorker);
+        }
+        logger.info("Upload ingest started with {} workers, queue capacity {}", workerCount, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Let running batches finish; queued keys keep their CONFIRMED rows for the next start
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        headers.shutdownNow();
+        if (!queue.isEmpty()) {
+            logger.info("Upload ingest stopped, {} confirmed uploads left for the poller", queue.size());
+        }
+    }
+
+    @Override
+    public void issue(String s3Key, String originalFilename, User user) {
+        PendingUpload pending = new PendingUpload();
+        pending.setS3Key(s3Key);
+        pending.setUser(userRepo.getReferenceById(user.getId()));
+        pending.setOriginalFilename(originalFilename);
+        pending.setStatus(PendingUploadStatus.ISSUED);
+        pendingUploadRepository.save(pending);
+    }
+
+    @Override
+    public void enqueue(String s3Key, String originalFilename, User user) {
+        if (pendingUploadRepository.confirm(s3Key, user.getId(), originalFilename, LocalDateTime.now()) == 0) {
+            // A repeated confirmation of an upload that is already queued or registered is fine
+            if (pendingUploadRepository.existsByS3KeyAndUser_Id(s3Key, user.getId())
+                    || userImageRepository.existsByS3KeyAndUser_Id(s3Key, user.getId())) {
+                logger.debug("Upload already confirmed for user: {}, key: {}", user.getEmail(), s3Key);
+                return;
+            }
+            throw new IllegalArgumentException("No upload was issued for key: " + s3Key);
+        }
+        if (!queue.offer(new IngestTask(s3Key, ContextPropagation.capture()))) {
+            logger.debug("Ingest queue full, key {} waits for the poller", s3Key);
+            return;
+        }
+        logger.debug("Queued upload for user: {}, key: {}", user.getEmail(), s3Key);
+    }
+
+    @Override
+    public int ingestNow(List<String> s3Keys, User user) {
+        ContextSnapshot context = ContextPropagation.capture();
+        List<String> keys = s3Keys.stream().distinct().toList();
+        if (keys.size() > maxBatchKeys) {
+            throw new IllegalArgumentException(
+                    "At most " + maxBatchKeys + " keys can be confirmed at once, got " + keys.size());
+        }
+        int registered = 0;
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<String> chunk = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            String token = UUID.randomUUID().toString();
+            if (pendingUploadRepository.claimKeys(chunk, user.getId(), token, LocalDateTime.now()) == 0) {
+                continue;
+            }
+            Map<String, ContextSnapshot> contexts = new HashMap<>();
+            chunk.forEach(key -> contexts.put(key, context));
+            registered += register(pendingUploadRepository.findClaimed(token), contexts);
+        }
+        if (registered < keys.size()) {
+            logger.warn("Registered {} of {} keys for user: {}; the others were not issued to the user, "
+                    + "are not in S3 or are already registered", registered, keys.size(), user.getEmail());
+        }
+        return registered;
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Queue confirmed uploads no worker has taken (the queue was full, or the
+     * node that accepted them stopped), release claims left by a dead worker
+     * and drop keys that were issued but never confirmed.
+     */
+    @Scheduled(fixedDelayString = "${ingest.poll-interval-ms:5000}")
+    public void dispatchPendingUploads() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int recovered = pendingUploadRepository.requeueStale(now.minusMinutes(staleAfterMinutes));
+            if (recovered > 0) {
+                logger.warn("Released {} stale upload claims", recovered);
+            }
+            int expired = pendingUploadRepository.deleteUnconfirmedBefore(now.minusHours(issuedTtlHours));
+            if (expired > 0) {
+                logger.info("Dropped {} upload keys that were never confirmed", expired);
+            }
+
+            int capacity = queue.remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+            // Keys confirmed within the last interval are normally still in a worker queue
+            List<String> keys = pendingUploadRepository.findConfirmedKeysBefore(
+                    now.minusNanos(pollIntervalMs * 1_000_000), PageRequest.of(0, Math.min(capacity, 1000)));
+            for (String key : keys) {
+                if (!queue.offer(new IngestTask(key, ContextPropagation.capture()))) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching pending uploads: {}", e.getMessage(), e);
+        }
+    }
+
+    private void runWorker() {
+        List<IngestTask> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                IngestTask first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error processing upload batch of {} keys", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<IngestTask> batch) {
+        Map<String, ContextSnapshot> contexts = new HashMap<>();
+        batch.forEach(task -> contexts.put(task.s3Key(), task.context()));
+
+        // A key can be queued twice (confirm + poller) or on two nodes; only one claim wins
+        String token = UUID.randomUUID().toString();
+        if (pendingUploadRepository.claim(contexts.keySet(), token, LocalDateTime.now()) == 0) {
+            return;
+        }
+        int registered = register(pendingUploadRepository.findClaimed(token), contexts);
+        logger.info("Registered {} of {} queued uploads", registered, batch.size());
+    }
+
+    /**
+     * Verifies claimed uploads and persists the valid ones; every claimed
+     * pending row is gone afterwards.
+     *
+     * @return number of uploads registered
+     */
+    private int register(List<PendingUpload> claimed, Map<String, ContextSnapshot> contexts) {
+        // Skip keys that are already registered
+        Set<String> registered = new HashSet<>(
+                userImageRepository.findExistingKeys(claimed.stream().map(PendingUpload::getS3Key).toList()));
+
+        List<PendingUpload> unregistered = new ArrayList<>(claimed.size());
+        List<Long> rejected = new ArrayList<>();
+        for (PendingUpload pending : claimed) {
+            if (registered.contains(pending.getS3Key())) {
+                logger.debug("Skipping already registered key: {}", pending.getS3Key());
+                rejected.add(pending.getId());
+            } else {
+                unregistered.add(pending);
+            }
+        }
+
+        // One round trip per key, so issue them all at once; the shared pool bounds the total in flight
+        List<CompletableFuture<Optional<HeadObjectResponse>>> heads = unregistered.stream()
+                .map(pending -> CompletableFuture.supplyAsync(() -> s3Service.headObject(pending.getS3Key()), headers))
+                .toList();
+        List<VerifiedUpload> verified = new ArrayList<>(unregistered.size());
+        for (int i = 0; i < unregistered.size(); i++) {
+            PendingUpload pending = unregistered.get(i);
+            Optional<HeadObjectResponse> head = heads.get(i).join();
+            if (head.isEmpty()) {
+                logger.warn("Rejected upload for user: {}, key does not exist: {}",
+                        pending.getUser().getEmail(), pending.getS3Key());
+                rejected.add(pending.getId());
+                continue;
+            }
+            verified.add(new VerifiedUpload(pending, head.get()));
+        }
+        if (!rejected.isEmpty()) {
+            pendingUploadRepository.deleteAllByIdInBatch(rejected);
+        }
+
+        if (verified.isEmpty()) {
+            return 0;
+        }
+
+        List<UploadIngestedEvent> events;
+        try {
+            events = transactionTemplate.execute(status -> persist(verified));
+        } catch (Exception e) {
+            // One bad row (e.g. a concurrent duplicate) fails the whole batch; retry one by one
+            logger.warn("Batch persist failed, retrying {} uploads individually: {}", verified.size(), e.getMessage());
+            events = new ArrayList<>(verified.size());
+            for (VerifiedUpload upload : verified) {
+                try {
+                    events.addAll(transactionTemplate.execute(status -> persist(List.of(upload))));
+                } catch (Exception single) {
+                    logger.error("Could not register upload key: {}", upload.pending().getS3Key(), single);
+                    pendingUploadRepository.deleteById(upload.pending().getId());
+                }
+            }
+        }
+
+        // Transaction is committed at this point, listeners can safely read the rows.
+        // Each event is published in its upload request's trace context, so later stages join that trace.
+        for (UploadIngestedEvent event : events) {
+            try (ContextSnapshot.Scope scope = contexts.get(event.s3Key()).setThreadLocals()) {
+                eventPublisher.publishEvent(event);
+            }
+        }
+        return events.size();
+    }
+
+    private List<UploadIngestedEvent> persist(List<VerifiedUpload> uploads) {
+        List<Image> images = new ArrayList<>(uploads.size());
+        List<UserImage> userImages = new ArrayList<>(uploads.size());
+
+        for (VerifiedUpload upload : uploads) {
+            PendingUpload pending = upload.pending();
+            User owner = userRepo.getReferenceById(pending.getUser().getId());
+            HeadObjectResponse head = upload.head();
+
+            Image image = new Image();
+            image.setUrl(pending.getS3Key());
+            image.setUser(owner);
+            images.add(image);
+
+            UserImage userImage = new UserImage();
+            userImage.setUser(owner);
+            userImage.setS3Key(pending.getS3Key());
+            userImage.setOriginalFilename(pending.getOriginalFilename());
+            userImage.setContentType(head.contentType());
+            userImage.setFileSize(head.contentLength());
+            userImage.setRefCount(1);
+            // Objects the de-identification stage rewrites are not served until it has run
+            userImage.setDeidentifyStatus(deidentificationService.rewrites(head.contentType(), pending.getS3Key())
+                    ? DeidentificationStatus.PENDING
+                    : DeidentificationStatus.DONE);
+            userImage.setUploadDate(head.lastModified() != null
+                    ? LocalDateTime.ofInstant(head.lastModified(), ZoneOffset.UTC)
+                    : LocalDateTime.now(ZoneOffset.UTC));
+            userImages.add(userImage);
+        }
+
+        photoRepository.saveAll(images);
+        userImageRepository.saveAll(userImages);
+        pendingUploadRepository.deleteAllByIdInBatch(
+                uploads.stream().map(upload -> upload.pending().getId()).toList());
+
+        List<UploadIngestedEvent> events = new ArrayList<>(uploads.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            PendingUpload pending = uploads.get(i).pending();
+            UserImage userImage = userImages.get(i);
+            events.add(new UploadIngestedEvent(pending.getUser().getId(), pending.getUser().getEmail(),
+                    images.get(i).getId(), userImage.getId(), pending.getS3Key(), userImage.getContentType(),
+                    userImage.getFileSize()));
+        }
+        return events;
+    }
+
+    private record IngestTask(String s3Key, ContextSnapshot context) {
+    }
+
+    private record VerifiedUpload(PendingUpload pending, HeadObjectResponse head) {
+    }
+}
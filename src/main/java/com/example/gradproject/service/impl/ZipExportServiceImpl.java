@@ -0,0 +1,232 @@
+package com.example.gradproject.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.gradproject.Repository.PhotoRepository;
+import com.example.gradproject.config.ContextPropagation;
+import com.example.gradproject.entity.User;
+import com.example.gradproject.service.S3Service;
+import com.example.gradproject.service.ZipExportService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Builds the library ZIP on the fly, straight into the response.
+ * While one entry is being written, the first {@code prefetch-bytes} of the
+ * next {@code prefetch-depth} objects are already fetched from S3 with
+ * ranged GETs, read to the end and closed. S3 latency therefore overlaps
+ * with writing instead of adding up per file, and prefetching never holds a
+ * pooled connection: objects that fit in the prefetch need no more requests,
+ * and the rest of a larger one is requested only when its entry is written,
+ * then copied through one fixed buffer. Memory per export is bounded by
+ * depth x prefetch-bytes + one copy buffer, whatever the library size.
+ * Objects that cannot be read are listed in MISSING.txt at the end instead
+ * of failing the archive.
+ */
+@Service
+public class ZipExportServiceImpl implements ZipExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipExportServiceImpl.class);
+
+    private final PhotoRepository photoRepository;
+    private final S3Service s3Service;
+
+    @Value("${files.export.prefetch-depth:4}")
+    private int prefetchDepth;
+
+    @Value("${files.export.prefetch-bytes:262144}")
+    private int prefetchBytes;
+
+    @Value("${files.export.prefetch-threads:16}")
+    private int prefetchThreads;
+
+    @Value("${files.export.compression-level:1}")
+    private int compressionLevel;
+
+    private ExecutorService prefetchers;
+
+    public ZipExportServiceImpl(PhotoRepository photoRepository, S3Service s3Service) {
+        this.photoRepository = photoRepository;
+        this.s3Service = s3Service;
+    }
+
+    @PostConstruct
+    public void start() {
+        prefetchers = ContextPropagation.wrap(Executors.newFixedThreadPool(prefetchThreads));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchers.shutdownNow();
+    }
+
+    @Override
+    public List<ExportEntry> listEntries(User user) {
+        List<ExportEntry> entries = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        for (Object[] row : photoRepository.findExportEntries(user.getId())) {
+            long id = (Long) row[0];
+            String key = (String) row[1];
+            // Deduplicated uploads share one object; export it once, under its first Image
+            if (!seenKeys.add(key)) {
+                continue;
+            }
+            entries.add(new ExportEntry(id, key, entryName(id, key, (String) row[2])));
+        }
+        return entries;
+    }
+
+    @Override
+    public void writeZip(List<ExportEntry> entries, long afterId, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ArrayDeque<Prefetch> window = new ArrayDeque<>(prefetchDepth);
+        List<String> missing = new ArrayList<>();
+        int next = 0;
+        while (next < entries.size() && entries.get(next).id() <= afterId) {
+            next++;
+        }
+        int written = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(compressionLevel);
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            while (next < entries.size() || !window.isEmpty()) {
+                while (window.size() < prefetchDepth && next < entries.size()) {
+                    window.add(prefetch(entries.get(next++)));
+                }
+
+                Prefetch current = window.poll();
+                ObjectHead head;
+                try {
+                    head = current.future().join();
+                } catch (CompletionException e) {
+                    logger.warn("Skipping {} in export: {}", current.entry().key(), e.getCause().getMessage());
+                    missing.add(current.entry().name() + " (" + current.entry().key() + ")");
+                    continue;
+                }
+
+                ZipEntry zipEntry = new ZipEntry(current.entry().name());
+                if (head.lastModified() != null) {
+                    zipEntry.setTime(head.lastModified().toEpochMilli());
+                }
+                zip.putNextEntry(zipEntry);
+                zip.write(head.bytes(), 0, head.bytes().length);
+                if (head.size() > head.bytes().length) {
+                    copyRemainder(current.entry().key(), head, zip, buffer);
+                }
+                zip.closeEntry();
+                written++;
+
+                // Push each finished entry out so a resumed download loses at most one
+                zip.flush();
+            }
+
+            if (!missing.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("MISSING.txt"));
+                zip.write(("Could not be exported:\n" + String.join("\n", missing) + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            logger.info("Exported {} files ({} missing) in {} ms", written, missing.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            // Client went away: skip prefetches that have not started yet
+            for (Prefetch pending : window) {
+                pending.future().cancel(false);
+            }
+        }
+    }
+
+    private Prefetch prefetch(ExportEntry entry) {
+        return new Prefetch(entry, CompletableFuture.supplyAsync(() -> {
+            ResponseInputStream<GetObjectResponse> stream;
+            try {
+                stream = s3Service.getObject(entry.key(), "bytes=0-" + (prefetchBytes - 1), null);
+            } catch (S3Exception e) {
+                if (e.statusCode() == 416) {
+                    // Empty object: no byte satisfies the range
+                    return new ObjectHead(new byte[0], 0, null, null);
+                }
+                throw e;
+            }
+            try (stream) {
+                GetObjectResponse response = stream.response();
+                return new ObjectHead(stream.readAllBytes(), objectSize(response), response.eTag(),
+                        response.lastModified());
+            } catch (IOException e) {
+                stream.abort();
+                throw new CompletionException(e);
+            }
+        }, prefetchers));
+    }
+
+    private void copyRemainder(String key, ObjectHead head, OutputStream zip, byte[] buffer) throws IOException {
+        ResponseInputStream<GetObjectResponse> rest = s3Service.getObject(key,
+                "bytes=" + head.bytes().length + "-", null);
+        try {
+            // The head is already in the archive; a replaced object cannot be spliced onto it
+            if (head.eTag() != null && !head.eTag().equals(rest.response().eTag())) {
+                throw new IOException("Object " + key + " changed during export");
+            }
+            int read;
+            while ((read = rest.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+            rest.close();
+        } catch (IOException e) {
+            rest.abort();
+            throw e;
+        }
+    }
+
+    // Content-Range is "bytes 0-262143/1048576"; without it the whole object was returned
+    private static long objectSize(GetObjectResponse response) {
+        String contentRange = response.contentRange();
+        if (contentRange != null && contentRange.indexOf('/') > 0) {
+            return Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1));
+        }
+        return response.contentLength();
+    }
+
+    private String entryName(long id, String key, String originalFilename) {
+        String base = originalFilename != null && !originalFilename.isBlank()
+                ? originalFilename
+                : key.substring(key.lastIndexOf('/') + 1);
+        // Keep entries inside the archive root whatever the client named the file
+        base = base.replace('\\', '_').replace('/', '_');
+        // The id prefix keeps names unique and is what a resumed download continues after
+        return String.format("%06d-%s", id, base);
+    }
+
+    private record Prefetch(ExportEntry entry, CompletableFuture<ObjectHead> future) {
+    }
+
+    private record ObjectHead(byte[] bytes, long size, String eTag, Instant lastModified) {
+    }
+}
@@ -0,0 +1,6 @@
+-- SHA-256 of the object as uploaded, matched against the hash a client
+-- declares for duplicate uploads. content_sha256 follows the stored object,
+-- which de-identification rewrites. Earlier rows cannot tell the two apart
+-- and stay null, so they are not offered for linking.
+alter table user_images add column upload_sha256 varchar(64);
+create index idx_user_images_upload_sha256 on user_images (user_id, upload_sha256);
@@ -0,0 +1,12 @@
+-- De-identification state per stored object. Objects are served, listed,
+-- exported and handed to later ingest stages only once DONE. PENDING rows
+-- are retried by the scheduled poller; PROCESSING rows carry a claim like
+-- pending_upload. Rows ingested before this migration stay as they are.
+
+alter table user_images add column deidentify_status enum ('DONE','FAILED','PENDING','PROCESSING')
+    not null default 'DONE';
+alter table user_images add column deidentify_attempts integer not null default 0;
+alter table user_images add column deidentify_claim_token varchar(36);
+alter table user_images add column deidentify_claimed_at datetime(6);
+
+create index idx_user_images_deidentify_status on user_images (deidentify_status);
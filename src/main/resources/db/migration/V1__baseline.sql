@@ -0,0 +1,40 @@
+-- Schema as Hibernate's ddl-auto=update created it before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and get every later change from V2 on.
+
+create table `user` (
+    id integer not null auto_increment,
+    created_at datetime(6),
+    reset_token_expiry datetime(6),
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    password varchar(255) not null,
+    reset_token varchar(255),
+    role enum ('ADMIN','DOCTOR','PATIENT','USER') not null,
+    primary key (id),
+    constraint UKob8kqyqqgmefl0aco34akdtpe unique (email)
+) engine=InnoDB;
+
+create table image (
+    user_id integer not null,
+    id bigint not null auto_increment,
+    uploaded_at datetime(6) not null,
+    url TEXT not null,
+    primary key (id),
+    constraint FKlxnnh0ir05khn8iu9tgwh1yyk foreign key (user_id) references `user` (id)
+) engine=InnoDB;
+
+create table user_images (
+    user_id integer not null,
+    file_size bigint,
+    id bigint not null auto_increment,
+    upload_date datetime(6),
+    content_type varchar(255),
+    original_filename varchar(255),
+    s3_key varchar(255) not null,
+    primary key (id),
+    constraint UK9fglbf436uukb5tbyl50t3ete unique (user_id, s3_key),
+    constraint UKqp9pngj93bme5cuoatwhp6x79 unique (s3_key),
+    constraint FK2jg7uf46pq5ihgoj39y7phhy6 foreign key (user_id) references `user` (id)
+) engine=InnoDB;
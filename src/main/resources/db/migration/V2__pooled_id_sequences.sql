@@ -0,0 +1,14 @@
+-- Ids come from pooled sequences (table-emulated on MySQL) instead of IDENTITY, so
+-- inserts can be JDBC-batched. Hibernate now supplies every id; AUTO_INCREMENT stays
+-- on the columns (dropping it is refused on keys referenced by foreign keys) but is
+-- no longer used. Each sequence starts past the existing ids: the 50 is the
+-- allocationSize of the @SequenceGenerator, so the first block cannot collide.
+
+create table user_seq (next_val bigint) engine=InnoDB;
+insert into user_seq select coalesce(max(id), 0) + 1 + 50 from `user`;
+
+create table image_seq (next_val bigint) engine=InnoDB;
+insert into image_seq select coalesce(max(id), 0) + 1 + 50 from image;
+
+create table user_image_seq (next_val bigint) engine=InnoDB;
+insert into user_image_seq select coalesce(max(id), 0) + 1 + 50 from user_images;
@@ -0,0 +1,2 @@
+-- Set once the thumbnail/preview derivatives exist in S3
+alter table image add column derivatives_ready bit;
@@ -0,0 +1,22 @@
+-- Durable queue and results of scan analysis jobs
+
+create table analysis_job (
+    user_id integer not null,
+    completed_at datetime(6),
+    created_at datetime(6) not null,
+    id bigint not null,
+    started_at datetime(6),
+    error_message varchar(255),
+    model_version varchar(255),
+    result TEXT,
+    s3_key varchar(255) not null,
+    status enum ('DONE','FAILED','QUEUED','RUNNING') not null,
+    primary key (id),
+    constraint FK44b0p3hwjw2r594k6pinvqjbk foreign key (user_id) references `user` (id)
+) engine=InnoDB;
+
+create index idx_analysis_job_status on analysis_job (status);
+create index idx_analysis_job_user on analysis_job (user_id);
+
+create table analysis_job_seq (next_val bigint) engine=InnoDB;
+insert into analysis_job_seq values (1);
@@ -0,0 +1,5 @@
+-- SHA-256 of the stored object, the analysis result cache key
+alter table user_images add column content_sha256 varchar(64);
+create index idx_user_images_sha256 on user_images (content_sha256);
+
+alter table analysis_job add column content_sha256 varchar(64);
@@ -0,0 +1,2 @@
+-- Image rows sharing the object after deduplication; null (existing rows) means 1
+alter table user_images add column ref_count integer;
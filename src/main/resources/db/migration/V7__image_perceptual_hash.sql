@@ -0,0 +1,2 @@
+-- 64-bit dHash of the decoded image, for near-duplicate lookup
+alter table image add column phash bigint;
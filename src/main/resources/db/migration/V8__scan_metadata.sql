@@ -0,0 +1,21 @@
+-- DICOM/NIfTI header fields, one row per stored scan
+
+create table scan_metadata (
+    acquisition_date date,
+    bits_allocated integer,
+    depth integer,
+    height integer,
+    width integer,
+    extracted_at datetime(6),
+    header_bytes_read bigint,
+    user_image_id bigint not null,
+    modality varchar(16),
+    body_part varchar(64),
+    description varchar(255),
+    format enum ('DICOM','NIFTI') not null,
+    primary key (user_image_id),
+    constraint FKsl69hyha2wgjwyruuqtu7p8sq foreign key (user_image_id) references user_images (id)
+) engine=InnoDB;
+
+create index idx_scan_metadata_modality on scan_metadata (modality);
+create index idx_scan_metadata_acquired on scan_metadata (acquisition_date);
@@ -0,0 +1,22 @@
+-- Upload keys handed out and not yet registered; the durable ingest queue
+
+create table pending_upload (
+    user_id integer not null,
+    claimed_at datetime(6),
+    confirmed_at datetime(6),
+    created_at datetime(6) not null,
+    id bigint not null,
+    claim_token varchar(36),
+    original_filename varchar(255),
+    s3_key varchar(255) not null,
+    status enum ('CONFIRMED','INGESTING','ISSUED') not null,
+    primary key (id),
+    constraint UK_pending_upload_s3_key unique (s3_key),
+    constraint FK_pending_upload_user foreign key (user_id) references `user` (id)
+) engine=InnoDB;
+
+create index idx_pending_upload_status on pending_upload (status);
+create index idx_pending_upload_claim on pending_upload (claim_token);
+
+create table pending_upload_seq (next_val bigint) engine=InnoDB;
+insert into pending_upload_seq values (1);
@@ -0,0 +1,91 @@
+package com.example.gradproject.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.example.gradproject.cache.CacheInvalidationBus.Invalidation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheInvalidationBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StringRedisTemplate redisTemplate;
+    private DomainDataStorageAccess storage;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        storage = mock(DomainDataStorageAccess.class);
+        bus = new CacheInvalidationBus(redisTemplate, objectMapper, meterRegistry);
+        bus.register("user", storage);
+    }
+
+    @Test
+    void keysKeepTheirTypeThroughJson() throws Exception {
+        for (Object key : new Object[] { 42, 42L, "patient@example.com" }) {
+            Invalidation sent = Invalidation.of("node", "user", key);
+            Invalidation received = objectMapper.readValue(objectMapper.writeValueAsString(sent), Invalidation.class);
+
+            assertThat(received.key()).isEqualTo(key).hasSameClassAs(key);
+        }
+    }
+
+    @Test
+    void otherKeyTypesInvalidateTheRegion() throws Exception {
+        Invalidation sent = Invalidation.of("node", "user", UUID.randomUUID());
+        Invalidation received = objectMapper.readValue(objectMapper.writeValueAsString(sent), Invalidation.class);
+
+        assertThat(received.key()).isNull();
+        assertThat(Invalidation.of("node", "user", null).key()).isNull();
+    }
+
+    @Test
+    void otherNodesEvictTheKey() throws Exception {
+        bus.onMessage(message(Invalidation.of("other-node", "user", 42)), null);
+        bus.onMessage(message(Invalidation.of("other-node", "user", null)), null);
+        bus.onMessage(message(Invalidation.of("other-node", "image", 7L)), null);
+
+        verify(storage).evictData(42);
+        verify(storage).evictData();
+        assertThat(meterRegistry.get("hibernate.cache.invalidations").tag("direction", "received").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void ownInvalidationsAreIgnored() {
+        bus.invalidate("user", 42);
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CacheInvalidationBus.CHANNEL), json.capture());
+        Message echo = mock(Message.class);
+        when(echo.getBody()).thenReturn(json.getValue().getBytes(StandardCharsets.UTF_8));
+        bus.onMessage(echo, null);
+
+        verify(storage, never()).evictData(any());
+    }
+
+    private Message message(Invalidation invalidation) throws Exception {
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn(objectMapper.writeValueAsBytes(invalidation));
+        return message;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.gradproject.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.example.gradproject.service.impl.TokenBlacklistService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.servlet.http.HttpServletResponse;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String EMAIL = "patient@example.com";
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private JwtUtil jwtUtil;
+    private UserDetailsService userDetailsService;
+    private TokenBlacklistService tokenBlacklistService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> {
+        });
+        ObjectProvider<Tracer> tracers = mock(ObjectProvider.class);
+        when(tracers.getIfAvailable()).thenReturn(tracer);
+
+        jwtUtil = mock(JwtUtil.class);
+        userDetailsService = mock(UserDetailsService.class);
+        tokenBlacklistService = mock(TokenBlacklistService.class);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenBlacklistService,
+                new SimpleMeterRegistry(), tracers);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        tracerProvider.close();
+    }
+
+    @Test
+    void lookupsAreTracedAsChildrenOfTheVerifySpan() throws Exception {
+        UserDetails user = User.withUsername(EMAIL).password("x").roles("PATIENT").build();
+        when(tokenBlacklistService.isTokenBlacklisted(TOKEN)).thenAnswer(invocation -> traced("redis", false));
+        when(jwtUtil.extractUsername(TOKEN)).thenReturn(EMAIL);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenAnswer(invocation -> traced("select user", user));
+        when(jwtUtil.validateToken(TOKEN, user)).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        Span request = tracer.nextSpan().name("http").start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(request)) {
+            filter.doFilter(bearerRequest(), new MockHttpServletResponse(), chain);
+            // The verify span is out of scope again before the chain runs on
+            assertThat(tracer.currentSpan().context().spanId()).isEqualTo(request.context().spanId());
+        } finally {
+            request.end();
+        }
+
+        SpanData verifySpan = exporter.span("JwtAuthenticationFilter.verify");
+        assertThat(verifySpan.getParentSpanId()).isEqualTo(request.context().spanId());
+        assertThat(verifySpan.getAttributes().get(AttributeKey.stringKey("outcome"))).isEqualTo("authenticated");
+        assertThat(exporter.span("redis").getParentSpanId()).isEqualTo(verifySpan.getSpanId());
+        assertThat(exporter.span("select user").getParentSpanId()).isEqualTo(verifySpan.getSpanId());
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void blacklistedTokenIsRejectedWithItsOutcomeTagged() throws Exception {
+        when(tokenBlacklistService.isTokenBlacklisted(TOKEN)).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        Span request = tracer.nextSpan().name("http").start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(request)) {
+            filter.doFilter(bearerRequest(), response, chain);
+        } finally {
+            request.end();
+        }
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(exporter.span("JwtAuthenticationFilter.verify").getAttributes()
+                .get(AttributeKey.stringKey("outcome"))).isEqualTo("blacklisted");
+        verify(jwtUtil, never()).extractUsername(any());
+    }
+
+    @Test
+    void noSpanOutsideASampledTrace() throws Exception {
+        when(jwtUtil.extractUsername(TOKEN)).thenThrow(new IllegalArgumentException("malformed"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), chain);
+
+        assertThat(exporter.spans).isEmpty();
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private <T> T traced(String name, T result) {
+        tracer.nextSpan().name(name).start().end();
+        return result;
+    }
+
+    private static MockHttpServletRequest bearerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        return request;
+    }
+
+    private static final class InMemorySpanExporter implements SpanExporter {
+
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        SpanData span(String name) {
+            return spans.stream().filter(span -> span.getName().equals(name)).findFirst()
+                    .orElseThrow(() -> new AssertionError("No span named " + name + " in " + spans));
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.gradproject.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.DefaultJpaDialect;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.gradproject.datasource.ReadWriteRoutingDataSource.TransactionKind;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DataSource primary;
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReplicaPool pool1;
+    private ReplicaPool pool2;
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = dataSource(DataSource.class);
+        replica1 = dataSource(HikariDataSource.class);
+        replica2 = dataSource(HikariDataSource.class);
+        pool1 = new ReplicaPool("replica-1", replica1, true);
+        pool2 = new ReplicaPool("replica-2", replica2, true);
+        routing = new ReadWriteRoutingDataSource(primary, List.of(pool1, pool2), new ReadYourWritesTracker(5000),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        while (ReadWriteRoutingDataSource.currentTransaction() != null) {
+            ReadWriteRoutingDataSource.pop();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void nonTransactionalWorkGoesToPrimary() throws SQLException {
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        assertThat(routed("primary", "no-transaction")).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionsAlternateBetweenReplicas() throws SQLException {
+        for (int i = 0; i < 4; i++) {
+            ReadWriteRoutingDataSource.push(TransactionKind.READ_ONLY);
+            routing.getConnection();
+            ReadWriteRoutingDataSource.pop();
+        }
+
+        verify(replica1, times(2)).getConnection();
+        verify(replica2, times(2)).getConnection();
+        verify(primary, never()).getConnection();
+        assertThat(ReadWriteRoutingDataSource.currentTransaction()).isNull();
+    }
+
+    @Test
+    void ineligibleReplicasAreSkipped() throws SQLException {
+        pool1.update(30, false);
+        ReadWriteRoutingDataSource.push(TransactionKind.READ_ONLY);
+        routing.getConnection();
+        routing.getConnection();
+
+        verify(replica2, times(2)).getConnection();
+        verify(replica1, never()).getConnection();
+
+        pool2.update(Double.NaN, false);
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        assertThat(routed("primary", "no-replica")).isEqualTo(1);
+    }
+
+    @Test
+    void writesGoToPrimary() throws SQLException {
+        ReadWriteRoutingDataSource.push(TransactionKind.READ_WRITE);
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        assertThat(routed("primary", "write")).isEqualTo(1);
+    }
+
+    @Test
+    void userReadsStayOnPrimaryAfterTheirWriteCommits() throws SQLException {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("patient@example.com", null, List.of()));
+
+        // Nothing is recorded until the write commits
+        TransactionSynchronizationManager.initSynchronization();
+        ReadWriteRoutingDataSource.push(TransactionKind.READ_WRITE);
+        routing.getConnection();
+        ReadWriteRoutingDataSource.pop();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        ReadWriteRoutingDataSource.push(TransactionKind.READ_ONLY);
+        routing.getConnection();
+        ReadWriteRoutingDataSource.pop();
+        verify(replica1).getConnection();
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        ReadWriteRoutingDataSource.push(TransactionKind.READ_ONLY);
+        routing.getConnection();
+
+        verify(primary, times(2)).getConnection();
+        assertThat(routed("primary", "read-your-writes")).isEqualTo(1);
+
+        // Other users still read from replicas
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("doctor@example.com", null, List.of()));
+        routing.getConnection();
+        verify(replica2).getConnection();
+    }
+
+    @Test
+    void suspendedTransactionMasksOuterReadOnlyFlag() throws SQLException {
+        ReadWriteRoutingDataSource.push(TransactionKind.READ_ONLY);
+        ReadWriteRoutingDataSource.push(TransactionKind.SUSPENDED);
+        routing.getConnection();
+        verify(primary).getConnection();
+
+        ReadWriteRoutingDataSource.pop();
+        routing.getConnection();
+        verify(replica1).getConnection();
+    }
+
+    @Test
+    void transactionManagerRoutesReadOnlyTransactionsBeforeBegin() throws SQLException {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(mock(EntityTransaction.class));
+
+        RoutingJpaTransactionManager transactionManager = new RoutingJpaTransactionManager();
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        transactionManager.setJpaDialect(new ConnectionAtBeginDialect(routing));
+        transactionManager.afterPropertiesSet();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            // A write in its own transaction, then back in the read-only one
+            TransactionTemplate write = new TransactionTemplate(transactionManager);
+            write.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            write.executeWithoutResult(inner -> getConnection());
+            assertThat(ReadWriteRoutingDataSource.currentTransaction()).isEqualTo(TransactionKind.READ_ONLY);
+        });
+
+        verify(replica1).getConnection();
+        verify(primary).getConnection();
+        assertThat(routed("replica-1", "read")).isEqualTo(1);
+        assertThat(routed("primary", "write")).isEqualTo(1);
+        assertThat(ReadWriteRoutingDataSource.currentTransaction()).isNull();
+    }
+
+    private void getConnection() {
+        try {
+            routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+
+    private static <T extends DataSource> T dataSource(Class<T> type) throws SQLException {
+        T dataSource = mock(type);
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        return dataSource;
+    }
+
+    /**
+     * Takes the connection while beginning a read-only transaction, as
+     * HibernateJpaDialect does to mark it read-only.
+     */
+    private static final class ConnectionAtBeginDialect extends DefaultJpaDialect {
+
+        private final DataSource dataSource;
+
+        ConnectionAtBeginDialect(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws SQLException {
+            if (definition.isReadOnly()) {
+                assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isFalse();
+                dataSource.getConnection();
+            }
+            return null;
+        }
+    }
+}
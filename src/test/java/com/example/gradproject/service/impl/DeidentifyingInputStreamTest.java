@@ -0,0 +1,210 @@
+package com.example.gradproject.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class DeidentifyingInputStreamTest {
+
+    private static final byte[] CRC = { 1, 2, 3, 4 };
+
+    @Test
+    void dicomIdentifyingValuesAreBlankedInPlace() throws IOException {
+        Bytes in = new Bytes();
+        in.fill(128, 0x11).ascii("DICM");
+        dicomMeta(in);
+        in.tag(0x0010, 0x0010).ascii("PN").u16(8).ascii("DOE^JOHN");   // Patient's Name
+        in.tag(0x0008, 0x0060).ascii("CS").u16(2).ascii("MR");         // Modality
+        in.tag(0x0009, 0x0010).ascii("LO").u16(4).ascii("ACME");       // private creator
+        in.tag(0x7FE0, 0x0010).ascii("OB").u16(0).u32(4).bytes(9, 8, 7, 6);
+
+        Bytes expected = new Bytes();
+        expected.fill(128, 0).ascii("DICM");
+        dicomMeta(expected);
+        expected.tag(0x0010, 0x0010).ascii("PN").u16(8).ascii("        ");
+        expected.tag(0x0008, 0x0060).ascii("CS").u16(2).ascii("MR");
+        expected.tag(0x0009, 0x0010).ascii("LO").u16(4).ascii("    ");
+        expected.tag(0x7FE0, 0x0010).ascii("OB").u16(0).u32(4).bytes(9, 8, 7, 6);
+
+        assertThat(rewrite(in.toArray(), "dicom")).isEqualTo(expected.toArray());
+    }
+
+    @Test
+    void dicomSequenceItemsInheritCleaning() throws IOException {
+        Bytes in = new Bytes();
+        in.fill(128, 0).ascii("DICM");
+        dicomMeta(in);
+        // Referenced Patient Sequence, undefined length, one item holding a UID
+        in.tag(0x0008, 0x1120).ascii("SQ").u16(0).u32(0xFFFFFFFFL);
+        in.tag(0xFFFE, 0xE000).u32(12);
+        in.tag(0x0008, 0x1155).ascii("UI").u16(4).ascii("1.23");
+        in.tag(0xFFFE, 0xE0DD).u32(0);
+        in.tag(0x0008, 0x0060).ascii("CS").u16(2).ascii("CT");
+
+        byte[] out = rewrite(in.toArray(), "dicom");
+
+        assertThat(out).hasSameSizeAs(in.toArray());
+        String text = new String(out, StandardCharsets.US_ASCII);
+        assertThat(text).doesNotContain("1.23").endsWith("CT");
+    }
+
+    @Test
+    void jpegMetadataSegmentsAreDropped() throws IOException {
+        Bytes in = new Bytes();
+        in.bytes(0xFF, 0xD8);
+        in.bytes(0xFF, 0xE1).u16be(6).ascii("Exif");                  // APP1
+        in.bytes(0xFF, 0xFE).u16be(5).ascii("abc");                   // COM
+        in.bytes(0xFF, 0xDB).u16be(4).bytes(1, 2);                    // DQT
+        in.bytes(0xFF, 0xDA).u16be(4).bytes(3, 4).bytes(5, 6, 7);     // SOS + entropy-coded data
+        in.bytes(0xFF, 0xD9);
+
+        Bytes expected = new Bytes();
+        expected.bytes(0xFF, 0xD8);
+        expected.bytes(0xFF, 0xDB).u16be(4).bytes(1, 2);
+        expected.bytes(0xFF, 0xDA).u16be(4).bytes(3, 4).bytes(5, 6, 7);
+        expected.bytes(0xFF, 0xD9);
+
+        assertThat(rewrite(in.toArray(), "jpeg")).isEqualTo(expected.toArray());
+    }
+
+    @Test
+    void pngTextChunksAreDropped() throws IOException {
+        Bytes in = new Bytes();
+        in.raw(DeidentifyingInputStream.Png.SIGNATURE);
+        in.u32be(13).ascii("IHDR").fill(13, 0x42).raw(CRC);
+        in.u32be(9).ascii("tEXt").ascii("Author\0Me").raw(CRC);
+        in.u32be(0).ascii("IEND").raw(CRC);
+
+        Bytes expected = new Bytes();
+        expected.raw(DeidentifyingInputStream.Png.SIGNATURE);
+        expected.u32be(13).ascii("IHDR").fill(13, 0x42).raw(CRC);
+        expected.u32be(0).ascii("IEND").raw(CRC);
+
+        assertThat(rewrite(in.toArray(), "png")).isEqualTo(expected.toArray());
+    }
+
+    @Test
+    void otherFormatsHaveNoRewriter() throws IOException {
+        // NIfTI-1 single file: sizeof_hdr 348 and magic "n+1" at offset 344, no DICM
+        byte[] nifti = new byte[352];
+        ByteBuffer.wrap(nifti).order(ByteOrder.LITTLE_ENDIAN).putInt(348);
+        System.arraycopy("n+1\0".getBytes(StandardCharsets.US_ASCII), 0, nifti, 344, 4);
+
+        assertThat(DeidentifyingInputStream.open(new ByteArrayInputStream(nifti))).isEmpty();
+        assertThat(DeidentifyingInputStream.open(new ByteArrayInputStream(new byte[0]))).isEmpty();
+    }
+
+    @Test
+    void truncatedValueFails() throws IOException {
+        Bytes in = new Bytes();
+        in.raw(DeidentifyingInputStream.Png.SIGNATURE);
+        in.u32be(100).ascii("IDAT").fill(10, 0);
+
+        DeidentifyingInputStream rewriter = DeidentifyingInputStream.open(in.stream()).orElseThrow();
+
+        assertThatThrownBy(rewriter::readAllBytes).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void deflatedDicomIsRejected() throws IOException {
+        Bytes in = new Bytes();
+        in.fill(128, 0).ascii("DICM");
+        in.tag(0x0002, 0x0010).ascii("UI").u16(22).ascii("1.2.840.10008.1.2.1.99");
+        in.tag(0x0010, 0x0010).ascii("PN").u16(2).ascii("AB");
+
+        DeidentifyingInputStream rewriter = DeidentifyingInputStream.open(in.stream()).orElseThrow();
+
+        assertThatThrownBy(rewriter::readAllBytes).isInstanceOf(IOException.class).hasMessageContaining("Deflated");
+    }
+
+    private static byte[] rewrite(byte[] object, String format) throws IOException {
+        Optional<DeidentifyingInputStream> rewriter = DeidentifyingInputStream.open(new ByteArrayInputStream(object));
+        assertThat(rewriter).isPresent();
+        assertThat(rewriter.get().format()).isEqualTo(format);
+        // Small reads exercise the pass/blank/drop bookkeeping across calls
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[3];
+        int n;
+        try (DeidentifyingInputStream in = rewriter.get()) {
+            while ((n = in.read(buffer, 0, buffer.length)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // Transfer syntax: explicit VR little endian
+    private static void dicomMeta(Bytes bytes) {
+        bytes.tag(0x0002, 0x0010).ascii("UI").u16(20).ascii("1.2.840.10008.1.2.1\0");
+    }
+
+    private static final class Bytes {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Bytes tag(int group, int element) {
+            return u16(group).u16(element);
+        }
+
+        Bytes u16(int value) {
+            out.write(value & 0xFF);
+            out.write(value >>> 8 & 0xFF);
+            return this;
+        }
+
+        Bytes u32(long value) {
+            return u16((int) (value & 0xFFFF)).u16((int) (value >>> 16 & 0xFFFF));
+        }
+
+        Bytes u16be(int value) {
+            out.write(value >>> 8 & 0xFF);
+            out.write(value & 0xFF);
+            return this;
+        }
+
+        Bytes u32be(long value) {
+            return u16be((int) (value >>> 16 & 0xFFFF)).u16be((int) (value & 0xFFFF));
+        }
+
+        Bytes ascii(String text) {
+            return raw(text.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        Bytes bytes(int... values) {
+            for (int value : values) {
+                out.write(value);
+            }
+            return this;
+        }
+
+        Bytes fill(int length, int value) {
+            byte[] bytes = new byte[length];
+            Arrays.fill(bytes, (byte) value);
+            return raw(bytes);
+        }
+
+        Bytes raw(byte[] bytes) {
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        byte[] toArray() {
+            return out.toByteArray();
+        }
+
+        ByteArrayInputStream stream() {
+            return new ByteArrayInputStream(toArray());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.gradproject.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.gradproject.service.impl.PerceptualHashIndex.Match;
+
+class PerceptualHashIndexTest {
+
+    private static final long HASH = 0x0123_4567_89AB_CDEFL;
+
+    private final PerceptualHashIndex index = new PerceptualHashIndex();
+
+    @Test
+    void findsHashesWithinRadius() {
+        // Eight bits spread over all four chunks, and eight bits in a single chunk
+        long spread = HASH ^ 0x0003_0003_0003_0003L;
+        long oneChunk = HASH ^ 0x0000_0000_0000_00FFL;
+        index.add(1, 7, HASH);
+        index.add(2, 7, spread);
+        index.add(3, 7, oneChunk);
+        index.add(4, 7, ~HASH);
+
+        assertThat(ids(index.query(HASH, 7, 0))).containsExactly(1L);
+        assertThat(ids(index.query(HASH, 7, 7))).containsExactly(1L);
+        assertThat(ids(index.query(HASH, 7, 8))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.query(spread, 7, 8)).contains(new Match(1, 7, 8), new Match(2, 7, 0));
+    }
+
+    @Test
+    void filtersByOwner() {
+        index.add(1, 7, HASH);
+        index.add(2, 8, HASH ^ 1);
+
+        assertThat(ids(index.query(HASH, 7, 4))).containsExactly(1L);
+        assertThat(ids(index.query(HASH, 8, 4))).containsExactly(2L);
+        assertThat(ids(index.query(HASH, -1, 4))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void removedImagesAreNotFound() {
+        index.add(1, 7, HASH);
+        index.add(2, 7, HASH ^ 1);
+        index.remove(1);
+        index.remove(99);
+
+        assertThat(ids(index.query(HASH, 7, 4))).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void addingAgainReplacesTheEntry() {
+        index.add(1, 7, HASH);
+        index.add(1, 7, HASH);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.add(1, 8, ~HASH);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.query(HASH, -1, PerceptualHashIndex.MAX_DISTANCE)).isEmpty();
+        assertThat(index.query(~HASH, -1, 0)).containsExactly(new Match(1, 8, 0));
+    }
+
+    @Test
+    void rejectsRadiusOutsideSupportedRange() {
+        assertThatThrownBy(() -> index.query(HASH, 7, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.query(HASH, 7, PerceptualHashIndex.MAX_DISTANCE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesBruteForceSearch() {
+        Random random = new Random(42);
+        long[] hashes = new long[5000];
+        for (int i = 0; i < hashes.length; i++) {
+            // Every fourth hash is a near copy of an earlier one, so small radii have matches
+            hashes[i] = i % 4 == 3 ? flipBits(hashes[i - 1], random.nextInt(16), random) : random.nextLong();
+            index.add(i, i % 3, hashes[i]);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            long query = flipBits(hashes[random.nextInt(hashes.length)], random.nextInt(8), random);
+            int owner = random.nextInt(4) - 1;
+            for (int radius = 0; radius <= PerceptualHashIndex.MAX_DISTANCE; radius++) {
+                List<Match> expected = new ArrayList<>();
+                for (int i = 0; i < hashes.length; i++) {
+                    int distance = PerceptualHashIndex.distance(query, hashes[i]);
+                    if (distance <= radius && (owner < 0 || i % 3 == owner)) {
+                        expected.add(new Match(i, i % 3, distance));
+                    }
+                }
+                assertThat(index.query(query, owner, radius)).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    private static long flipBits(long hash, int bits, Random random) {
+        long flipped = hash;
+        while (PerceptualHashIndex.distance(hash, flipped) < bits) {
+            flipped ^= 1L << random.nextInt(64);
+        }
+        return flipped;
+    }
+
+    private static List<Long> ids(List<Match> matches) {
+        return matches.stream().map(Match::imageId).toList();
+    }
+}
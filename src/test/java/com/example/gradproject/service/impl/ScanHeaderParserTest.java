@@ -0,0 +1,284 @@
+package com.example.gradproject.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.gradproject.enums.ScanFormat;
+import com.example.gradproject.service.impl.ScanHeaderParser.ScanHeader;
+
+class ScanHeaderParserTest {
+
+    private static final int PIXEL_DATA = 1 << 20;
+
+    @Test
+    void dicomFieldsAreReadWithoutFetchingPixelData() throws IOException {
+        Bytes dicom = dicom("1.2.840.10008.1.2.1\0");
+        dicom.tag(0x0008, 0x0020).ascii("DA").u16(8).ascii("20240101");       // Study Date
+        dicom.tag(0x0008, 0x0022).ascii("DA").u16(10).ascii("2024.03.15");    // Acquisition Date
+        dicom.tag(0x0008, 0x0060).ascii("CS").u16(2).ascii("MR");
+        dicom.tag(0x0008, 0x1030).ascii("LO").u16(10).ascii("BRAIN W/O\0");
+        // Referenced Series Sequence: undefined length, one item of undefined length
+        dicom.tag(0x0008, 0x1115).ascii("SQ").u16(0).u32(0xFFFFFFFFL);
+        dicom.tag(0xFFFE, 0xE000).u32(0xFFFFFFFFL);
+        dicom.tag(0x0008, 0x1155).ascii("UI").u16(4).ascii("1.23");
+        dicom.tag(0xFFFE, 0xE00D).u32(0);
+        dicom.tag(0xFFFE, 0xE0DD).u32(0);
+        dicom.tag(0x0018, 0x0015).ascii("CS").u16(4).ascii("HEAD");
+        dicom.tag(0x0028, 0x0010).ascii("US").u16(2).u16(256);                // Rows
+        dicom.tag(0x0028, 0x0011).ascii("US").u16(2).u16(320);                // Columns
+        dicom.tag(0x0028, 0x0100).ascii("US").u16(2).u16(16);
+        dicom.tag(0x7FE0, 0x0010).ascii("OB").u16(0).u32(PIXEL_DATA).fill(PIXEL_DATA, 0x7F);
+        RecordingFetcher fetcher = new RecordingFetcher(dicom.toArray());
+
+        ScanHeader header = fetcher.parse(512, 64 * 1024).orElseThrow();
+
+        assertThat(header.format()).isEqualTo(ScanFormat.DICOM);
+        assertThat(header.modality()).isEqualTo("MR");
+        assertThat(header.width()).isEqualTo(320);
+        assertThat(header.height()).isEqualTo(256);
+        assertThat(header.depth()).isEqualTo(1);
+        assertThat(header.bitsAllocated()).isEqualTo(16);
+        assertThat(header.acquisitionDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(header.bodyPart()).isEqualTo("HEAD");
+        assertThat(header.description()).isEqualTo("BRAIN W/O");
+        assertThat(header.bytesRead()).isEqualTo(fetcher.bytesRead()).isLessThan(4096);
+        assertThat(header.requests()).isEqualTo(fetcher.requests.size());
+    }
+
+    @Test
+    void implicitVrMultiFrameDicom() throws IOException {
+        Bytes dicom = dicom("1.2.840.10008.1.2\0");
+        dicom.tag(0x0008, 0x0020).u32(8).ascii("20231224");
+        dicom.tag(0x0008, 0x0060).u32(2).ascii("CT");
+        dicom.tag(0x0028, 0x0008).u32(2).ascii("12");                         // Number of Frames
+        dicom.tag(0x0028, 0x0010).u32(2).u16(512);
+        dicom.tag(0x0028, 0x0011).u32(2).u16(512);
+
+        ScanHeader header = new RecordingFetcher(dicom.toArray()).parse(512, 64 * 1024).orElseThrow();
+
+        assertThat(header.modality()).isEqualTo("CT");
+        assertThat(header.width()).isEqualTo(512);
+        assertThat(header.depth()).isEqualTo(12);
+        // No acquisition date: falls back to the study date
+        assertThat(header.acquisitionDate()).isEqualTo(LocalDate.of(2023, 12, 24));
+    }
+
+    @Test
+    void bigEndianDicom() throws IOException {
+        Bytes dicom = dicom("1.2.840.10008.1.2.2\0");
+        dicom.u16be(0x0008).u16be(0x0060).ascii("CS").u16be(2).ascii("US");
+        dicom.u16be(0x0028).u16be(0x0010).ascii("US").u16be(2).u16be(480);
+        dicom.u16be(0x0028).u16be(0x0011).ascii("US").u16be(2).u16be(640);
+
+        ScanHeader header = new RecordingFetcher(dicom.toArray()).parse(512, 64 * 1024).orElseThrow();
+
+        assertThat(header.modality()).isEqualTo("US");
+        assertThat(header.width()).isEqualTo(640);
+        assertThat(header.height()).isEqualTo(480);
+    }
+
+    @Test
+    void deflatedDicomOnlyReportsTheFormat() throws IOException {
+        Bytes dicom = dicom("1.2.840.10008.1.2.1.99");
+        dicom.fill(64, 0x55);
+
+        ScanHeader header = new RecordingFetcher(dicom.toArray()).parse(512, 64 * 1024).orElseThrow();
+
+        assertThat(header.format()).isEqualTo(ScanFormat.DICOM);
+        assertThat(header.modality()).isNull();
+        assertThat(header.width()).isNull();
+    }
+
+    @Test
+    void windowDoublesWithEveryFetch() throws IOException {
+        Bytes dicom = dicom("1.2.840.10008.1.2.1\0");
+        for (int i = 0; i < 200; i++) {
+            // Private tags before group 0028, read header by header
+            dicom.tag(0x0019, 0x1000 + i).ascii("LO").u16(4).ascii("ABCD");
+        }
+        dicom.tag(0x0028, 0x0010).ascii("US").u16(2).u16(64);
+        RecordingFetcher fetcher = new RecordingFetcher(dicom.toArray());
+
+        fetcher.parse(16, 64 * 1024).orElseThrow();
+
+        assertThat(fetcher.requests).hasSizeGreaterThan(3);
+        for (int i = 0; i < fetcher.requests.size(); i++) {
+            long[] request = fetcher.requests.get(i);
+            long remaining = fetcher.data.length - request[0];
+            assertThat(request[1]).isEqualTo(Math.min(16L << i, remaining));
+        }
+    }
+
+    @Test
+    void givesUpPastMaxBytes() {
+        Bytes dicom = dicom("1.2.840.10008.1.2.1\0");
+        dicom.fill(1024, 0);
+
+        assertThatThrownBy(() -> new RecordingFetcher(dicom.toArray()).parse(64, 100))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceeds 100 bytes");
+    }
+
+    @Test
+    void truncatedDicomFails() {
+        Bytes dicom = dicom("1.2.840.10008.1.2.1\0");
+        dicom.tag(0x0008, 0x0060).ascii("CS").u16(10).ascii("MR");
+
+        assertThatThrownBy(() -> new RecordingFetcher(dicom.toArray()).parse(512, 64 * 1024))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void nifti1InEitherByteOrder() throws IOException {
+        for (ByteOrder order : List.of(ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN)) {
+            ScanHeader header = new RecordingFetcher(nifti1(order)).parse(512, 64 * 1024).orElseThrow();
+
+            assertThat(header.format()).isEqualTo(ScanFormat.NIFTI);
+            assertThat(header.width()).isEqualTo(91);
+            assertThat(header.height()).isEqualTo(109);
+            assertThat(header.depth()).isEqualTo(91);
+            assertThat(header.bitsAllocated()).isEqualTo(32);
+            assertThat(header.description()).isEqualTo("T1 MPRAGE");
+            assertThat(header.modality()).isNull();
+        }
+    }
+
+    @Test
+    void nifti2() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(544 + 64).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, 540);
+        header.put(4, "n+2\0\r\n\032\n".getBytes(StandardCharsets.US_ASCII));
+        header.putShort(14, (short) 8);
+        header.putLong(16, 2).putLong(24, 4096).putLong(32, 2048);
+        header.put(240, "slide".getBytes(StandardCharsets.US_ASCII));
+
+        ScanHeader parsed = new RecordingFetcher(header.array()).parse(512, 64 * 1024).orElseThrow();
+
+        assertThat(parsed.width()).isEqualTo(4096);
+        assertThat(parsed.height()).isEqualTo(2048);
+        assertThat(parsed.depth()).isEqualTo(1);
+        assertThat(parsed.bitsAllocated()).isEqualTo(8);
+        assertThat(parsed.description()).isEqualTo("slide");
+    }
+
+    @Test
+    void gzippedNifti() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(nifti1(ByteOrder.LITTLE_ENDIAN));
+        }
+
+        ScanHeader header = new RecordingFetcher(compressed.toByteArray()).parse(64, 64 * 1024).orElseThrow();
+
+        assertThat(header.format()).isEqualTo(ScanFormat.NIFTI);
+        assertThat(header.width()).isEqualTo(91);
+        assertThat(header.description()).isEqualTo("T1 MPRAGE");
+    }
+
+    @Test
+    void otherObjectsAreNotScans() throws IOException {
+        byte[] png = new byte[1024];
+        System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+
+        assertThat(new RecordingFetcher(png).parse(512, 64 * 1024)).isEmpty();
+        assertThat(new RecordingFetcher(new byte[] { 1 }).parse(512, 64 * 1024)).isEmpty();
+    }
+
+    // 91 x 109 x 91 float volume, vox_offset 352
+    private static byte[] nifti1(ByteOrder order) {
+        ByteBuffer header = ByteBuffer.allocate(352 + 64).order(order);
+        header.putInt(0, 348);
+        header.putShort(40, (short) 3).putShort(42, (short) 91).putShort(44, (short) 109).putShort(46, (short) 91);
+        header.putShort(72, (short) 32);
+        header.put(148, "T1 MPRAGE".getBytes(StandardCharsets.US_ASCII));
+        header.put(344, "n+1\0".getBytes(StandardCharsets.US_ASCII));
+        return header.array();
+    }
+
+    private static Bytes dicom(String transferSyntax) {
+        Bytes bytes = new Bytes();
+        bytes.fill(128, 0).ascii("DICM");
+        bytes.tag(0x0002, 0x0010).ascii("UI").u16(transferSyntax.length()).ascii(transferSyntax);
+        return bytes;
+    }
+
+    private static final class RecordingFetcher implements ScanHeaderParser.RangeFetcher {
+
+        private final byte[] data;
+        private final List<long[]> requests = new ArrayList<>();
+
+        RecordingFetcher(byte[] data) {
+            this.data = data;
+        }
+
+        Optional<ScanHeader> parse(int initialRange, int maxBytes) throws IOException {
+            return ScanHeaderParser.parse(this, data.length, initialRange, maxBytes);
+        }
+
+        long bytesRead() {
+            return requests.stream().mapToLong(request -> request[1]).sum();
+        }
+
+        @Override
+        public byte[] fetch(long offset, int length) {
+            requests.add(new long[] { offset, length });
+            return Arrays.copyOfRange(data, (int) offset, (int) offset + length);
+        }
+    }
+
+    private static final class Bytes {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Bytes tag(int group, int element) {
+            return u16(group).u16(element);
+        }
+
+        Bytes u16(int value) {
+            out.write(value & 0xFF);
+            out.write(value >>> 8 & 0xFF);
+            return this;
+        }
+
+        Bytes u32(long value) {
+            return u16((int) (value & 0xFFFF)).u16((int) (value >>> 16 & 0xFFFF));
+        }
+
+        Bytes u16be(int value) {
+            out.write(value >>> 8 & 0xFF);
+            out.write(value & 0xFF);
+            return this;
+        }
+
+        Bytes ascii(String text) {
+            out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+
+        Bytes fill(int length, int value) {
+            byte[] bytes = new byte[length];
+            Arrays.fill(bytes, (byte) value);
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        byte[] toArray() {
+            return out.toByteArray();
+        }
+    }
+}